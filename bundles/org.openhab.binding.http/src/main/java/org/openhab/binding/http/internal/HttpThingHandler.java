@@ -18,6 +18,7 @@ import java.net.URISyntaxException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -69,21 +70,25 @@ public class HttpThingHandler extends BaseThingHandler {
     private HttpClient httpClient;
     private RateLimitedHttpClient rateLimitedHttpClient;
     private final HttpDynamicStateDescriptionProvider httpDynamicStateDescriptionProvider;
+    private final RefreshingUrlCacheRegistry refreshingUrlCacheRegistry;
 
     private HttpThingConfig config = new HttpThingConfig();
     private final Map<String, RefreshingUrlCache> urlHandlers = new HashMap<>();
     private final Map<ChannelUID, ItemValueConverter> channels = new HashMap<>();
     private final Map<ChannelUID, String> channelUrls = new HashMap<>();
+    private final Map<ChannelUID, Consumer<Content>> channelConsumers = new HashMap<>();
 
     public HttpThingHandler(Thing thing, HttpClientProvider httpClientProvider,
             ValueTransformationProvider valueTransformationProvider,
-            HttpDynamicStateDescriptionProvider httpDynamicStateDescriptionProvider) {
+            HttpDynamicStateDescriptionProvider httpDynamicStateDescriptionProvider,
+            RefreshingUrlCacheRegistry refreshingUrlCacheRegistry) {
         super(thing);
         this.httpClientProvider = httpClientProvider;
         this.httpClient = httpClientProvider.getSecureClient();
         this.rateLimitedHttpClient = new RateLimitedHttpClient(httpClient, scheduler);
         this.valueTransformationProvider = valueTransformationProvider;
         this.httpDynamicStateDescriptionProvider = httpDynamicStateDescriptionProvider;
+        this.refreshingUrlCacheRegistry = refreshingUrlCacheRegistry;
     }
 
     @Override
@@ -109,6 +114,14 @@ public class HttpThingHandler extends BaseThingHandler {
         } else {
             try {
                 itemValueConverter.send(command);
+                // the next refresh shall update the channel, even if the state did not change
+                String stateUrl = channelUrls.get(channelUID);
+                if (stateUrl != null) {
+                    RefreshingUrlCache refreshingUrlCache = urlHandlers.get(stateUrl);
+                    if (refreshingUrlCache != null) {
+                        refreshingUrlCache.invalidate();
+                    }
+                }
             } catch (IllegalArgumentException e) {
                 logger.warn("Failed to convert command '{}' to channel '{}' for sending", command, channelUID);
             } catch (IllegalStateException e) {
@@ -191,14 +204,21 @@ public class HttpThingHandler extends BaseThingHandler {
 
     @Override
     public void dispose() {
-        // stop update tasks
-        urlHandlers.values().forEach(RefreshingUrlCache::stop);
+        // stop update tasks, caches shared with other things keep running
+        channelConsumers.forEach((channelUID, consumer) -> {
+            RefreshingUrlCache refreshingUrlCache = urlHandlers.get(channelUrls.get(channelUID));
+            if (refreshingUrlCache != null) {
+                refreshingUrlCache.removeConsumer(consumer);
+            }
+        });
+        urlHandlers.values().forEach(refreshingUrlCacheRegistry::release);
         rateLimitedHttpClient.shutdown();
 
         // clear lists
         urlHandlers.clear();
         channels.clear();
         channelUrls.clear();
+        channelConsumers.clear();
 
         // remove state descriptions
         httpDynamicStateDescriptionProvider.removeDescriptionsForThing(thing.getUID());
@@ -273,10 +293,11 @@ public class HttpThingHandler extends BaseThingHandler {
         channels.put(channelUID, itemValueConverter);
         if (channelConfig.mode != HttpChannelMode.WRITEONLY) {
             channelUrls.put(channelUID, stateUrl);
-            urlHandlers
-                    .computeIfAbsent(stateUrl,
-                            url -> new RefreshingUrlCache(scheduler, rateLimitedHttpClient, url, config))
-                    .addConsumer(itemValueConverter::process);
+            Consumer<Content> consumer = itemValueConverter::process;
+            channelConsumers.put(channelUID, consumer);
+            urlHandlers.computeIfAbsent(stateUrl,
+                    url -> refreshingUrlCacheRegistry.acquire(url, config, httpClient, rateLimitedHttpClient))
+                    .addConsumer(consumer);
         }
 
         StateDescription stateDescription = StateDescriptionFragmentBuilder.create()
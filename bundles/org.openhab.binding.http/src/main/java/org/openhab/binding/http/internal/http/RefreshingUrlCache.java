@@ -18,12 +18,14 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jetty.client.api.Authentication;
 import org.eclipse.jetty.client.api.AuthenticationStore;
+import org.eclipse.jetty.http.HttpHeader;
 import org.openhab.binding.http.internal.Util;
 import org.openhab.binding.http.internal.config.HttpThingConfig;
 import org.slf4j.Logger;
@@ -33,6 +35,12 @@ import org.slf4j.LoggerFactory;
  * The {@link RefreshingUrlCache} is responsible for requesting from a single URL and passing the content to the
  * channels
  *
+ * Requests are conditional if the server sent an ETag or Last-Modified header before. The content is only passed to
+ * all consumers if it changed, consumers added in the meantime get the unchanged content once.
+ *
+ * A cache may be shared by several things, see {@link RefreshingUrlCacheRegistry}. While a request is in flight,
+ * further refreshes do not start another request, but get the result of the request in flight.
+ *
  * @author Jan N. Klug - Initial contribution
  */
 @NonNullByDefault
@@ -45,10 +53,12 @@ public class RefreshingUrlCache {
     private final int bufferSize;
     private final @Nullable String fallbackEncoding;
     private final Set<Consumer<Content>> consumers = ConcurrentHashMap.newKeySet();
+    private final Set<Consumer<Content>> pendingConsumers = ConcurrentHashMap.newKeySet();
     private final List<String> headers;
+    private final AtomicBoolean requestInFlight = new AtomicBoolean();
 
     private final ScheduledFuture<?> future;
-    private @Nullable Content lastContent;
+    private volatile @Nullable Content lastContent;
 
     public RefreshingUrlCache(ScheduledExecutorService executor, RateLimitedHttpClient httpClient, String url,
             HttpThingConfig thingConfig) {
@@ -56,7 +66,7 @@ public class RefreshingUrlCache {
         this.url = url;
         this.timeout = thingConfig.timeout;
         this.bufferSize = thingConfig.bufferSize;
-        this.headers = thingConfig.headers;
+        this.headers = List.copyOf(thingConfig.headers);
         fallbackEncoding = thingConfig.encoding;
 
         future = executor.scheduleWithFixedDelay(this::refresh, 1, thingConfig.refresh, TimeUnit.SECONDS);
@@ -70,6 +80,13 @@ public class RefreshingUrlCache {
     private void refresh(boolean isRetry) {
         if (consumers.isEmpty()) {
             // do not refresh if we don't have listeners
+            if (isRetry) {
+                requestInFlight.set(false);
+            }
+            return;
+        }
+        if (!isRetry && !requestInFlight.compareAndSet(false, true)) {
+            logger.trace("Request to '{}' still in flight, skipping refresh", url);
             return;
         }
 
@@ -90,9 +107,26 @@ public class RefreshingUrlCache {
                     }
                 });
 
+                final Content content = lastContent;
+                if (content != null) {
+                    final String eTag = content.getETag();
+                    if (eTag != null) {
+                        request.header(HttpHeader.IF_NONE_MATCH, eTag);
+                    }
+                    final String lastModified = content.getLastModified();
+                    if (lastModified != null) {
+                        request.header(HttpHeader.IF_MODIFIED_SINCE, lastModified);
+                    }
+                }
+
                 CompletableFuture<@Nullable Content> response = new CompletableFuture<>();
+                // the retry clears the in-flight flag and processes the result itself
+                AtomicBoolean retrying = new AtomicBoolean();
                 response.exceptionally(e -> {
-                    if (e instanceof HttpAuthException) {
+                    if (e instanceof HttpNotModifiedException) {
+                        logger.trace("Content of '{}' not modified", uri);
+                        return content;
+                    } else if (e instanceof HttpAuthException) {
                         if (isRetry) {
                             logger.warn("Retry after authentication failure failed again for '{}', failing here", uri);
                         } else {
@@ -101,6 +135,7 @@ public class RefreshingUrlCache {
                             if (authResult != null) {
                                 authStore.removeAuthenticationResult(authResult);
                                 logger.debug("Cleared authentication result for '{}', retrying immediately", uri);
+                                retrying.set(true);
                                 refresh(true);
                             } else {
                                 logger.warn("Could not find authentication result for '{}', failing here", uri);
@@ -108,7 +143,12 @@ public class RefreshingUrlCache {
                         }
                     }
                     return null;
-                }).thenAccept(this::processResult);
+                }).thenAccept(result -> {
+                    if (!retrying.get()) {
+                        requestInFlight.set(false);
+                        processResult(result);
+                    }
+                });
 
                 if (logger.isTraceEnabled()) {
                     logger.trace("Sending to '{}': {}", uri, Util.requestToLogString(request));
@@ -116,6 +156,7 @@ public class RefreshingUrlCache {
 
                 request.send(new HttpResponseListener(response, fallbackEncoding, bufferSize));
             }).exceptionally(e -> {
+                requestInFlight.set(false);
                 if (e instanceof CancellationException) {
                     logger.debug("Request to URL {} was cancelled by thing handler.", uri);
                 } else {
@@ -124,6 +165,7 @@ public class RefreshingUrlCache {
                 return null;
             });
         } catch (IllegalArgumentException | URISyntaxException | MalformedURLException e) {
+            requestInFlight.set(false);
             logger.warn("Creating request for '{}' failed: {}", url, e.getMessage());
         }
     }
@@ -131,12 +173,26 @@ public class RefreshingUrlCache {
     public void stop() {
         // clearing all listeners to prevent further updates
         consumers.clear();
+        pendingConsumers.clear();
         future.cancel(false);
         logger.trace("Stopped refresh task for URL '{}'", url);
     }
 
     public void addConsumer(Consumer<Content> consumer) {
         consumers.add(consumer);
+        pendingConsumers.add(consumer);
+    }
+
+    public void removeConsumer(Consumer<Content> consumer) {
+        consumers.remove(consumer);
+        pendingConsumers.remove(consumer);
+    }
+
+    /**
+     * Passes the next result to all consumers, even if the content did not change.
+     */
+    public void invalidate() {
+        pendingConsumers.addAll(consumers);
     }
 
     public Optional<Content> get() {
@@ -149,8 +205,18 @@ public class RefreshingUrlCache {
     }
 
     private void processResult(@Nullable Content content) {
+        final Content previousContent = lastContent;
+        lastContent = content;
         if (content != null) {
-            for (Consumer<Content> consumer : consumers) {
+            Iterable<Consumer<Content>> updatedConsumers;
+            if (previousContent != null && previousContent.hasSameData(content)) {
+                logger.trace("Content of URL {} unchanged, skipping update of current consumers", url);
+                updatedConsumers = pendingConsumers;
+            } else {
+                updatedConsumers = consumers;
+            }
+            for (Consumer<Content> consumer : updatedConsumers) {
+                pendingConsumers.remove(consumer);
                 try {
                     consumer.accept(content);
                 } catch (IllegalArgumentException | IllegalStateException e) {
@@ -158,6 +224,5 @@ public class RefreshingUrlCache {
                 }
             }
         }
-        lastContent = content;
     }
 }
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.http;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.client.HttpClient;
+import org.openhab.binding.http.internal.config.HttpAuthMode;
+import org.openhab.binding.http.internal.config.HttpThingConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link RefreshingUrlCacheRegistry} provides the {@link RefreshingUrlCache}s of all things. Things that request
+ * the same URL with the same headers, authentication and request parameters share one cache, so the URL is only
+ * requested once per refresh interval.
+ *
+ * Things with a request delay get a cache of their own, because the rate limit applies to the requests of a single
+ * thing.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class RefreshingUrlCacheRegistry {
+    private final Logger logger = LoggerFactory.getLogger(RefreshingUrlCacheRegistry.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final Map<CacheKey, SharedCache> sharedCaches = new HashMap<>();
+
+    public RefreshingUrlCacheRegistry(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Get a cache for a URL. Each cache returned has to be released by {@link #release(RefreshingUrlCache)}.
+     *
+     * @param url the URL (may contain format strings)
+     * @param thingConfig the configuration of the requesting thing
+     * @param httpClient the (secure or insecure) client of the requesting thing
+     * @param rateLimitedHttpClient the rate limited client of the requesting thing, used if the thing has a delay
+     * @return a new or shared cache
+     */
+    public synchronized RefreshingUrlCache acquire(String url, HttpThingConfig thingConfig, HttpClient httpClient,
+            RateLimitedHttpClient rateLimitedHttpClient) {
+        if (thingConfig.delay > 0) {
+            return new RefreshingUrlCache(scheduler, rateLimitedHttpClient, url, thingConfig);
+        }
+
+        CacheKey key = new CacheKey(url, thingConfig, httpClient);
+        SharedCache sharedCache = sharedCaches.get(key);
+        if (sharedCache == null) {
+            RateLimitedHttpClient sharedHttpClient = new RateLimitedHttpClient(httpClient, scheduler);
+            sharedCache = new SharedCache(new RefreshingUrlCache(scheduler, sharedHttpClient, url, thingConfig),
+                    sharedHttpClient);
+            sharedCaches.put(key, sharedCache);
+        } else {
+            logger.debug("Sharing the cache for URL '{}' with {} other user(s)", url, sharedCache.users);
+        }
+        sharedCache.users++;
+        return sharedCache.cache;
+    }
+
+    /**
+     * Release a cache. The cache is stopped if it has no other users.
+     *
+     * The consumers of the releasing thing have to be removed from the cache before.
+     *
+     * @param cache a cache returned by {@link #acquire(String, HttpThingConfig, HttpClient, RateLimitedHttpClient)}
+     */
+    public synchronized void release(RefreshingUrlCache cache) {
+        Iterator<SharedCache> iterator = sharedCaches.values().iterator();
+        while (iterator.hasNext()) {
+            SharedCache sharedCache = iterator.next();
+            if (sharedCache.cache == cache) {
+                sharedCache.users--;
+                if (sharedCache.users == 0) {
+                    iterator.remove();
+                    cache.stop();
+                    sharedCache.httpClient.shutdown();
+                }
+                return;
+            }
+        }
+        // not shared
+        cache.stop();
+    }
+
+    private static class SharedCache {
+        private final RefreshingUrlCache cache;
+        private final RateLimitedHttpClient httpClient;
+        private int users = 0;
+
+        private SharedCache(RefreshingUrlCache cache, RateLimitedHttpClient httpClient) {
+            this.cache = cache;
+            this.httpClient = httpClient;
+        }
+    }
+
+    /**
+     * Everything that has an influence on the request or the processing of the response
+     */
+    private static class CacheKey {
+        private final String url;
+        private final HttpClient httpClient;
+        private final List<String> headers;
+        private final HttpAuthMode authMode;
+        private final String username;
+        private final String password;
+        private final int refresh;
+        private final int timeout;
+        private final int bufferSize;
+        private final @Nullable String encoding;
+
+        private CacheKey(String url, HttpThingConfig thingConfig, HttpClient httpClient) {
+            this.url = url;
+            this.httpClient = httpClient;
+            this.headers = new ArrayList<>(thingConfig.headers);
+            this.authMode = thingConfig.authMode;
+            this.username = thingConfig.username;
+            this.password = thingConfig.password;
+            this.refresh = thingConfig.refresh;
+            this.timeout = thingConfig.timeout;
+            this.bufferSize = thingConfig.bufferSize;
+            this.encoding = thingConfig.encoding;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return url.equals(other.url) && httpClient == other.httpClient && headers.equals(other.headers)
+                    && authMode == other.authMode && username.equals(other.username)
+                    && password.equals(other.password) && refresh == other.refresh && timeout == other.timeout
+                    && bufferSize == other.bufferSize && Objects.equals(encoding, other.encoding);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, headers, authMode, username, refresh);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.http.internal.config.HttpThingConfig;
+
+/**
+ * Tests the sharing and reference counting of {@link RefreshingUrlCacheRegistry}.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class RefreshingUrlCacheRegistryTest {
+    private static final String URL = "http://localhost/state";
+
+    private @Mock ScheduledExecutorService scheduler;
+    private @Mock HttpClient httpClient;
+    private @Mock HttpClient otherHttpClient;
+    private @Mock RateLimitedHttpClient rateLimitedHttpClient;
+
+    // the refresh task and its future of each cache, in the order the caches were created
+    private final List<Runnable> refreshTasks = new ArrayList<>();
+    private final List<ScheduledFuture<?>> refreshFutures = new ArrayList<>();
+
+    private RefreshingUrlCacheRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        doAnswer(i -> {
+            ScheduledFuture<?> future = mock(ScheduledFuture.class);
+            refreshTasks.add(i.getArgument(0));
+            refreshFutures.add(future);
+            return future;
+        }).when(scheduler).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+        registry = new RefreshingUrlCacheRegistry(scheduler);
+    }
+
+    private HttpThingConfig createConfig() {
+        HttpThingConfig config = new HttpThingConfig();
+        config.username = "user";
+        config.password = "secret";
+        config.headers.add("Accept=application/json");
+        return config;
+    }
+
+    private RefreshingUrlCache acquire(HttpThingConfig config) {
+        return registry.acquire(URL, config, httpClient, rateLimitedHttpClient);
+    }
+
+    @Test
+    public void cacheIsStoppedWhenReleasedByLastUser() {
+        RefreshingUrlCache first = acquire(createConfig());
+        RefreshingUrlCache second = acquire(createConfig());
+        assertSame(first, second);
+        assertEquals(1, refreshFutures.size());
+
+        registry.release(first);
+        verify(refreshFutures.get(0), never()).cancel(anyBoolean());
+
+        registry.release(second);
+        verify(refreshFutures.get(0)).cancel(false);
+
+        // a released cache is not shared anymore
+        assertNotSame(first, acquire(createConfig()));
+    }
+
+    @Test
+    public void cacheIsOnlySharedForEqualRequests() {
+        RefreshingUrlCache cache = acquire(createConfig());
+
+        assertNotSame(cache, registry.acquire(URL + "?other", createConfig(), httpClient, rateLimitedHttpClient));
+        assertNotSame(cache, registry.acquire(URL, createConfig(), otherHttpClient, rateLimitedHttpClient));
+
+        HttpThingConfig config = createConfig();
+        config.headers.add("Accept-Language=en");
+        assertNotSame(cache, acquire(config));
+
+        config = createConfig();
+        config.password = "other";
+        assertNotSame(cache, acquire(config));
+
+        config = createConfig();
+        config.refresh = 60;
+        assertNotSame(cache, acquire(config));
+
+        config = createConfig();
+        config.encoding = "ISO-8859-1";
+        assertNotSame(cache, acquire(config));
+
+        assertSame(cache, acquire(createConfig()));
+    }
+
+    @Test
+    public void thingWithDelayGetsCacheOfItsOwn() {
+        HttpThingConfig config = createConfig();
+        config.delay = 100;
+        RefreshingUrlCache first = acquire(config);
+        RefreshingUrlCache second = acquire(config);
+        assertNotSame(first, second);
+
+        // the cache uses the rate limited client of the thing
+        Request request = mock(Request.class);
+        when(rateLimitedHttpClient.newRequest(any())).thenReturn(CompletableFuture.completedFuture(request));
+        first.addConsumer(content -> {
+        });
+        refreshTasks.get(0).run();
+        verify(rateLimitedHttpClient).newRequest(any());
+
+        registry.release(first);
+        verify(refreshFutures.get(0)).cancel(false);
+        verify(refreshFutures.get(1), never()).cancel(anyBoolean());
+        registry.release(second);
+        verify(refreshFutures.get(1)).cancel(false);
+    }
+}
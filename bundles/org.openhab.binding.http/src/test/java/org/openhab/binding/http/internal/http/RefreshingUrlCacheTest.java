@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.client.api.Authentication;
+import org.eclipse.jetty.client.api.AuthenticationStore;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.http.internal.config.HttpThingConfig;
+
+/**
+ * Tests the conditional requests of {@link RefreshingUrlCache} and which consumers get the content.
+ *
+ * The refresh task is run by the test, the responses are passed to the {@link HttpResponseListener} of the request.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class RefreshingUrlCacheTest {
+    private static final String URL = "http://localhost/state";
+
+    private @Mock ScheduledExecutorService scheduler;
+    private @Mock ScheduledFuture<?> scheduledFuture;
+    private @Mock RateLimitedHttpClient httpClient;
+    private @Mock(answer = Answers.RETURNS_SELF) Request request;
+    private @Mock AuthenticationStore authStore;
+    private @Mock Authentication.Result authResult;
+
+    private final List<HttpResponseListener> listeners = new ArrayList<>();
+    private final List<String> received1 = new ArrayList<>();
+    private final List<String> received2 = new ArrayList<>();
+
+    private RefreshingUrlCache cache;
+    private Runnable refreshTask;
+
+    @BeforeEach
+    public void setUp() {
+        doReturn(scheduledFuture).when(scheduler).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+        when(httpClient.newRequest(any())).thenAnswer(i -> CompletableFuture.completedFuture(request));
+        doAnswer(i -> listeners.add(i.getArgument(0))).when(request).send(any(Response.CompleteListener.class));
+
+        cache = new RefreshingUrlCache(scheduler, httpClient, URL, new HttpThingConfig());
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).scheduleWithFixedDelay(task.capture(), eq(1L), eq(30L), eq(TimeUnit.SECONDS));
+        refreshTask = task.getValue();
+    }
+
+    /**
+     * Refreshes and answers the request with the given status, content and ETag
+     */
+    private void refresh(int status, String content, String eTag) {
+        refreshTask.run();
+        respond(status, content, eTag);
+    }
+
+    /**
+     * Answers the last request sent with the given status, content and ETag
+     */
+    private void respond(int status, String content, String eTag) {
+        assertFalse(listeners.isEmpty(), "no request sent");
+        HttpResponseListener listener = listeners.remove(listeners.size() - 1);
+
+        Response response = mock(Response.class);
+        HttpFields headers = new HttpFields();
+        headers.put(HttpHeader.ETAG, eTag);
+        when(response.getStatus()).thenReturn(status);
+        when(response.getHeaders()).thenReturn(headers);
+        if (status == HttpStatus.OK_200) {
+            listener.onContent(response, ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+        }
+        listener.onComplete(new Result(request, response));
+    }
+
+    @Test
+    public void notModifiedReusesLastContent() {
+        cache.addConsumer(content -> received1.add(content.getAsString()));
+        refresh(HttpStatus.OK_200, "first", "\"1\"");
+        assertEquals(List.of("first"), received1);
+
+        refresh(HttpStatus.NOT_MODIFIED_304, "", "\"1\"");
+        verify(request).header(HttpHeader.IF_NONE_MATCH, "\"1\"");
+        assertEquals("first", cache.get().get().getAsString());
+        // unchanged content is not passed to the consumer again
+        assertEquals(List.of("first"), received1);
+
+        // a new consumer gets the content that was not modified
+        cache.addConsumer(content -> received2.add(content.getAsString()));
+        refresh(HttpStatus.NOT_MODIFIED_304, "", "\"1\"");
+        assertEquals(List.of("first"), received2);
+        assertEquals(List.of("first"), received1);
+    }
+
+    @Test
+    public void unchangedContentOnlyReachesNewConsumers() {
+        cache.addConsumer(content -> received1.add(content.getAsString()));
+        refresh(HttpStatus.OK_200, "first", "\"1\"");
+
+        cache.addConsumer(content -> received2.add(content.getAsString()));
+        refresh(HttpStatus.OK_200, "first", "\"2\"");
+        assertEquals(List.of("first"), received1);
+        assertEquals(List.of("first"), received2);
+
+        refresh(HttpStatus.OK_200, "first", "\"3\"");
+        assertEquals(List.of("first"), received2);
+
+        refresh(HttpStatus.OK_200, "second", "\"4\"");
+        assertEquals(List.of("first", "second"), received1);
+        assertEquals(List.of("first", "second"), received2);
+    }
+
+    @Test
+    public void invalidateForcesNextUpdate() {
+        cache.addConsumer(content -> received1.add(content.getAsString()));
+        refresh(HttpStatus.OK_200, "first", "\"1\"");
+
+        // e.g. after a command, the state has to be updated even if the content did not change
+        cache.invalidate();
+        refresh(HttpStatus.NOT_MODIFIED_304, "", "\"1\"");
+        assertEquals(List.of("first", "first"), received1);
+
+        refresh(HttpStatus.NOT_MODIFIED_304, "", "\"1\"");
+        assertEquals(List.of("first", "first"), received1);
+    }
+
+    @Test
+    public void authenticationRetryKeepsRequestInFlight() {
+        when(httpClient.getAuthenticationStore()).thenReturn(authStore);
+        when(authStore.findAuthenticationResult(any())).thenReturn(authResult);
+        cache.addConsumer(content -> received1.add(content.getAsString()));
+
+        refresh(HttpStatus.UNAUTHORIZED_401, "", "\"1\"");
+        verify(authStore).removeAuthenticationResult(authResult);
+        assertEquals(1, listeners.size(), "retry not sent");
+        assertEquals(List.of(), received1);
+
+        // the next refresh gets the result of the retry instead of sending another request
+        refreshTask.run();
+        assertEquals(1, listeners.size());
+
+        respond(HttpStatus.OK_200, "first", "\"1\"");
+        assertEquals(List.of("first"), received1);
+
+        refresh(HttpStatus.OK_200, "second", "\"2\"");
+        assertEquals(List.of("first", "second"), received1);
+    }
+}
@@ -73,6 +73,10 @@ import org.slf4j.LoggerFactory;
  * While setting up your {@link ChannelState} you would set the callback to your thing handler,
  * because this base class implements {@link ChannelStateUpdateListener}.
  *
+ * <p>
+ * Channel states subscribed to the same topic should share the {@link #messageDecoder} of this handler, so that each
+ * incoming payload is decoded once for all of them and the processing time is measured per topic.
+ *
  * @author David Graeff - Initial contribution
  */
 @NonNullByDefault
@@ -83,6 +87,7 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler
     private final int subscribeTimeout;
 
     protected @Nullable MqttBrokerConnection connection;
+    protected final TopicMessageDecoder messageDecoder = new TopicMessageDecoder();
 
     private AtomicBoolean messageReceived = new AtomicBoolean(false);
     private Map<String, @Nullable ChannelState> availabilityStates = new ConcurrentHashMap<>();
@@ -116,6 +121,7 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler
     protected void stop() {
         clearAllAvailabilityTopics();
         resetMessageReceived();
+        messageDecoder.clear();
     }
 
     @Override
@@ -288,6 +294,16 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler
         postCommand(channelUID, command);
     }
 
+    /**
+     * Returns the processing statistics of a state topic of this thing.
+     *
+     * @param topic The state topic
+     * @return The statistics, or null if no message was received on the topic yet
+     */
+    public TopicMessageDecoder.@Nullable TopicMetrics getTopicMetrics(String topic) {
+        return messageDecoder.getMetrics(topic);
+    }
+
     public @Nullable MqttBrokerConnection getConnection() {
         return connection;
     }
@@ -323,6 +339,7 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler
                         public void postChannelCommand(ChannelUID channelUID, Command value) {
                         }
                     });
+            state.setMessageDecoder(messageDecoder);
             MqttBrokerConnection connection = getConnection();
             if (connection != null) {
                 state.start(connection, scheduler, 0);
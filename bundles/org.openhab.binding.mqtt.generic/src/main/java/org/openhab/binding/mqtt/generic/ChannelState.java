@@ -62,6 +62,7 @@ public class ChannelState implements MqttMessageSubscriber {
     private @Nullable ScheduledFuture<?> scheduledFuture;
     private CompletableFuture<@Nullable Void> future = CompletableFuture.completedFuture(null);
     private final Object futureLock = new Object();
+    private @Nullable TopicMessageDecoder messageDecoder;
 
     /**
      * Creates a new channel state.
@@ -113,6 +114,16 @@ public class ChannelState implements MqttMessageSubscriber {
         transformationsOut.clear();
     }
 
+    /**
+     * Share the decoding of incoming payloads with other channel states subscribed to the same topic.
+     *
+     * @param messageDecoder The decoder, usually the one of the thing handler. If null, each payload is decoded
+     *            separately.
+     */
+    public void setMessageDecoder(@Nullable TopicMessageDecoder messageDecoder) {
+        this.messageDecoder = messageDecoder;
+    }
+
     /**
      * Returns the cached value state object of this message subscriber.
      * <p>
@@ -146,6 +157,21 @@ public class ChannelState implements MqttMessageSubscriber {
             return;
         }
 
+        final TopicMessageDecoder messageDecoder = this.messageDecoder;
+        if (messageDecoder == null) {
+            processMessage(topic, payload, channelStateUpdateListener, null);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            processMessage(topic, payload, channelStateUpdateListener, messageDecoder);
+        } finally {
+            messageDecoder.record(topic, payload, System.nanoTime() - start);
+        }
+    }
+
+    private void processMessage(String topic, byte[] payload, ChannelStateUpdateListener channelStateUpdateListener,
+            @Nullable TopicMessageDecoder messageDecoder) {
         if (cachedValue.isBinary()) {
             cachedValue.update(payload);
             channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
@@ -154,7 +180,8 @@ public class ChannelState implements MqttMessageSubscriber {
         }
 
         // String value: Apply transformations
-        String strValue = new String(payload, StandardCharsets.UTF_8);
+        String strValue = messageDecoder != null ? messageDecoder.decode(topic, payload)
+                : new String(payload, StandardCharsets.UTF_8);
         for (ChannelStateTransformation t : transformationsIn) {
             String transformedValue = t.processValue(strValue);
             if (transformedValue != null) {
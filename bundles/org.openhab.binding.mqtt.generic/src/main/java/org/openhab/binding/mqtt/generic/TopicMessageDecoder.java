@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Decodes the payload of an MQTT message once for all {@link ChannelState}s of a thing subscribed to its topic.
+ *
+ * The broker connection passes the same payload array to all subscribers of a topic. The decoded value of the last
+ * payload of each topic is kept, so all channels get the same String instance. Transformations like JSONPATH cache the
+ * parsed document for that instance, so a JSON payload is parsed once and each channel only extracts its field.
+ *
+ * The processing time of the channels is recorded per topic, see {@link TopicMetrics}.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class TopicMessageDecoder {
+
+    private static class DecodedPayload {
+        private final byte[] payload;
+        private final String value;
+
+        private DecodedPayload(byte[] payload, String value) {
+            this.payload = payload;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Processing statistics of a topic.
+     */
+    public static class TopicMetrics {
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder channelUpdates = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        // the payload of the last message counted, all channels of a message get the same array
+        private final AtomicReference<byte @Nullable []> lastPayload = new AtomicReference<>();
+
+        /**
+         * Returns the number of distinct messages received on the topic.
+         */
+        public long getMessages() {
+            return messages.sum();
+        }
+
+        /**
+         * Returns the number of times a channel processed a message of the topic.
+         */
+        public long getChannelUpdates() {
+            return channelUpdates.sum();
+        }
+
+        /**
+         * Returns the average time in microseconds all channels together spent on one message.
+         */
+        public long getAverageMessageMicros() {
+            long count = messages.sum();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / count);
+        }
+
+        /**
+         * Returns the maximum time in microseconds a single channel spent on a message.
+         */
+        public long getMaxChannelMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            return "messages=" + getMessages() + ", channelUpdates=" + getChannelUpdates() + ", averageMessage="
+                    + getAverageMessageMicros() + " µs, maxChannel=" + getMaxChannelMicros() + " µs";
+        }
+    }
+
+    private final Map<String, DecodedPayload> lastPayloads = new ConcurrentHashMap<>();
+    private final Map<String, TopicMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Decodes the UTF-8 payload, or returns the value decoded for the same payload array before.
+     *
+     * @param topic The topic the message was received on
+     * @param payload The payload
+     * @return The decoded payload
+     */
+    public String decode(String topic, byte[] payload) {
+        DecodedPayload last = lastPayloads.get(topic);
+        if (last != null && last.payload == payload) {
+            return last.value;
+        }
+        String value = new String(payload, StandardCharsets.UTF_8);
+        lastPayloads.put(topic, new DecodedPayload(payload, value));
+        return value;
+    }
+
+    /**
+     * Records the time a channel spent on processing a message. Called for every channel, whether the payload was
+     * decoded or not, e.g. for binary channels.
+     *
+     * @param topic The topic the message was received on
+     * @param payload The payload of the message
+     * @param nanos The processing time in nanoseconds
+     */
+    public void record(String topic, byte[] payload, long nanos) {
+        TopicMetrics topicMetrics = getOrCreateMetrics(topic);
+        if (topicMetrics.lastPayload.getAndSet(payload) != payload) {
+            topicMetrics.messages.increment();
+        }
+        topicMetrics.channelUpdates.increment();
+        topicMetrics.totalNanos.add(nanos);
+        topicMetrics.maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Returns the statistics of a topic, or null if no message was received on it yet.
+     */
+    public @Nullable TopicMetrics getMetrics(String topic) {
+        return metrics.get(topic);
+    }
+
+    /**
+     * Releases the kept payloads. The statistics are kept.
+     */
+    public void clear() {
+        lastPayloads.clear();
+    }
+
+    private TopicMetrics getOrCreateMetrics(String topic) {
+        return metrics.computeIfAbsent(topic, t -> new TopicMetrics());
+    }
+}
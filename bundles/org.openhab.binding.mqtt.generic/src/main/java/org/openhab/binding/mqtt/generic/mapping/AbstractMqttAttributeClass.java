@@ -102,6 +102,7 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
     protected transient List<SubscribeFieldToMQTTtopic> subscriptions = new ArrayList<>();
     public transient WeakReference<@Nullable MqttBrokerConnection> connection = new WeakReference<>(null);
     protected transient WeakReference<@Nullable ScheduledExecutorService> scheduler = new WeakReference<>(null);
+    protected transient @Nullable WildcardSubscription wildcardSubscription;
     private final String prefix;
     private transient String basetopic = "";
     protected transient AttributeChanged attributeChangedListener = (b, c, d, e, f) -> {
@@ -139,6 +140,13 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
      * @return Returns a future that completes as soon as all unsubscriptions have been performed.
      */
     public CompletableFuture<@Nullable Void> unsubscribe() {
+        final WildcardSubscription wildcardSubscription = this.wildcardSubscription;
+        if (wildcardSubscription != null) {
+            subscriptions.forEach(m -> wildcardSubscription.unsubscribe(m.topic, m));
+            subscriptions.clear();
+            this.wildcardSubscription = null;
+            return CompletableFuture.completedFuture(null);
+        }
         final MqttBrokerConnection connection = this.connection.get();
         if (connection == null) {
             subscriptions.clear();
@@ -170,6 +178,28 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
     public CompletableFuture<@Nullable Void> subscribeAndReceive(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, String basetopic, @Nullable AttributeChanged attributeChangedListener,
             int timeout) {
+        return subscribeAndReceive(connection, null, scheduler, basetopic, attributeChangedListener, timeout);
+    }
+
+    /**
+     * Like {@link #subscribeAndReceive(MqttBrokerConnection, ScheduledExecutorService, String, AttributeChanged, int)},
+     * but the field values are received from a subscription to the whole topic tree if one is given. No further
+     * broker subscriptions are performed then, and values received by the tree subscription before are applied
+     * immediately.
+     *
+     * @param connection A MQTT broker connection.
+     * @param wildcardSubscription A started subscription to a topic tree containing the base topic, or null to
+     *            subscribe to the field topics one by one.
+     * @param scheduler A scheduler for timeouts.
+     * @param basetopic The base topic.
+     * @param attributeChangedListener Field change listener
+     * @param timeout Timeout per subscription in milliseconds.
+     * @return Returns a future that completes as soon as values for all subscriptions have been received or have timed
+     *         out.
+     */
+    public CompletableFuture<@Nullable Void> subscribeAndReceive(MqttBrokerConnection connection,
+            @Nullable WildcardSubscription wildcardSubscription, ScheduledExecutorService scheduler, String basetopic,
+            @Nullable AttributeChanged attributeChangedListener, int timeout) {
         // We first need to unsubscribe old subscriptions if any
         final CompletableFuture<@Nullable Void> startFuture;
         if (!subscriptions.isEmpty()) {
@@ -191,8 +221,11 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
         subscriptions = getAllFields(getFieldsOf().getClass()).stream().filter(AbstractMqttAttributeClass::filterField)
                 .map(this::mapFieldToSubscriber).collect(Collectors.toList());
 
+        this.wildcardSubscription = wildcardSubscription;
         final CompletableFuture<?>[] futures = subscriptions.stream()
-                .map(m -> m.subscribeAndReceive(connection, timeout)).toArray(CompletableFuture[]::new);
+                .map(m -> wildcardSubscription != null ? m.receiveFrom(wildcardSubscription, timeout)
+                        : m.subscribeAndReceive(connection, timeout))
+                .toArray(CompletableFuture[]::new);
         return CompletableFuture.allOf(startFuture, CompletableFuture.allOf(futures));
     }
 
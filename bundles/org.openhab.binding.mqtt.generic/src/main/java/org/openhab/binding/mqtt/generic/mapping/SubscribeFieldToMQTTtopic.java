@@ -197,6 +197,24 @@ public class SubscribeFieldToMQTTtopic implements MqttMessageSubscriber {
         return future;
     }
 
+    /**
+     * Receive the value of the MQTT topic from a subscription to the topic tree, instead of subscribing to the
+     * topic itself. You need to manually unsubscribe from the {@link WildcardSubscription} before disposing.
+     *
+     * @param subscription A subscription to a topic tree containing the {@link #topic}.
+     * @param timeout Timeout in milliseconds. The returned future completes after this time even if no message has
+     *            been received for the MQTT topic.
+     * @return Returns a future that completes if either a value is received for the topic or a timeout happens.
+     */
+    public CompletableFuture<@Nullable Void> receiveFrom(WildcardSubscription subscription, int timeout) {
+        // A value received before is passed on right away
+        subscription.subscribe(topic, this);
+        if (!future.isDone()) {
+            this.scheduledFuture = scheduler.schedule(this::timeoutReached, timeout, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
     /**
      * Return true if the corresponding field has received a value at least once.
      */
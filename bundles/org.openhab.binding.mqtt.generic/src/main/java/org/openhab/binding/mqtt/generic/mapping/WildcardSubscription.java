@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.mapping;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+
+/**
+ * Subscribes to a whole topic tree like "homie/device/#" with a single subscription and routes the received messages
+ * to subscribers of single topics within that tree.
+ *
+ * The last message of each topic accepted by the topic filter is kept. A subscriber of a topic that has been received
+ * before immediately gets that message. This way the retained messages of the tree are requested with one broker
+ * round-trip, and attribute classes can be subscribed one after another without waiting for the broker again.
+ *
+ * Used by {@link AbstractMqttAttributeClass}.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class WildcardSubscription implements MqttMessageSubscriber {
+    private final String topicFilter;
+    private final Predicate<String> cachedTopics;
+    private final Map<String, byte[]> lastMessages = new ConcurrentHashMap<>();
+    private final Map<String, MqttMessageSubscriber> subscribers = new ConcurrentHashMap<>();
+    private @Nullable MqttBrokerConnection connection;
+
+    /**
+     * Create a {@link WildcardSubscription}.
+     *
+     * @param baseTopic The root of the topic tree, e.g. "homie/device". Subscribes to "baseTopic/#".
+     * @param cachedTopics Only the last messages of topics accepted by this filter are kept. Other messages are only
+     *            routed to current subscribers.
+     */
+    public WildcardSubscription(String baseTopic, Predicate<String> cachedTopics) {
+        this.topicFilter = baseTopic + "/#";
+        this.cachedTopics = cachedTopics;
+    }
+
+    /**
+     * Subscribe to the topic tree.
+     *
+     * @param connection A broker connection
+     * @return A future that completes as soon as the subscription has been performed.
+     */
+    public CompletableFuture<Boolean> start(MqttBrokerConnection connection) {
+        this.connection = connection;
+        return connection.subscribe(topicFilter, this);
+    }
+
+    /**
+     * Unsubscribe from the topic tree and forget all received messages.
+     *
+     * @return A future that completes as soon as the unsubscription has been performed.
+     */
+    public CompletableFuture<Boolean> stop() {
+        final MqttBrokerConnection connection = this.connection;
+        this.connection = null;
+        lastMessages.clear();
+        if (connection == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return connection.unsubscribe(topicFilter, this);
+    }
+
+    /**
+     * Add a subscriber for a single topic of the tree. If a message has been received for the topic already, it is
+     * passed to the subscriber right away.
+     *
+     * @param topic The full topic
+     * @param subscriber The subscriber. There is only one subscriber per topic, an older one is replaced.
+     */
+    public void subscribe(String topic, MqttMessageSubscriber subscriber) {
+        subscribers.put(topic, subscriber);
+        // A message arriving meanwhile is either received twice or here, but not lost
+        final byte[] payload = lastMessages.get(topic);
+        if (payload != null) {
+            subscriber.processMessage(topic, payload);
+        }
+    }
+
+    /**
+     * Remove the subscriber of a single topic.
+     *
+     * @param topic The full topic
+     * @param subscriber The subscriber
+     */
+    public void unsubscribe(String topic, MqttMessageSubscriber subscriber) {
+        subscribers.remove(topic, subscriber);
+    }
+
+    @Override
+    public void processMessage(String topic, byte[] payload) {
+        if (cachedTopics.test(topic)) {
+            lastMessages.put(topic, payload);
+        }
+        final MqttMessageSubscriber subscriber = subscribers.get(topic);
+        if (subscriber != null) {
+            subscriber.processMessage(topic, payload);
+        }
+    }
+}
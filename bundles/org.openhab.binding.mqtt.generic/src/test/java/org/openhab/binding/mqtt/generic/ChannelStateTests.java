@@ -154,6 +154,54 @@ public class ChannelStateTests {
         verify(channelStateUpdateListener).updateChannelState(eq(channelUID), any());
     }
 
+    @Test
+    public void receiveSharedPayloadTest() {
+        TopicMessageDecoder decoder = new TopicMessageDecoder();
+        TextValue otherValue = new TextValue();
+        ChannelState c1 = new ChannelState(config, channelUID, textValue, channelStateUpdateListener);
+        ChannelState c2 = new ChannelState(config, channelUID, otherValue, channelStateUpdateListener);
+        c1.setMessageDecoder(decoder);
+        c2.setMessageDecoder(decoder);
+        c1.start(connection, mock(ScheduledExecutorService.class), 100);
+        c2.start(connection, mock(ScheduledExecutorService.class), 100);
+
+        byte[] payload = "A TEST".getBytes();
+        c1.processMessage("state", payload);
+        c2.processMessage("state", payload);
+
+        assertThat(textValue.getChannelState().toString(), is("A TEST"));
+        assertThat(otherValue.getChannelState().toString(), is("A TEST"));
+        TopicMessageDecoder.TopicMetrics metrics = decoder.getMetrics("state");
+        assertThat(metrics.getMessages(), is(1L));
+        assertThat(metrics.getChannelUpdates(), is(2L));
+        // the same payload array is decoded once, so both channels get the same instance
+        assertThat(decoder.decode("state", payload), is(sameInstance(decoder.decode("state", payload))));
+    }
+
+    @Test
+    public void binaryChannelMessagesAreCountedTest() {
+        TopicMessageDecoder decoder = new TopicMessageDecoder();
+        ImageValue imageValue = new ImageValue();
+        ChannelState c1 = new ChannelState(config, channelUID, imageValue, channelStateUpdateListener);
+        ChannelState c2 = new ChannelState(config, channelUID, textValue, channelStateUpdateListener);
+        c1.setMessageDecoder(decoder);
+        c2.setMessageDecoder(decoder);
+        c1.start(connection, mock(ScheduledExecutorService.class), 100);
+        c2.start(connection, mock(ScheduledExecutorService.class), 100);
+
+        // a message for a binary channel only is not decoded, but counted
+        c1.processMessage("state", new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xD9 });
+        TopicMessageDecoder.TopicMetrics metrics = decoder.getMetrics("state");
+        assertThat(metrics.getMessages(), is(1L));
+        assertThat(metrics.getChannelUpdates(), is(1L));
+
+        byte[] payload = "A TEST".getBytes();
+        c1.processMessage("state", payload);
+        c2.processMessage("state", payload);
+        assertThat(metrics.getMessages(), is(2L));
+        assertThat(metrics.getChannelUpdates(), is(3L));
+    }
+
     @Test
     public void receiveDecimalTest() {
         NumberValue value = new NumberValue(null, null, new BigDecimal(10), null);
@@ -158,4 +158,46 @@ public class SubscribeFieldToMQTTtopicTests {
         future.get(50, TimeUnit.MILLISECONDS);
         assertThat(attributes.Int, is(10));
     }
+
+    @Test
+    public void ValueReceivedBeforeFromWildcardSubscription()
+            throws InterruptedException, NoSuchFieldException, ExecutionException, TimeoutException {
+        final FieldChanged changed = (field, value) -> {
+            try {
+                field.set(attributes.getFieldsOf(), value);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                fail(e.getMessage());
+            }
+        };
+        final Field field = Attributes.class.getField("Int");
+        ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1);
+
+        WildcardSubscription wildcard = new WildcardSubscription("homie/device123", topic -> topic.contains("/$"));
+        wildcard.start(connection);
+        // Simulate a retained MQTT message, received before the field subscribes
+        wildcard.processMessage("homie/device123/$Int", "10".getBytes());
+
+        SubscribeFieldToMQTTtopic subscriber = new SubscribeFieldToMQTTtopic(scheduler, field, changed,
+                "homie/device123/$Int", true);
+        // The value is applied right away, no timeout should happen
+        subscriber.receiveFrom(wildcard, 1000).get(50, TimeUnit.MILLISECONDS);
+        assertThat(attributes.Int, is(10));
+
+        // Later messages are routed to the subscriber
+        wildcard.processMessage("homie/device123/$Int", "11".getBytes());
+        assertThat(attributes.Int, is(11));
+    }
+
+    @Test
+    public void MandatoryMissingFromWildcardSubscription() throws NoSuchFieldException {
+        final Field field = Attributes.class.getField("Int");
+        ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1);
+
+        WildcardSubscription wildcard = new WildcardSubscription("homie/device123", topic -> topic.contains("/$"));
+        wildcard.start(connection);
+
+        SubscribeFieldToMQTTtopic subscriber = new SubscribeFieldToMQTTtopic(scheduler, field, fieldChanged,
+                "homie/device123/$Int", true);
+        assertThrows(ExecutionException.class, () -> subscriber.receiveFrom(wildcard, 50).get());
+    }
 }
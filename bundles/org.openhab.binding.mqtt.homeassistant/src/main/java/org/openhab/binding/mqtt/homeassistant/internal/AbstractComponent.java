@@ -193,6 +193,10 @@ public abstract class AbstractComponent<C extends BaseChannelConfiguration> {
         return configHash;
     }
 
+    public HaID getHaID() {
+        return haID;
+    }
+
     /**
      * Return the channel group type.
      */
@@ -13,9 +13,14 @@
 package org.openhab.binding.mqtt.homeassistant.internal;
 
 import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -39,6 +44,14 @@ import com.google.gson.Gson;
  * Responsible for subscribing to the HomeAssistant MQTT components wildcard topic, either
  * in a time limited discovery mode or as a background discovery.
  *
+ * <p>
+ * Received configurations are parsed on the given executor, so the components of many topics are created in parallel
+ * and the broker callback thread is not blocked. The configurations of one topic are processed one after another, if
+ * a newer configuration arrives while an older one is still waiting, only the newer one is processed. Configurations of
+ * components the listener already knows, like the retained messages received again after a reconnect, are skipped
+ * without creating a component.
+ * </p>
+ *
  * @author David Graeff - Initial contribution
  */
 @NonNullByDefault
@@ -49,13 +62,17 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     private final ChannelStateUpdateListener updateListener;
     private final AvailabilityTracker tracker;
     private final TransformationServiceProvider transformationServiceProvider;
+    private final Executor parseExecutor;
+
+    // configurations waiting to be parsed, per config topic
+    private final Map<String, String> pendingConfigs = new ConcurrentHashMap<>();
 
     protected final CompletableFuture<@Nullable Void> discoverFinishedFuture = new CompletableFuture<>();
     private final Gson gson;
 
     private @Nullable ScheduledFuture<?> stopDiscoveryFuture;
     private WeakReference<@Nullable MqttBrokerConnection> connectionRef = new WeakReference<>(null);
-    protected @NonNullByDefault({}) ComponentDiscovered discoveredListener;
+    protected volatile @NonNullByDefault({}) ComponentDiscovered discoveredListener;
     private int discoverTime;
     private Set<String> topics = new HashSet<>();
 
@@ -64,6 +81,16 @@ public class DiscoverComponents implements MqttMessageSubscriber {
      */
     public static interface ComponentDiscovered {
         void componentDiscovered(HaID homeAssistantTopicID, AbstractComponent<?> component);
+
+        /**
+         * Return true if a component with the given configuration is known already, so it is not created again.
+         *
+         * @param homeAssistantTopicID The HomeAssistant topic ID of the component
+         * @param configHash The hash of the configuration string, see {@link AbstractComponent#getConfigHash()}
+         */
+        default boolean isComponentKnown(HaID homeAssistantTopicID, int configHash) {
+            return false;
+        }
     }
 
     /**
@@ -76,6 +103,22 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     public DiscoverComponents(ThingUID thingUID, ScheduledExecutorService scheduler,
             ChannelStateUpdateListener channelStateUpdateListener, AvailabilityTracker tracker, Gson gson,
             TransformationServiceProvider transformationServiceProvider) {
+        this(thingUID, scheduler, channelStateUpdateListener, tracker, gson, transformationServiceProvider, scheduler);
+    }
+
+    /**
+     * Create a new discovery object.
+     *
+     * @param thingUID The Thing UID to perform the discovery for.
+     * @param scheduler A scheduler for timeouts
+     * @param channelStateUpdateListener Channel update listener. Usually the handler.
+     * @param parseExecutor The executor to parse configurations and create components on. Should be bounded, as it
+     *            is usually shared by all things.
+     */
+    public DiscoverComponents(ThingUID thingUID, ScheduledExecutorService scheduler,
+            ChannelStateUpdateListener channelStateUpdateListener, AvailabilityTracker tracker, Gson gson,
+            TransformationServiceProvider transformationServiceProvider, Executor parseExecutor) {
+        this.parseExecutor = parseExecutor;
         this.thingUID = thingUID;
         this.scheduler = scheduler;
         this.updateListener = channelStateUpdateListener;
@@ -91,7 +134,46 @@ public class DiscoverComponents implements MqttMessageSubscriber {
         }
 
         HaID haID = new HaID(topic);
-        String config = new String(payload);
+        String config = new String(payload, StandardCharsets.UTF_8);
+
+        // Only the first of consecutive configurations schedules the parsing, the later ones replace the waiting one
+        if (pendingConfigs.put(topic, config) == null) {
+            try {
+                parseExecutor.execute(() -> processPendingConfigs(haID, topic));
+            } catch (RejectedExecutionException e) {
+                pendingConfigs.remove(topic);
+                logger.debug("Could not schedule parsing the configuration of HomeAssistant component {}", topic);
+            }
+        }
+    }
+
+    private void processPendingConfigs(HaID haID, String topic) {
+        String config;
+        while ((config = pendingConfigs.get(topic)) != null) {
+            try {
+                processConfig(haID, config);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to process the configuration of HomeAssistant component {}", topic, e);
+            }
+            // A newer configuration might have arrived meanwhile, it is processed by this same task
+            if (pendingConfigs.remove(topic, config)) {
+                return;
+            }
+        }
+    }
+
+    private void processConfig(HaID haID, String config) {
+        final @Nullable ComponentDiscovered discoveredListener = this.discoveredListener;
+        if (discoveredListener == null) {
+            // discovery has been stopped
+            return;
+        }
+        // Checked here and not on receipt, so an unchanged configuration still replaces a different pending one
+        if (discoveredListener.isComponentKnown(haID, config.hashCode())) {
+            logger.trace("Configuration of HomeAssistant thing {} component {} unchanged", haID.objectID,
+                    haID.component);
+            return;
+        }
 
         AbstractComponent<?> component = null;
 
@@ -103,9 +185,7 @@ public class DiscoverComponents implements MqttMessageSubscriber {
             component.setConfigSeen();
 
             logger.trace("Found HomeAssistant thing {} component {}", haID.objectID, haID.component);
-            if (discoveredListener != null) {
-                discoveredListener.componentDiscovered(haID, component);
-            }
+            discoveredListener.componentDiscovered(haID, component);
         } else {
             logger.debug("Configuration of HomeAssistant thing {} invalid: {}", haID.objectID, config);
         }
@@ -166,6 +246,7 @@ public class DiscoverComponents implements MqttMessageSubscriber {
             this.stopDiscoveryFuture = null;
         }
         this.discoveredListener = null;
+        pendingConfigs.clear();
         final MqttBrokerConnection connection = connectionRef.get();
         if (connection != null) {
             this.topics.parallelStream().forEach(t -> connection.unsubscribe(t, this));
@@ -183,4 +264,5 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     public void stopDiscovery() {
         subscribeFail(new Throwable("Stopped"));
     }
+
 }
@@ -66,6 +66,8 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
     protected final Map<String, Set<HaID>> componentsPerThingID = new TreeMap<>();
     protected final Map<String, ThingUID> thingIDPerTopic = new TreeMap<>();
     protected final Map<String, DiscoveryResult> results = new ConcurrentHashMap<>();
+    // parsed configurations per config topic, unchanged retained configurations are not parsed again
+    private final Map<String, ParsedConfig> configPerTopic = new ConcurrentHashMap<>();
 
     private @Nullable ScheduledFuture<?> future;
     private final Gson gson;
@@ -86,6 +88,16 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
 
     static final String BASE_TOPIC = "homeassistant";
 
+    private static class ParsedConfig {
+        private final int configHash;
+        private final BaseChannelConfiguration config;
+
+        private ParsedConfig(int configHash, BaseChannelConfiguration config) {
+            this.configHash = configHash;
+            this.config = config;
+        }
+    }
+
     @NonNullByDefault({})
     protected MqttChannelTypeProvider typeProvider;
 
@@ -147,8 +159,7 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         }
         this.future = scheduler.schedule(this::publishResults, 2, TimeUnit.SECONDS);
 
-        BaseChannelConfiguration config = BaseChannelConfiguration
-                .fromString(new String(payload, StandardCharsets.UTF_8), gson);
+        BaseChannelConfiguration config = parseConfig(topic, new String(payload, StandardCharsets.UTF_8));
 
         // We will of course find multiple of the same unique Thing IDs, for each different component another one.
         // Therefore the components are assembled into a list and given to the DiscoveryResult label for the user to
@@ -186,6 +197,16 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
                         .withLabel(config.getThingName() + " (" + componentNames + ")").build());
     }
 
+    private BaseChannelConfiguration parseConfig(String topic, String configJSON) {
+        int configHash = configJSON.hashCode();
+        ParsedConfig parsed = configPerTopic.get(topic);
+        if (parsed == null || parsed.configHash != configHash) {
+            parsed = new ParsedConfig(configHash, BaseChannelConfiguration.fromString(configJSON, gson));
+            configPerTopic.put(topic, parsed);
+        }
+        return parsed.config;
+    }
+
     protected void publishResults() {
         Collection<DiscoveryResult> localResults;
 
@@ -206,6 +227,7 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         if (!topic.endsWith("/config")) {
             return;
         }
+        configPerTopic.remove(topic);
         if (thingIDPerTopic.containsKey(topic)) {
             ThingUID thingUID = thingIDPerTopic.remove(topic);
             final String thingID = thingUID.getId();
@@ -20,6 +20,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -40,6 +41,7 @@ import org.openhab.binding.mqtt.homeassistant.internal.DiscoverComponents;
 import org.openhab.binding.mqtt.homeassistant.internal.DiscoverComponents.ComponentDiscovered;
 import org.openhab.binding.mqtt.homeassistant.internal.HaID;
 import org.openhab.binding.mqtt.homeassistant.internal.HandlerConfiguration;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.thing.Channel;
 import org.openhab.core.thing.ChannelUID;
@@ -79,6 +81,7 @@ import com.google.gson.GsonBuilder;
 public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         implements ComponentDiscovered, Consumer<List<AbstractComponent<?>>> {
     public static final String AVAILABILITY_CHANNEL = "availability";
+    private static final String DISCOVERY_POOL_NAME = "mqtt-homeassistant-discovery";
 
     private final Logger logger = LoggerFactory.getLogger(HomeAssistantThingHandler.class);
 
@@ -89,6 +92,8 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
 
     private final Gson gson;
     protected final Map<String, AbstractComponent<?>> haComponents = new HashMap<>();
+    // config hashes of the components in haComponents, to skip unchanged configurations on rediscovery
+    private final Map<HaID, Integer> knownConfigHashes = new ConcurrentHashMap<>();
 
     protected HandlerConfiguration config = new HandlerConfiguration();
     private Set<HaID> discoveryHomeAssistantIDs = new HashSet<>();
@@ -116,7 +121,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         this.attributeReceiveTimeout = attributeReceiveTimeout;
         this.delayedProcessing = new DelayedBatchProcessing<>(attributeReceiveTimeout, this, scheduler);
         this.discoverComponents = new DiscoverComponents(thing.getUID(), scheduler, this, this, gson,
-                this.transformationServiceProvider);
+                this.transformationServiceProvider, ThreadPoolManager.getPool(DISCOVERY_POOL_NAME));
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -159,6 +164,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
 
             if (component != null) {
                 haComponents.put(component.uid().getId(), component);
+                knownConfigHashes.put(haID, component.getConfigHash());
                 component.addChannelTypes(channelTypeProvider);
             } else {
                 logger.warn("Could not restore component {}", thing);
@@ -250,6 +256,14 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         delayedProcessing.accept(component);
     }
 
+    /**
+     * Callback of {@link DiscoverComponents}. Unchanged components need not be created again.
+     */
+    @Override
+    public boolean isComponentKnown(HaID homeAssistantTopicID, int configHash) {
+        return Integer.valueOf(configHash).equals(knownConfigHashes.get(homeAssistantTopicID));
+    }
+
     /**
      * Callback of {@link DelayedBatchProcessing}.
      * Add all newly discovered components to the Thing and start the components.
@@ -273,6 +287,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
                         known.stop();
                     } else {
                         known.setConfigSeen();
+                        knownConfigHashes.put(discovered.getHaID(), discovered.getConfigHash());
                         continue;
                     }
                 }
@@ -281,6 +296,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
                 discovered.addChannelTypes(channelTypeProvider);
                 // Add component to the component map
                 haComponents.put(discovered.uid().getId(), discovered);
+                knownConfigHashes.put(discovered.getHaID(), discovered.getConfigHash());
                 // Start component / Subscribe to channel topics
                 discovered.start(connection, scheduler, 0).exceptionally(e -> {
                     logger.warn("Failed to start component {}", discovered.uid(), e);
@@ -126,7 +126,11 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
                     "Homie devices require QoS 1 but Qos 0/2 is configured. Using override. Please check the configuration");
             connection.setQos(1);
         }
-        return device.subscribe(connection, scheduler, attributeReceiveTimeout).thenCompose((Void v) -> {
+        // With a wildcard subscription the whole device tree is limited by one timeout instead of one per attribute
+        CompletableFuture<@Nullable Void> subscribed = config.wildcardsubscription
+                ? device.subscribeWildcard(connection, scheduler, subscribeTimeout)
+                : device.subscribe(connection, scheduler, attributeReceiveTimeout);
+        return subscribed.thenCompose((Void v) -> {
             return device.startChannels(connection, scheduler, attributeReceiveTimeout, this);
         }).thenRun(() -> {
             logger.debug("Homie device {} fully attached (start)", device.attributes.name);
@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -23,6 +24,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.generic.ChannelConfig;
 import org.openhab.binding.mqtt.generic.mapping.AbstractMqttAttributeClass;
+import org.openhab.binding.mqtt.generic.mapping.WildcardSubscription;
 import org.openhab.binding.mqtt.generic.tools.ChildMap;
 import org.openhab.binding.mqtt.homie.internal.handler.HomieThingHandler;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
@@ -47,6 +49,9 @@ import org.slf4j.LoggerFactory;
  * });
  * </pre>
  *
+ * Alternatively use {@link #subscribeWildcard(MqttBrokerConnection, ScheduledExecutorService, int)} to receive the
+ * whole tree with a single subscription.
+ *
  * @author David Graeff - Initial contribution
  */
 @NonNullByDefault
@@ -64,6 +69,7 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
     private String topic = "";
     public String deviceID = "";
     private boolean initialized = false;
+    private @Nullable WildcardSubscription wildcardSubscription;
 
     /**
      * Creates a Homie Device structure. It consists of device attributes, device statistics and nodes.
@@ -122,6 +128,49 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
                 });
     }
 
+    /**
+     * Like {@link #subscribe(MqttBrokerConnection, ScheduledExecutorService, int)}, but subscribes to the whole device
+     * topic tree "basetopic/deviceid/#" once. Device attributes, nodes and properties are created from the retained
+     * messages as they arrive, without a broker round-trip for each level of the tree. The timeout limits the
+     * subscription of the whole tree instead of each attribute class.
+     *
+     * @param connection A broker connection
+     * @param scheduler A scheduler to realize the timeout
+     * @param timeout A timeout in milliseconds for the whole device tree
+     * @return A future that is complete as soon as all attributes, nodes and properties have been received or the
+     *         timeout has been reached.
+     */
+    public CompletableFuture<@Nullable Void> subscribeWildcard(MqttBrokerConnection connection,
+            ScheduledExecutorService scheduler, int timeout) {
+        if (topic.isEmpty()) {
+            throw new IllegalStateException("You must call initialize()!");
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        // Only attribute topics ("$name", "$properties", ...) are kept, property values are subscribed by the channels
+        final WildcardSubscription subscription = new WildcardSubscription(topic, t -> t.contains("/$"));
+        this.wildcardSubscription = subscription;
+
+        return subscription.start(connection)
+                .thenCompose(b -> attributes.subscribeAndReceive(connection, subscription, scheduler, topic, this,
+                        remainingTimeout(deadline)))
+                // On success, create all nodes and tell the handler about the ready state
+                .thenCompose(b -> attributesReceived(connection, scheduler, remainingTimeout(deadline)))
+                // No matter if values have been received or not -> the subscriptions have been performed
+                .whenComplete((r, e) -> {
+                    initialized = true;
+                });
+    }
+
+    /**
+     * Return the milliseconds left until the given deadline, or 0 if it has passed.
+     *
+     * @param deadline A deadline as given by {@link System#nanoTime()}
+     */
+    static int remainingTimeout(long deadline) {
+        return (int) Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
     public CompletableFuture<@Nullable Void> attributesReceived(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, int timeout) {
         callback.readyStateChanged(attributes.state);
@@ -174,8 +223,12 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
      * Unsubscribe from everything.
      */
     public CompletableFuture<@Nullable Void> stop() {
+        final WildcardSubscription wildcardSubscription = this.wildcardSubscription;
+        this.wildcardSubscription = null;
         return attributes.unsubscribe().thenCompose(
-                b -> CompletableFuture.allOf(nodes.stream().map(Node::stop).toArray(CompletableFuture[]::new)));
+                b -> CompletableFuture.allOf(nodes.stream().map(Node::stop).toArray(CompletableFuture[]::new)))
+                .thenCompose(b -> wildcardSubscription != null ? wildcardSubscription.stop().thenRun(() -> {
+                }) : CompletableFuture.completedFuture(null));
     }
 
     /**
@@ -275,7 +328,9 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
 
     CompletableFuture<@Nullable Void> applyNodes(MqttBrokerConnection connection, ScheduledExecutorService scheduler,
             int timeout) {
-        return nodes.apply(attributes.nodes, node -> node.subscribe(connection, scheduler, timeout), this::createNode,
+        final WildcardSubscription wildcardSubscription = this.wildcardSubscription;
+        return nodes.apply(attributes.nodes,
+                node -> node.subscribe(connection, wildcardSubscription, scheduler, timeout), this::createNode,
                 this::notifyNodeRemoved).exceptionally(e -> {
                     logger.warn("Could not subscribe", e);
                     return null;
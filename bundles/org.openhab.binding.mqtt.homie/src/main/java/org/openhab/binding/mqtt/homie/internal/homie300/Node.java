@@ -16,12 +16,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.generic.mapping.AbstractMqttAttributeClass;
+import org.openhab.binding.mqtt.generic.mapping.WildcardSubscription;
 import org.openhab.binding.mqtt.generic.tools.ChildMap;
 import org.openhab.binding.mqtt.homie.generic.internal.MqttBindingConstants;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
@@ -57,6 +59,7 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
     public final ChannelGroupTypeUID channelGroupTypeUID;
     private final String topic;
     private boolean initialized = false;
+    private @Nullable WildcardSubscription wildcardSubscription;
 
     /**
      * Creates a Homie Node.
@@ -92,6 +95,25 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
                 });
     }
 
+    /**
+     * Like {@link #subscribe(MqttBrokerConnection, ScheduledExecutorService, int)}, but receives the node and property
+     * attributes from the subscription to the device topic tree if one is given. The timeout limits the subscription
+     * of the node including its properties then.
+     */
+    public CompletableFuture<@Nullable Void> subscribe(MqttBrokerConnection connection,
+            @Nullable WildcardSubscription wildcardSubscription, ScheduledExecutorService scheduler, int timeout) {
+        if (wildcardSubscription == null) {
+            return subscribe(connection, scheduler, timeout);
+        }
+        this.wildcardSubscription = wildcardSubscription;
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        return attributes.subscribeAndReceive(connection, wildcardSubscription, scheduler, topic, this, timeout)
+                .thenCompose(b -> attributesReceived(connection, scheduler, Device.remainingTimeout(deadline)))
+                .whenComplete((r, e) -> {
+                    initialized = true;
+                });
+    }
+
     public CompletableFuture<@Nullable Void> attributesReceived(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, int timeout) {
         callback.nodeAddedOrChanged(this);
@@ -109,6 +131,7 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
      * @return Returns a future that completes as soon as all unsubscriptions have been performed.
      */
     public CompletableFuture<@Nullable Void> stop() {
+        wildcardSubscription = null;
         return attributes.unsubscribe().thenCompose(b -> CompletableFuture
                 .allOf(properties.stream().map(Property::stop).toArray(CompletableFuture[]::new)));
     }
@@ -173,8 +196,10 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
 
     protected CompletableFuture<@Nullable Void> applyProperties(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, int timeout) {
-        return properties.apply(attributes.properties, prop -> prop.subscribe(connection, scheduler, timeout),
-                this::createProperty, this::notifyPropertyRemoved).exceptionally(e -> {
+        final WildcardSubscription wildcardSubscription = this.wildcardSubscription;
+        return properties.apply(attributes.properties,
+                prop -> prop.subscribe(connection, wildcardSubscription, scheduler, timeout), this::createProperty,
+                this::notifyPropertyRemoved).exceptionally(e -> {
                     logger.warn("Could not subscribe", e);
                     return null;
                 });
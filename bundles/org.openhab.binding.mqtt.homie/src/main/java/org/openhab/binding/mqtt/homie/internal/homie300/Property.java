@@ -29,6 +29,7 @@ import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.mapping.AbstractMqttAttributeClass;
 import org.openhab.binding.mqtt.generic.mapping.AbstractMqttAttributeClass.AttributeChanged;
 import org.openhab.binding.mqtt.generic.mapping.ColorMode;
+import org.openhab.binding.mqtt.generic.mapping.WildcardSubscription;
 import org.openhab.binding.mqtt.generic.values.ColorValue;
 import org.openhab.binding.mqtt.generic.values.NumberValue;
 import org.openhab.binding.mqtt.generic.values.OnOffValue;
@@ -111,6 +112,21 @@ public class Property implements AttributeChanged {
                 });
     }
 
+    /**
+     * Like {@link #subscribe(MqttBrokerConnection, ScheduledExecutorService, int)}, but receives the property
+     * attributes from the subscription to the device topic tree if one is given.
+     */
+    public CompletableFuture<@Nullable Void> subscribe(MqttBrokerConnection connection,
+            @Nullable WildcardSubscription wildcardSubscription, ScheduledExecutorService scheduler, int timeout) {
+        if (wildcardSubscription == null) {
+            return subscribe(connection, scheduler, timeout);
+        }
+        return attributes.subscribeAndReceive(connection, wildcardSubscription, scheduler, topic, this, timeout)
+                .thenRun(this::attributesReceived).whenComplete((r, e) -> {
+                    initialized = true;
+                });
+    }
+
     private @Nullable BigDecimal convertFromString(String value) {
         try {
             return new BigDecimal(value);
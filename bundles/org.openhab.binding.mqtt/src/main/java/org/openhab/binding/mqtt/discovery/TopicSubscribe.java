@@ -12,8 +12,6 @@
  */
 package org.openhab.binding.mqtt.discovery;
 
-import java.util.concurrent.CompletableFuture;
-
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
@@ -23,6 +21,9 @@ import org.openhab.core.thing.ThingUID;
 /**
  * Represents a MQTT subscription for one specific topic. This is an immutable class.
  *
+ * It is subscribed and unsubscribed by the broker handler, which shares one subscription of the connection between all
+ * subscribers of a topic filter.
+ *
  * @author David Graeff - Initial contribution
  */
 @NonNullByDefault
@@ -32,8 +33,6 @@ public class TopicSubscribe implements MqttMessageSubscriber {
     final String topic;
     final MQTTTopicDiscoveryParticipant topicDiscoveredListener;
 
-    private boolean isStarted = false;
-
     /**
      * Creates a {@link TopicSubscribe} object.
      *
@@ -61,37 +60,4 @@ public class TopicSubscribe implements MqttMessageSubscriber {
             topicDiscoveredListener.topicVanished(thing, connection, topic);
         }
     }
-
-    /**
-     * Subscribe to the topic
-     *
-     * @return Completes with true if successful. Completes with false if not connected yet. Exceptionally otherwise.
-     */
-    public CompletableFuture<Boolean> start() {
-        CompletableFuture<Boolean> startFuture = connection == null ? CompletableFuture.completedFuture(true)
-                : connection.subscribe(topic, this);
-        isStarted = true;
-        return startFuture;
-    }
-
-    /**
-     * Unsubscribes from the topic
-     *
-     * @return Completes with true if successful. Exceptionally otherwise.
-     */
-    public CompletableFuture<Boolean> stop() {
-        CompletableFuture<Boolean> stopFuture = connection == null ? CompletableFuture.completedFuture(true)
-                : connection.unsubscribe(topic, this);
-        isStarted = false;
-        return stopFuture;
-    }
-
-    /**
-     * status of this topic subscription
-     *
-     * @return true if started
-     */
-    public boolean isStarted() {
-        return isStarted;
-    }
 }
@@ -12,9 +12,11 @@
  */
 package org.openhab.binding.mqtt.handler;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
@@ -27,6 +29,7 @@ import org.openhab.binding.mqtt.internal.action.MQTTActions;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.io.transport.mqtt.MqttConnectionObserver;
 import org.openhab.core.io.transport.mqtt.MqttConnectionState;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
 import org.openhab.core.io.transport.mqtt.MqttService;
 import org.openhab.core.thing.*;
 import org.openhab.core.thing.binding.BaseBridgeHandler;
@@ -40,6 +43,10 @@ import org.slf4j.LoggerFactory;
  * and puts the Thing on or offline. It also handles adding/removing notifications of the
  * {@link MqttService} and provides a basic dispose() implementation.
  *
+ * Discovery participants and trigger channels are not subscribed to the connection one by one. Their topic filters are
+ * kept in a {@link TopicFilterTrie} instead, which maps a received topic to all of its subscribers at once. The
+ * connection only gets one subscriber per distinct topic filter.
+ *
  * @author David Graeff - Initial contribution
  */
 @NonNullByDefault
@@ -49,6 +56,8 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
 
     final Map<ChannelUID, PublishTriggerChannel> channelStateByChannelUID = new HashMap<>();
     private final Map<String, @Nullable Map<MQTTTopicDiscoveryParticipant, @Nullable TopicSubscribe>> discoveryTopics = new HashMap<>();
+    private final TopicFilterTrie<MqttMessageSubscriber> subscribers = new TopicFilterTrie<>();
+    private final Map<String, TopicFilterSubscriber> topicFilterSubscribers = new HashMap<>();
 
     protected @Nullable MqttBrokerConnection connection;
     protected CompletableFuture<MqttBrokerConnection> connectionFuture = new CompletableFuture<>();
@@ -98,7 +107,7 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
         for (Channel channel : thing.getChannels()) {
             final PublishTriggerChannelConfig channelConfig = channel.getConfiguration()
                     .as(PublishTriggerChannelConfig.class);
-            PublishTriggerChannel c = new PublishTriggerChannel(channelConfig, channel.getUID(), connection, this);
+            PublishTriggerChannel c = new PublishTriggerChannel(channelConfig, channel.getUID(), this);
             channelStateByChannelUID.put(channel.getUID(), c);
         }
 
@@ -118,13 +127,11 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
 
         discoveryTopics.forEach((topic, listenerMap) -> {
             listenerMap.replaceAll((listener, oldTopicSubscribe) -> {
-                if (oldTopicSubscribe.isStarted()) {
-                    oldTopicSubscribe.stop();
-                }
+                unsubscribe(topic, oldTopicSubscribe);
 
                 TopicSubscribe topicSubscribe = new TopicSubscribe(connection, topic, listener, thing.getUID());
                 if (discoveryEnabled()) {
-                    topicSubscribe.start().handle((result, ex) -> {
+                    subscribe(topic, topicSubscribe).handle((result, ex) -> {
                         if (ex != null) {
                             logger.warn("Failed to subscribe {} to discovery topic {} on broker {}", listener, topic,
                                     thing.getUID());
@@ -171,7 +178,7 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
         // keep topics, but stop subscriptions
         discoveryTopics.forEach((topic, listenerMap) -> {
             listenerMap.forEach((listener, topicSubscribe) -> {
-                topicSubscribe.stop();
+                unsubscribe(topic, topicSubscribe);
             });
         });
 
@@ -199,12 +206,12 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
             if (v != null) {
                 logger.warn("Duplicate subscription for {} to discovery topic {} on broker {}. Check discovery logic!",
                         listener, topic, thing.getUID());
-                v.stop();
+                unsubscribe(topic, v);
             }
 
             TopicSubscribe topicSubscribe = new TopicSubscribe(connection, topic, listener, thing.getUID());
-            if (discoveryEnabled()) {
-                topicSubscribe.start().handle((result, ex) -> {
+            if (connection != null && discoveryEnabled()) {
+                subscribe(topic, topicSubscribe).handle((result, ex) -> {
                     if (ex != null) {
                         logger.warn("Failed to subscribe {} to discovery topic {} on broker {}", listener, topic,
                                 thing.getUID());
@@ -240,7 +247,7 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
                                     "Tried to unsubscribe {} from  discovery topic {} on broker {} but topic not registered for listener. Check discovery logic!",
                                     listener, topic, thing.getUID());
                         } else {
-                            w.stop();
+                            unsubscribe(topic, w);
                             logger.trace("Unsubscribed {} from discovery topic {} on broker {}", listener, topic,
                                     thing.getUID());
                         }
@@ -250,6 +257,137 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
                 });
     }
 
+    /**
+     * Subscribes to a topic filter. The connection is only subscribed to filters that have no subscriber yet. If that
+     * subscription fails, all subscribers of the filter are removed again.
+     *
+     * @param topicFilter The topic filter (wildcards supported)
+     * @param subscriber The subscriber
+     * @return Completes with true if successful. Completes with false if there is no connection. Exceptionally
+     *         otherwise, also if the topic filter is invalid.
+     */
+    CompletableFuture<Boolean> subscribe(String topicFilter, MqttMessageSubscriber subscriber) {
+        final MqttBrokerConnection connection = this.connection;
+        if (connection == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        synchronized (subscribers) {
+            TopicFilterSubscriber topicFilterSubscriber = topicFilterSubscribers.get(topicFilter);
+            boolean newTopicFilter = topicFilterSubscriber == null;
+            if (topicFilterSubscriber == null) {
+                topicFilterSubscriber = new TopicFilterSubscriber(connection, topicFilter);
+                topicFilterSubscribers.put(topicFilter, topicFilterSubscriber);
+                // The connection knows the new subscriber before the trie does, see dispatch()
+                topicFilterSubscriber.future = connection.subscribe(topicFilter, topicFilterSubscriber);
+            }
+            try {
+                subscribers.add(topicFilter, subscriber);
+            } catch (IllegalArgumentException e) {
+                topicFilterSubscribers.remove(topicFilter);
+                connection.unsubscribe(topicFilter, topicFilterSubscriber);
+                return CompletableFuture.failedFuture(e);
+            }
+            if (newTopicFilter) {
+                // registered after the trie has been updated, as a failed future calls back immediately
+                final TopicFilterSubscriber failedSubscriber = topicFilterSubscriber;
+                topicFilterSubscriber.future.whenComplete((result, e) -> {
+                    if (e != null) {
+                        removeTopicFilter(failedSubscriber);
+                    }
+                });
+            }
+            return topicFilterSubscriber.future;
+        }
+    }
+
+    /**
+     * Removes a topic filter whose subscription failed, so that the next subscriber subscribes the connection again.
+     */
+    private void removeTopicFilter(TopicFilterSubscriber topicFilterSubscriber) {
+        final String topicFilter = topicFilterSubscriber.topicFilter;
+        synchronized (subscribers) {
+            if (topicFilterSubscribers.get(topicFilter) != topicFilterSubscriber) {
+                return;
+            }
+            topicFilterSubscribers.remove(topicFilter);
+            subscribers.removeAll(topicFilter);
+            topicFilterSubscriber.connection.unsubscribe(topicFilter, topicFilterSubscriber);
+        }
+        logger.debug("Subscription of topic filter {} on broker {} failed, removed its subscribers", topicFilter,
+                thing.getUID());
+    }
+
+    /**
+     * Unsubscribes from a topic filter. The connection is unsubscribed if the filter has no subscribers anymore.
+     *
+     * @param topicFilter The topic filter, as given to {@link #subscribe(String, MqttMessageSubscriber)}
+     * @param subscriber The subscriber
+     * @return Completes with true if successful. Exceptionally otherwise.
+     */
+    CompletableFuture<Boolean> unsubscribe(String topicFilter, MqttMessageSubscriber subscriber) {
+        synchronized (subscribers) {
+            subscribers.remove(topicFilter, subscriber);
+            if (subscribers.contains(topicFilter)) {
+                return CompletableFuture.completedFuture(true);
+            }
+            TopicFilterSubscriber topicFilterSubscriber = topicFilterSubscribers.remove(topicFilter);
+            if (topicFilterSubscriber == null) {
+                return CompletableFuture.completedFuture(true);
+            }
+            return topicFilterSubscriber.connection.unsubscribe(topicFilter, topicFilterSubscriber);
+        }
+    }
+
+    /**
+     * Passes a received message to all subscribers with a matching topic filter.
+     *
+     * The connection calls each of its subscribers with a matching topic filter, so a message matching several filters
+     * arrives here several times. It is only dispatched when it arrives via the first matching filter of the trie.
+     */
+    private void dispatch(String topicFilter, String topic, byte[] payload) {
+        final List<MqttMessageSubscriber> matches = new ArrayList<>();
+        final List<String> firstFilter = new ArrayList<>(1);
+        synchronized (subscribers) {
+            subscribers.forEachMatch(topic, (filter, subscriber) -> {
+                if (firstFilter.isEmpty()) {
+                    firstFilter.add(filter);
+                }
+                matches.add(subscriber);
+            });
+        }
+        if (firstFilter.isEmpty() || !topicFilter.equals(firstFilter.get(0))) {
+            return;
+        }
+        for (MqttMessageSubscriber subscriber : matches) {
+            try {
+                subscriber.processMessage(topic, payload);
+            } catch (RuntimeException e) {
+                logger.warn("Subscriber {} failed to process topic {} on broker {}", subscriber, topic,
+                        thing.getUID(), e);
+            }
+        }
+    }
+
+    /**
+     * The subscriber of one distinct topic filter on the connection.
+     */
+    private class TopicFilterSubscriber implements MqttMessageSubscriber {
+        private final MqttBrokerConnection connection;
+        private final String topicFilter;
+        // the subscription on the connection, shared by all subscribers of the topic filter
+        private CompletableFuture<Boolean> future = CompletableFuture.completedFuture(true);
+
+        TopicFilterSubscriber(MqttBrokerConnection connection, String topicFilter) {
+            this.connection = connection;
+            this.topicFilter = topicFilter;
+        }
+
+        @Override
+        public void processMessage(String topic, byte[] payload) {
+            dispatch(topicFilter, topic, payload);
+        }
+    }
+
     /**
      * check whether discovery is disabled on this broker
      *
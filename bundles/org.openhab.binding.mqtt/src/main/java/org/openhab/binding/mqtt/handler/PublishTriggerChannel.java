@@ -15,7 +15,6 @@ package org.openhab.binding.mqtt.handler;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
-import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
 import org.openhab.core.thing.ChannelUID;
 
@@ -27,21 +26,18 @@ import org.openhab.core.thing.ChannelUID;
  */
 @NonNullByDefault
 public class PublishTriggerChannel implements MqttMessageSubscriber {
-    private final MqttBrokerConnection connection;
     private final PublishTriggerChannelConfig config;
     private final ChannelUID uid;
     private final AbstractBrokerHandler handler;
 
-    PublishTriggerChannel(PublishTriggerChannelConfig config, ChannelUID uid, MqttBrokerConnection connection,
-            AbstractBrokerHandler handler) {
+    PublishTriggerChannel(PublishTriggerChannelConfig config, ChannelUID uid, AbstractBrokerHandler handler) {
         this.config = config;
         this.uid = uid;
-        this.connection = connection;
         this.handler = handler;
     }
 
     CompletableFuture<Boolean> start() {
-        return stop().thenCompose(b -> connection.subscribe(config.stateTopic, this));
+        return stop().thenCompose(b -> handler.subscribe(config.stateTopic, this));
     }
 
     @Override
@@ -60,6 +56,6 @@ public class PublishTriggerChannel implements MqttMessageSubscriber {
     }
 
     public CompletableFuture<Boolean> stop() {
-        return connection.unsubscribe(config.stateTopic, this);
+        return handler.unsubscribe(config.stateTopic, this);
     }
 }
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Maps MQTT topic filters to values, for example subscribers. The topic levels of the filters form a tree, so the
+ * values of all filters matching a topic are found by walking the levels of the topic, instead of testing every filter
+ * one by one.
+ *
+ * The wildcards '+' (a single level) and '#' (all remaining levels, including the parent level) are supported. As
+ * specified by MQTT, wildcards in the first level do not match topics starting with '$'.
+ *
+ * This class is not thread-safe.
+ *
+ * @param <T> The type of the values
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class TopicFilterTrie<T> {
+    private static final String SINGLE_LEVEL = "+";
+    private static final String MULTI_LEVEL = "#";
+
+    private static class Node<T> {
+        private final Map<String, Node<T>> children = new HashMap<>();
+        private final Set<T> values = new LinkedHashSet<>();
+        private @Nullable String filter;
+    }
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * Add a value for a topic filter. A value is only added once per filter.
+     *
+     * @param filter A topic filter, e.g. "homie/+/$homie" or "homeassistant/#"
+     * @param value The value
+     * @throws IllegalArgumentException If the filter is not a valid MQTT topic filter
+     */
+    public void add(String filter, T value) {
+        Node<T> node = root;
+        for (String level : levels(filter)) {
+            node = node.children.computeIfAbsent(level, l -> new Node<>());
+        }
+        node.filter = filter;
+        node.values.add(value);
+    }
+
+    /**
+     * Remove a value of a topic filter.
+     *
+     * @param filter The topic filter, as given to {@link #add(String, Object)}
+     * @param value The value
+     * @return Returns true if the value was known for the filter.
+     */
+    public boolean remove(String filter, T value) {
+        return remove(root, filter.split("/", -1), 0, value);
+    }
+
+    private boolean remove(Node<T> node, String[] levels, int index, T value) {
+        if (index == levels.length) {
+            boolean removed = node.values.remove(value);
+            if (node.values.isEmpty()) {
+                node.filter = null;
+            }
+            return removed;
+        }
+        Node<T> child = node.children.get(levels[index]);
+        if (child == null) {
+            return false;
+        }
+        boolean removed = remove(child, levels, index + 1, value);
+        if (child.values.isEmpty() && child.children.isEmpty()) {
+            node.children.remove(levels[index]);
+        }
+        return removed;
+    }
+
+    /**
+     * Remove all values of a topic filter.
+     *
+     * @param filter The topic filter, as given to {@link #add(String, Object)}
+     */
+    public void removeAll(String filter) {
+        Node<T> node = root;
+        for (String level : filter.split("/", -1)) {
+            node = node.children.get(level);
+            if (node == null) {
+                return;
+            }
+        }
+        for (T value : new ArrayList<>(node.values)) {
+            remove(filter, value);
+        }
+    }
+
+    /**
+     * @param filter A topic filter
+     * @return Returns true if there is at least one value for exactly this filter.
+     */
+    public boolean contains(String filter) {
+        Node<T> node = root;
+        for (String level : filter.split("/", -1)) {
+            node = node.children.get(level);
+            if (node == null) {
+                return false;
+            }
+        }
+        return !node.values.isEmpty();
+    }
+
+    /**
+     * @return Returns true if there are no values at all.
+     */
+    public boolean isEmpty() {
+        return root.children.isEmpty();
+    }
+
+    /**
+     * Calls the consumer for each value of each filter that matches the given topic. The order is the same for all
+     * topics matched by the same filters, as long as the trie is not modified.
+     *
+     * @param topic A topic without wildcards
+     * @param consumer Called with the matching filter and the value
+     */
+    public void forEachMatch(String topic, BiConsumer<String, T> consumer) {
+        String[] levels = topic.split("/", -1);
+        match(root, levels, 0, !levels[0].startsWith("$"), consumer);
+    }
+
+    private void match(Node<T> node, String[] levels, int index, boolean wildcardsAllowed,
+            BiConsumer<String, T> consumer) {
+        if (wildcardsAllowed) {
+            Node<T> multiLevel = node.children.get(MULTI_LEVEL);
+            if (multiLevel != null) {
+                accept(multiLevel, consumer);
+            }
+        }
+        if (index == levels.length) {
+            accept(node, consumer);
+            return;
+        }
+        Node<T> child = node.children.get(levels[index]);
+        if (child != null) {
+            match(child, levels, index + 1, true, consumer);
+        }
+        if (wildcardsAllowed) {
+            Node<T> singleLevel = node.children.get(SINGLE_LEVEL);
+            if (singleLevel != null) {
+                match(singleLevel, levels, index + 1, true, consumer);
+            }
+        }
+    }
+
+    private void accept(Node<T> node, BiConsumer<String, T> consumer) {
+        final String filter = node.filter;
+        if (filter != null) {
+            node.values.forEach(value -> consumer.accept(filter, value));
+        }
+    }
+
+    private static String[] levels(String filter) {
+        if (filter.isEmpty()) {
+            throw new IllegalArgumentException("Empty topic filter");
+        }
+        String[] levels = filter.split("/", -1);
+        for (int i = 0; i < levels.length; i++) {
+            String level = levels[i];
+            if (level.contains(MULTI_LEVEL) && (!MULTI_LEVEL.equals(level) || i != levels.length - 1)) {
+                throw new IllegalArgumentException("'#' is only allowed as the last level: " + filter);
+            }
+            if (level.contains(SINGLE_LEVEL) && !SINGLE_LEVEL.equals(level)) {
+                throw new IllegalArgumentException("'+' must occupy a whole level: " + filter);
+            }
+        }
+        return levels;
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.handler;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.mqtt.internal.MqttThingID;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+
+/**
+ * Test cases for the topic filter subscriptions of {@link AbstractBrokerHandler}.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.WARN)
+public class BrokerHandlerSubscriptionTest {
+    private static final byte[] PAYLOAD = "TEST".getBytes();
+
+    private ScheduledExecutorService scheduler;
+
+    private @Mock ThingHandlerCallback callback;
+    private @Mock Bridge thing;
+    private @Mock MqttMessageSubscriber subscriber1;
+    private @Mock MqttMessageSubscriber subscriber2;
+
+    private MqttBrokerConnectionEx connection;
+    private BrokerHandler handler;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = new ScheduledThreadPoolExecutor(1);
+
+        when(thing.getUID()).thenReturn(MqttThingID.getThingUID("10.10.0.10", 80));
+        connection = spy(new MqttBrokerConnectionEx("10.10.0.10", 80, false, "BrokerHandlerSubscriptionTest"));
+        connection.setTimeoutExecutor(scheduler, 10);
+        connection.setConnectionCallback(connection);
+
+        Configuration config = new Configuration();
+        config.put("host", "10.10.0.10");
+        config.put("port", 80);
+        when(thing.getConfiguration()).thenReturn(config);
+
+        handler = spy(new BrokerHandlerEx(thing, connection));
+        handler.setCallback(callback);
+        handler.initialize();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void overlappingFiltersAreDeliveredOnce() {
+        handler.subscribe("homie/#", subscriber1);
+        handler.subscribe("homie/+/$homie", subscriber2);
+        handler.subscribe("homie/+/$homie", subscriber1);
+
+        // the connection passes the message to the subscriber of each matching filter
+        connection.getSubscribers().get("homie/#").messageArrived("homie/device/$homie", PAYLOAD, false);
+        connection.getSubscribers().get("homie/+/$homie").messageArrived("homie/device/$homie", PAYLOAD, false);
+
+        verify(subscriber1, times(2)).processMessage(eq("homie/device/$homie"), eq(PAYLOAD));
+        verify(subscriber2, times(1)).processMessage(eq("homie/device/$homie"), eq(PAYLOAD));
+    }
+
+    @Test
+    public void distinctFilterIsSubscribedOnce() {
+        handler.subscribe("homie/#", subscriber1);
+        handler.subscribe("homie/#", subscriber2);
+
+        verify(connection, times(1)).subscribe(eq("homie/#"), any());
+    }
+
+    @Test
+    public void failedSubscribeRemovesSubscribers() {
+        connection.subscribeSuccess = false;
+        CompletableFuture<Boolean> future = handler.subscribe("homie/#", subscriber1);
+        assertThat(future.isCompletedExceptionally(), is(true));
+
+        connection.subscribeSuccess = true;
+        future = handler.subscribe("homie/#", subscriber2);
+        assertThat(future.isCompletedExceptionally(), is(false));
+
+        // the filter is subscribed again, and only the second subscriber is known
+        verify(connection, times(2)).subscribe(eq("homie/#"), any());
+        connection.getSubscribers().get("homie/#").messageArrived("homie/device/$homie", PAYLOAD, false);
+        verify(subscriber1, never()).processMessage(any(), any());
+        verify(subscriber2).processMessage(eq("homie/device/$homie"), eq(PAYLOAD));
+    }
+
+    @Test
+    public void unsubscribeOfLastSubscriberUnsubscribesConnection() {
+        handler.subscribe("homie/+/$homie", subscriber1);
+        handler.subscribe("homie/+/$homie", subscriber2);
+
+        handler.unsubscribe("homie/+/$homie", subscriber1);
+        verify(connection, never()).unsubscribe(eq("homie/+/$homie"), any());
+        connection.getSubscribers().get("homie/+/$homie").messageArrived("homie/device/$homie", PAYLOAD, false);
+        verify(subscriber1, never()).processMessage(any(), any());
+        verify(subscriber2).processMessage(eq("homie/device/$homie"), eq(PAYLOAD));
+
+        handler.unsubscribe("homie/+/$homie", subscriber2);
+        verify(connection).unsubscribe(eq("homie/+/$homie"), any());
+    }
+}
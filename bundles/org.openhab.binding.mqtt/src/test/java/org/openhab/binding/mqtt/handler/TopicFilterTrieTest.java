@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.handler;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test cases for {@link TopicFilterTrie}.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class TopicFilterTrieTest {
+    private final TopicFilterTrie<String> trie = new TopicFilterTrie<>();
+
+    private List<String> match(String topic) {
+        List<String> values = new ArrayList<>();
+        trie.forEachMatch(topic, (filter, value) -> values.add(value));
+        return values;
+    }
+
+    @Test
+    public void exactFilter() {
+        trie.add("homie/device/$homie", "a");
+
+        assertThat(match("homie/device/$homie"), containsInAnyOrder("a"));
+        assertThat(match("homie/device"), is(empty()));
+        assertThat(match("homie/device/$homie/x"), is(empty()));
+        assertThat(match("homie/other/$homie"), is(empty()));
+    }
+
+    @Test
+    public void singleLevelWildcard() {
+        trie.add("homie/+/$homie", "a");
+        trie.add("+/+", "b");
+
+        assertThat(match("homie/device/$homie"), containsInAnyOrder("a"));
+        assertThat(match("homie/device"), containsInAnyOrder("b"));
+        assertThat(match("homie//$homie"), containsInAnyOrder("a"));
+        assertThat(match("homie/device/node/$homie"), is(empty()));
+    }
+
+    @Test
+    public void multiLevelWildcard() {
+        trie.add("homeassistant/#", "a");
+        trie.add("#", "b");
+
+        assertThat(match("homeassistant/switch/device/config"), containsInAnyOrder("a", "b"));
+        // '#' includes the parent level
+        assertThat(match("homeassistant"), containsInAnyOrder("a", "b"));
+        assertThat(match("homie/device/$homie"), containsInAnyOrder("b"));
+    }
+
+    @Test
+    public void overlappingFilters() {
+        trie.add("homie/#", "a");
+        trie.add("homie/+/$homie", "b");
+        trie.add("homie/device/$homie", "c");
+        trie.add("homie/device/$homie", "d");
+
+        assertThat(match("homie/device/$homie"), containsInAnyOrder("a", "b", "c", "d"));
+        assertThat(match("homie/other/$homie"), containsInAnyOrder("a", "b"));
+    }
+
+    @Test
+    public void systemTopicsNotMatchedByLeadingWildcards() {
+        trie.add("#", "a");
+        trie.add("+/broker", "b");
+        trie.add("$SYS/#", "c");
+
+        assertThat(match("$SYS/broker"), containsInAnyOrder("c"));
+    }
+
+    @Test
+    public void filterOfMatchIsPassed() {
+        trie.add("homie/+/$homie", "a");
+        List<String> filters = new ArrayList<>();
+
+        trie.forEachMatch("homie/device/$homie", (filter, value) -> filters.add(filter));
+
+        assertThat(filters, containsInAnyOrder("homie/+/$homie"));
+    }
+
+    @Test
+    public void remove() {
+        trie.add("homie/+/$homie", "a");
+        trie.add("homie/+/$homie", "b");
+        trie.add("homie/#", "c");
+
+        assertThat(trie.remove("homie/+/$homie", "a"), is(true));
+        assertThat(trie.remove("homie/+/$homie", "a"), is(false));
+        assertThat(trie.contains("homie/+/$homie"), is(true));
+        assertThat(match("homie/device/$homie"), containsInAnyOrder("b", "c"));
+
+        trie.remove("homie/+/$homie", "b");
+        assertThat(trie.contains("homie/+/$homie"), is(false));
+        assertThat(trie.contains("homie/#"), is(true));
+
+        trie.remove("homie/#", "c");
+        assertThat(trie.isEmpty(), is(true));
+        assertThat(match("homie/device/$homie"), is(empty()));
+    }
+
+    @Test
+    public void removeAll() {
+        trie.add("homie/+/$homie", "a");
+        trie.add("homie/+/$homie", "b");
+        trie.add("homie/#", "c");
+
+        trie.removeAll("homie/+/$homie");
+        trie.removeAll("homie/unknown");
+
+        assertThat(trie.contains("homie/+/$homie"), is(false));
+        assertThat(match("homie/device/$homie"), containsInAnyOrder("c"));
+    }
+
+    @Test
+    public void invalidFilters() {
+        assertThrows(IllegalArgumentException.class, () -> trie.add("", "a"));
+        assertThrows(IllegalArgumentException.class, () -> trie.add("homie/#/x", "a"));
+        assertThrows(IllegalArgumentException.class, () -> trie.add("homie/dev#", "a"));
+        assertThrows(IllegalArgumentException.class, () -> trie.add("homie/dev+/x", "a"));
+        assertThat(trie.isEmpty(), is(true));
+    }
+}
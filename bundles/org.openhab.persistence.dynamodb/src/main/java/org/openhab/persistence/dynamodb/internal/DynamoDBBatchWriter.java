@@ -0,0 +1,407 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+/**
+ * Asynchronous batch writer of the DynamoDB persistence service.
+ *
+ * Items are split into BatchWriteItem requests of at most 25 items and 16 MB, which are sent with the asynchronous
+ * client. Unprocessed items and failed requests are retried with exponential back-off by scheduling the retry on a
+ * timer instead of sleeping, so no thread is blocked while waiting. If a table does not exist, it is created first.
+ * Creating a table and waiting for it to become active takes a while, so it is done on a thread of its own, which
+ * keeps the retries of other tables going. Batches for a table that is being created wait for that creation.
+ *
+ * Items that cannot be written are dropped. Each drop is logged at debug level, and a summary of the drops is logged
+ * once per minute.
+ *
+ * The writer also adapts the interval in which buffered data should be flushed: it is doubled (up to 16 times the
+ * configured interval) whenever DynamoDB throttles a request or leaves items unprocessed, and halved again (down to
+ * the configured interval) after each fully processed request.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class DynamoDBBatchWriter {
+
+    /**
+     * Creates the table of the given DTO class and waits for it to become active.
+     */
+    @FunctionalInterface
+    public interface TableCreator {
+        boolean createTable(DynamoDBMapper mapper, Class<?> dtoClass);
+    }
+
+    static final int MAX_ITEMS_PER_BATCH = 25;
+    static final long MAX_BYTES_PER_BATCH = 16 * 1024 * 1024;
+
+    private static final int WAIT_ON_FIRST_RESOURCE_NOT_FOUND_MILLIS = 5000;
+    private static final int[] WAIT_MILLIS_IN_RETRIES = new int[] { 100, 100, 200, 300, 500 };
+    private static final int MAX_FLUSH_INTERVAL_FACTOR = 16;
+    private static final long STOP_TIMEOUT_MILLIS = 30000;
+    private static final long DROP_SUMMARY_INTERVAL_MINUTES = 1;
+    private static final String THREADPOOL_NAME = "dynamodbPersistenceService-retry";
+    private static final String TABLE_CREATION_THREADPOOL_NAME = "dynamodbPersistenceService-tables";
+
+    private final Logger logger = LoggerFactory.getLogger(DynamoDBBatchWriter.class);
+
+    private final AmazonDynamoDBAsync client;
+    private final TableCreator tableCreator;
+    private final ScheduledExecutorService retryScheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory(THREADPOOL_NAME));
+    private final ExecutorService tableCreationExecutor = Executors
+            .newSingleThreadExecutor(new NamedThreadFactory(TABLE_CREATION_THREADPOOL_NAME));
+    // table creations in progress by table name, so concurrent batches create a table only once
+    private final Map<String, CompletableFuture<Boolean>> tableCreations = new ConcurrentHashMap<>();
+    private final Set<CompletableFuture<Void>> pendingWrites = ConcurrentHashMap.newKeySet();
+
+    private final long minFlushIntervalMillis;
+    private final long maxFlushIntervalMillis;
+    private final AtomicLong flushIntervalMillis;
+
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong throttledCount = new AtomicLong();
+    private final AtomicLong droppedSinceSummary = new AtomicLong();
+    private volatile String lastDropReason = "";
+
+    /**
+     * A chunk of write requests to a single table, which is sent until all items are processed or the retries are
+     * used up.
+     */
+    private class Batch {
+        private final DynamoDBMapper mapper;
+        private final String tableName;
+        private final Class<?> dtoClass;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private List<WriteRequest> requests;
+        private int retry;
+        private boolean tableCreated;
+        private boolean resourceNotFound;
+
+        private Batch(DynamoDBMapper mapper, String tableName, Class<?> dtoClass, List<WriteRequest> requests) {
+            this.mapper = mapper;
+            this.tableName = tableName;
+            this.dtoClass = dtoClass;
+            this.requests = requests;
+        }
+    }
+
+    public DynamoDBBatchWriter(AmazonDynamoDBAsync client, TableCreator tableCreator, long flushIntervalMillis) {
+        this.client = client;
+        this.tableCreator = tableCreator;
+        this.minFlushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.maxFlushIntervalMillis = minFlushIntervalMillis * MAX_FLUSH_INTERVAL_FACTOR;
+        this.flushIntervalMillis = new AtomicLong(minFlushIntervalMillis);
+        retryScheduler.scheduleWithFixedDelay(this::logDropSummary, DROP_SUMMARY_INTERVAL_MINUTES,
+                DROP_SUMMARY_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Writes the items to the table asynchronously.
+     *
+     * @param mapper mapper associated with the table
+     * @param tableName name of the table
+     * @param items items to write, all of the same DTO class
+     * @return future which is completed when all items are written, or the writing finally failed
+     */
+    public CompletableFuture<Void> write(DynamoDBMapper mapper, String tableName, Collection<DynamoDBItem<?>> items) {
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Class<?> dtoClass = items.iterator().next().getClass();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        List<WriteRequest> chunk = new ArrayList<>(MAX_ITEMS_PER_BATCH);
+        long chunkBytes = 0;
+        for (DynamoDBItem<?> item : items) {
+            Map<String, AttributeValue> attributes = convert(mapper, item);
+            long itemBytes = estimateSize(attributes);
+            boolean chunkFull = chunk.size() == MAX_ITEMS_PER_BATCH
+                    || (!chunk.isEmpty() && chunkBytes + itemBytes > MAX_BYTES_PER_BATCH);
+            if (chunkFull) {
+                futures.add(send(new Batch(mapper, tableName, dtoClass, chunk)));
+                chunk = new ArrayList<>(MAX_ITEMS_PER_BATCH);
+                chunkBytes = 0;
+            }
+            chunk.add(new WriteRequest().withPutRequest(new PutRequest().withItem(attributes)));
+            chunkBytes += itemBytes;
+        }
+        futures.add(send(new Batch(mapper, tableName, dtoClass, chunk)));
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        pendingWrites.add(all);
+        all.whenComplete((result, error) -> pendingWrites.remove(all));
+        return all;
+    }
+
+    /**
+     * Waits for the pending writes to complete and stops the retry timer and the table creation thread.
+     */
+    public void stop() {
+        CompletableFuture<Void> pending = CompletableFuture.allOf(pendingWrites.toArray(new CompletableFuture<?>[0]));
+        try {
+            pending.get(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Not all pending writes were completed when stopping: {}", e.getMessage());
+        }
+        retryScheduler.shutdownNow();
+        tableCreationExecutor.shutdownNow();
+        logDropSummary();
+        logger.debug("DynamoDB batch writer stopped: written={} dropped={} throttled={}", writtenCount.get(),
+                droppedCount.get(), throttledCount.get());
+    }
+
+    /**
+     * @return the current interval in which buffered data should be flushed, adapted to throttling by DynamoDB
+     */
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Map<String, AttributeValue> convert(DynamoDBMapper mapper, DynamoDBItem<?> item) {
+        DynamoDBMapperTableModel model = mapper.getTableModel(item.getClass());
+        return model.convert(item);
+    }
+
+    /**
+     * Estimates the size of an item as counted by DynamoDB: the UTF-8 length of the attribute names and values.
+     */
+    static long estimateSize(Map<String, AttributeValue> attributes) {
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> attribute : attributes.entrySet()) {
+            size += utf8Length(attribute.getKey());
+            AttributeValue value = attribute.getValue();
+            if (value.getS() != null) {
+                size += utf8Length(value.getS());
+            } else if (value.getN() != null) {
+                // numbers are stored with up to 21 bytes, their string length is an upper bound
+                size += value.getN().length();
+            } else {
+                size += 1;
+            }
+        }
+        return size;
+    }
+
+    private static long utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private CompletableFuture<Void> send(Batch batch) {
+        BatchWriteItemRequest request = new BatchWriteItemRequest()
+                .withRequestItems(Map.of(batch.tableName, batch.requests));
+        try {
+            client.batchWriteItemAsync(request, new AsyncHandler<BatchWriteItemRequest, BatchWriteItemResult>() {
+                @Override
+                public void onError(@NonNullByDefault({}) Exception exception) {
+                    handleError(batch, exception);
+                }
+
+                @Override
+                public void onSuccess(@NonNullByDefault({}) BatchWriteItemRequest request,
+                        @NonNullByDefault({}) BatchWriteItemResult result) {
+                    handleResult(batch, result);
+                }
+            });
+        } catch (RuntimeException e) {
+            // e.g. the executor of the client was shut down
+            handleError(batch, e);
+        }
+        return batch.done;
+    }
+
+    private void handleResult(Batch batch, BatchWriteItemResult result) {
+        Map<String, List<WriteRequest>> unprocessedItems = result.getUnprocessedItems();
+        List<WriteRequest> unprocessed = unprocessedItems == null ? null : unprocessedItems.get(batch.tableName);
+        if (unprocessed == null || unprocessed.isEmpty()) {
+            writtenCount.addAndGet(batch.requests.size());
+            decreaseFlushInterval();
+            if (batch.retry > 0) {
+                logger.debug("After {} retries successfully wrote all unprocessed items", batch.retry);
+            }
+            batch.done.complete(null);
+            return;
+        }
+        writtenCount.addAndGet(batch.requests.size() - unprocessed.size());
+        logger.debug("{} of {} items were not processed by DynamoDB, retrying with exponential back-off",
+                unprocessed.size(), batch.requests.size());
+        increaseFlushInterval();
+        batch.requests = unprocessed;
+        retry(batch, null);
+    }
+
+    private void handleError(Batch batch, Exception exception) {
+        if (exception instanceof ResourceNotFoundException && !batch.tableCreated) {
+            // Table did not exist. Try again after creating table
+            batch.tableCreated = true;
+            createTable(batch).thenAccept(created -> {
+                if (created) {
+                    send(batch);
+                } else {
+                    drop(batch, "table creation failed");
+                }
+            });
+        } else if (exception instanceof AmazonClientException) {
+            if (isThrottling(exception)) {
+                increaseFlushInterval();
+            }
+            retry(batch, exception);
+        } else {
+            drop(batch, exception.getClass().getSimpleName() + " " + exception.getMessage());
+        }
+    }
+
+    private void retry(Batch batch, @Nullable Exception exception) {
+        if (batch.retry >= WAIT_MILLIS_IN_RETRIES.length) {
+            drop(batch, exception == null ? "items left unprocessed"
+                    : exception.getClass().getSimpleName() + " " + exception.getMessage());
+            return;
+        }
+        long delay;
+        if (exception instanceof ResourceNotFoundException && !batch.resourceNotFound) {
+            // the table might have been created only recently
+            batch.resourceNotFound = true;
+            delay = WAIT_ON_FIRST_RESOURCE_NOT_FOUND_MILLIS;
+        } else {
+            delay = WAIT_MILLIS_IN_RETRIES[batch.retry];
+        }
+        batch.retry++;
+        if (exception != null) {
+            logger.debug("Writing batch to '{}' raised exception: {}. Retry {} in {} ms", batch.tableName,
+                    exception.getMessage(), batch.retry, delay);
+        }
+        schedule(batch, () -> send(batch), delay);
+    }
+
+    private CompletableFuture<Boolean> createTable(Batch batch) {
+        CompletableFuture<Boolean> creation = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = tableCreations.putIfAbsent(batch.tableName, creation);
+        if (running != null) {
+            logger.debug("Table '{}' is being created, waiting for it", batch.tableName);
+            return running;
+        }
+        try {
+            tableCreationExecutor.execute(() -> {
+                logger.debug("Table '{}' was not found. Trying to create table and try saving again",
+                        batch.tableName);
+                boolean created = false;
+                try {
+                    created = tableCreator.createTable(batch.mapper, batch.dtoClass);
+                } finally {
+                    // a later batch may try again if the table was deleted or the creation failed
+                    tableCreations.remove(batch.tableName, creation);
+                    creation.complete(created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // writer stopped
+            tableCreations.remove(batch.tableName, creation);
+            creation.complete(false);
+        }
+        return creation;
+    }
+
+    private void schedule(Batch batch, Runnable task, long delayMillis) {
+        try {
+            retryScheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            drop(batch, "writer stopped");
+        }
+    }
+
+    private void drop(Batch batch, String reason) {
+        droppedCount.addAndGet(batch.requests.size());
+        droppedSinceSummary.addAndGet(batch.requests.size());
+        lastDropReason = reason;
+        logger.debug("Even after retries failed to write {} items to '{}': {}", batch.requests.size(),
+                batch.tableName, reason);
+        logger.trace("Unprocessed items: {}", batch.requests);
+        batch.done.complete(null);
+    }
+
+    private void logDropSummary() {
+        long dropped = droppedSinceSummary.getAndSet(0);
+        if (dropped > 0) {
+            logger.warn(
+                    "Failed to write {} items to DynamoDB since the last report, last reason: {} (dropped so far: {})",
+                    dropped, lastDropReason, droppedCount.get());
+        }
+    }
+
+    private boolean isThrottling(Exception exception) {
+        return exception instanceof ProvisionedThroughputExceededException
+                || (exception instanceof AmazonServiceException
+                        && "ThrottlingException".equals(((AmazonServiceException) exception).getErrorCode()));
+    }
+
+    private void increaseFlushInterval() {
+        throttledCount.incrementAndGet();
+        long interval = flushIntervalMillis.updateAndGet(current -> Math.min(maxFlushIntervalMillis, current * 2));
+        logger.debug("DynamoDB is throttling writes, flush interval is now {} ms", interval);
+    }
+
+    private void decreaseFlushInterval() {
+        flushIntervalMillis.updateAndGet(current -> Math.max(minFlushIntervalMillis, current / 2));
+    }
+}
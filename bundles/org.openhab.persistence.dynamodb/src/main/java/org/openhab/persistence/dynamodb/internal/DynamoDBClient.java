@@ -12,14 +12,16 @@
  */
 package org.openhab.persistence.dynamodb.internal;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
 import com.amazonaws.regions.Regions;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsyncClientBuilder;
 import com.amazonaws.services.dynamodbv2.document.DynamoDB;
 
 /**
@@ -30,19 +32,36 @@ import com.amazonaws.services.dynamodbv2.document.DynamoDB;
 public class DynamoDBClient {
     private final Logger logger = LoggerFactory.getLogger(DynamoDBClient.class);
     private DynamoDB dynamo;
-    private AmazonDynamoDB client;
+    private AmazonDynamoDBAsync client;
 
     public DynamoDBClient(AWSCredentials credentials, Regions region) {
-        client = AmazonDynamoDBClientBuilder.standard().withRegion(region)
-                .withCredentials(new AWSStaticCredentialsProvider(credentials)).build();
+        this(credentials, region, null);
+    }
+
+    /**
+     * @param endpoint endpoint to connect to instead of the one of the region, e.g. of DynamoDB Local. Null to use the
+     *            endpoint of the region.
+     */
+    public DynamoDBClient(AWSCredentials credentials, Regions region, @Nullable String endpoint) {
+        AmazonDynamoDBAsyncClientBuilder builder = AmazonDynamoDBAsyncClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(credentials));
+        if (endpoint != null) {
+            builder.withEndpointConfiguration(new EndpointConfiguration(endpoint, region.getName()));
+        } else {
+            builder.withRegion(region);
+        }
+        client = builder.build();
         dynamo = new DynamoDB(client);
     }
 
     public DynamoDBClient(DynamoDBConfig clientConfig) {
-        this(clientConfig.getCredentials(), clientConfig.getRegion());
+        this(clientConfig.getCredentials(), clientConfig.getRegion(), clientConfig.getEndpoint());
     }
 
-    public AmazonDynamoDB getDynamoClient() {
+    /**
+     * The asynchronous client, which can also be used for synchronous requests.
+     */
+    public AmazonDynamoDBAsync getDynamoClient() {
         return client;
     }
 
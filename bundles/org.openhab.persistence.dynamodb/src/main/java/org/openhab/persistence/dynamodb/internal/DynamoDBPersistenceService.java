@@ -18,15 +18,19 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -55,19 +59,16 @@ import org.slf4j.LoggerFactory;
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
-import com.amazonaws.services.dynamodbv2.document.BatchWriteItemOutcome;
 import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
 import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndex;
 import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
 import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
 import com.amazonaws.services.dynamodbv2.model.TableDescription;
 import com.amazonaws.services.dynamodbv2.model.TableStatus;
-import com.amazonaws.services.dynamodbv2.model.WriteRequest;
 
 /**
  * This is the implementation of the DynamoDB {@link PersistenceService}. It persists item values
@@ -92,76 +93,7 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
 
     protected static final String CONFIG_URI = "persistence:dynamodb";
 
-    private class ExponentialBackoffRetry implements Runnable {
-        private int retry;
-        private Map<String, List<WriteRequest>> unprocessedItems;
-        private @Nullable Exception lastException;
-
-        public ExponentialBackoffRetry(Map<String, List<WriteRequest>> unprocessedItems) {
-            this.unprocessedItems = unprocessedItems;
-        }
-
-        @Override
-        public void run() {
-            logger.debug("Error storing object to dynamo, unprocessed items: {}. Retrying with exponential back-off",
-                    unprocessedItems);
-            lastException = null;
-            while (!unprocessedItems.isEmpty() && retry < WAIT_MILLIS_IN_RETRIES.length) {
-                if (!sleep()) {
-                    // Interrupted
-                    return;
-                }
-                retry++;
-                try {
-                    BatchWriteItemOutcome outcome = DynamoDBPersistenceService.this.db.getDynamoDB()
-                            .batchWriteItemUnprocessed(unprocessedItems);
-                    unprocessedItems = outcome.getUnprocessedItems();
-                    lastException = null;
-                } catch (AmazonServiceException e) {
-                    if (e instanceof ResourceNotFoundException) {
-                        logger.debug(
-                                "DynamoDB query raised unexpected exception: {}. This might happen if table was recently created",
-                                e.getMessage());
-                    } else {
-                        logger.debug("DynamoDB query raised unexpected exception: {}.", e.getMessage());
-                    }
-                    lastException = e;
-                    continue;
-                }
-            }
-            if (unprocessedItems.isEmpty()) {
-                logger.debug("After {} retries successfully wrote all unprocessed items", retry);
-            } else {
-                logger.warn(
-                        "Even after retries failed to write some items. Last exception: {} {}, unprocessed items: {}",
-                        lastException == null ? "null" : lastException.getClass().getName(),
-                        lastException == null ? "null" : lastException.getMessage(), unprocessedItems);
-            }
-        }
-
-        private boolean sleep() {
-            try {
-                long sleepTime;
-                if (retry == 1 && lastException != null && lastException instanceof ResourceNotFoundException) {
-                    sleepTime = WAIT_ON_FIRST_RESOURCE_NOT_FOUND_MILLIS;
-                } else {
-                    sleepTime = WAIT_MILLIS_IN_RETRIES[retry];
-                }
-                Thread.sleep(sleepTime);
-                return true;
-            } catch (InterruptedException e) {
-                logger.debug("Interrupted while writing data!");
-                return false;
-            }
-        }
-
-        public Map<String, List<WriteRequest>> getUnprocessedItems() {
-            return unprocessedItems;
-        }
-    }
-
-    private static final int WAIT_ON_FIRST_RESOURCE_NOT_FOUND_MILLIS = 5000;
-    private static final int[] WAIT_MILLIS_IN_RETRIES = new int[] { 100, 100, 200, 300, 500 };
+    private static final long WRITE_IMMEDIATELY_TIMEOUT_MILLIS = 30000;
     private static final String DYNAMODB_THREADPOOL_NAME = "dynamodbPersistenceService";
 
     private final ItemRegistry itemRegistry;
@@ -173,6 +105,9 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1,
             new NamedThreadFactory(DYNAMODB_THREADPOOL_NAME));
     private @Nullable ScheduledFuture<?> writeBufferedDataFuture;
+    private volatile boolean scheduledFlushing;
+    private @Nullable DynamoDBBatchWriter batchWriter;
+    private final Object tableCreationLock = new Object();
 
     @Activate
     public DynamoDBPersistenceService(final @Reference ItemRegistry itemRegistry) {
@@ -212,24 +147,11 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
 
         writeBufferedDataFuture = null;
         resetWithBufferSize(dbConfig.getBufferSize());
-        long commitIntervalMillis = dbConfig.getBufferCommitIntervalMillis();
-        if (commitIntervalMillis > 0) {
-            writeBufferedDataFuture = scheduler.scheduleWithFixedDelay(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        DynamoDBPersistenceService.this.flushBufferedData();
-                    } catch (RuntimeException e) {
-                        // We want to catch all unexpected exceptions since all unhandled exceptions make
-                        // ScheduledExecutorService halt the regular running of the task.
-                        // It is better to print out the exception, and try again
-                        // (on next cycle)
-                        logger.warn(
-                                "Execution of scheduled flushing of buffered data failed unexpectedly. Ignoring exception, trying again according to configured commit interval of {} ms.",
-                                commitIntervalMillis, e);
-                    }
-                }
-            }, 0, commitIntervalMillis, TimeUnit.MILLISECONDS);
+        batchWriter = new DynamoDBBatchWriter(db.getDynamoClient(), this::createTable,
+                dbConfig.getBufferCommitIntervalMillis());
+        if (dbConfig.getBufferCommitIntervalMillis() > 0) {
+            scheduledFlushing = true;
+            scheduleFlush(0);
         }
         isProperlyConfigured = true;
         logger.debug("dynamodb persistence service activated");
@@ -238,13 +160,42 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
     @Deactivate
     public void deactivate() {
         logger.debug("dynamodb persistence service deactivated");
-        if (writeBufferedDataFuture != null) {
-            writeBufferedDataFuture.cancel(false);
-            writeBufferedDataFuture = null;
+        scheduledFlushing = false;
+        ScheduledFuture<?> future = writeBufferedDataFuture;
+        writeBufferedDataFuture = null;
+        if (future != null) {
+            future.cancel(false);
+        }
+        if (isProperlyConfigured) {
+            // write what is still buffered, resetClient waits for the pending writes
+            flushBufferedData();
         }
         resetClient();
     }
 
+    /**
+     * Schedules the next flush of the buffered data. The interval is adapted by the batch writer: it grows while
+     * DynamoDB throttles the writes and shrinks back to the configured commit interval afterwards.
+     */
+    private void scheduleFlush(long delayMillis) {
+        writeBufferedDataFuture = scheduler.schedule(() -> {
+            try {
+                flushBufferedData();
+            } catch (RuntimeException e) {
+                // We want to catch all unexpected exceptions since an unhandled exception would stop the
+                // rescheduling. It is better to print out the exception, and try again (on next cycle)
+                logger.warn(
+                        "Execution of scheduled flushing of buffered data failed unexpectedly. Ignoring exception, trying again according to commit interval.",
+                        e);
+            } finally {
+                DynamoDBBatchWriter writer = batchWriter;
+                if (scheduledFlushing && writer != null) {
+                    scheduleFlush(writer.getFlushIntervalMillis());
+                }
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Initializes DynamoDBClient (db field)
      *
@@ -272,13 +223,21 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
     /**
      * Create table (if not present) and wait for table to become active.
      *
-     * Synchronized in order to ensure that at most single thread is creating the table at a time
+     * Synchronized in order to ensure that at most single thread is creating the table at a time. A dedicated lock is
+     * used, as the table is created by the table creation thread of the batch writer while a storing thread might wait
+     * for the write in {@link #store(Item)}.
      *
      * @param mapper
      * @param dtoClass
      * @return whether table creation succeeded.
      */
-    private synchronized boolean createTable(DynamoDBMapper mapper, Class<?> dtoClass) {
+    private boolean createTable(DynamoDBMapper mapper, Class<?> dtoClass) {
+        synchronized (tableCreationLock) {
+            return createTableIfMissing(mapper, dtoClass);
+        }
+    }
+
+    private boolean createTableIfMissing(DynamoDBMapper mapper, Class<?> dtoClass) {
         if (db == null) {
             return false;
         }
@@ -349,6 +308,11 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
         if (db == null) {
             return;
         }
+        DynamoDBBatchWriter writer = batchWriter;
+        batchWriter = null;
+        if (writer != null) {
+            writer.stop();
+        }
         db.shutdown();
         db = null;
         dbConfig = null;
@@ -360,7 +324,7 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
         try {
             DynamoDBMapperConfig mapperConfig = new DynamoDBMapperConfig.Builder()
                     .withTableNameOverride(new DynamoDBMapperConfig.TableNameOverride(tableName))
-                    .withPaginationLoadingStrategy(PaginationLoadingStrategy.LAZY_LOADING).build();
+                    .withPaginationLoadingStrategy(PaginationLoadingStrategy.ITERATION_ONLY).build();
             return new DynamoDBMapper(db.getDynamoClient(), mapperConfig);
         } catch (AmazonClientException e) {
             logger.error("Error getting db mapper: {}", e.getMessage());
@@ -390,11 +354,15 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
 
     @Override
     protected void flushBufferedData() {
-        if (buffer != null && buffer.isEmpty()) {
+        DynamoDBBatchWriter writer = batchWriter;
+        if (buffer == null || buffer.isEmpty() || writer == null) {
             return;
         }
         logger.debug("Writing buffered data. Buffer size: {}", buffer.size());
 
+        long currentTimeMillis = System.currentTimeMillis();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        int count = 0;
         for (;;) {
             Map<String, Deque<DynamoDBItem<?>>> itemsByTable = readBuffer();
             // Write batch of data, one table at a time
@@ -402,13 +370,27 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
                 String tableName = entry.getKey();
                 Deque<DynamoDBItem<?>> batch = entry.getValue();
                 if (!batch.isEmpty()) {
-                    flushBatch(getDBMapper(tableName), batch);
+                    writes.add(writer.write(getDBMapper(tableName), tableName, batch));
+                    count += batch.size();
                 }
             }
             if (buffer != null && buffer.isEmpty()) {
                 break;
             }
         }
+        logger.debug("flushBufferedData sent {} items in {} ms", count, System.currentTimeMillis() - currentTimeMillis);
+
+        if (dbConfig.getBufferSize() == 0) {
+            // writing immediately, wait until the data is written, so that it is returned by queries
+            try {
+                CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]))
+                        .get(WRITE_IMMEDIATELY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                logger.warn("Writing {} items did not complete: {}", count, e.getMessage());
+            }
+        }
     }
 
     private Map<String, Deque<DynamoDBItem<?>>> readBuffer() {
@@ -431,60 +413,6 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
         return batchesByTable;
     }
 
-    /**
-     * Flush batch of data to DynamoDB
-     *
-     * @param mapper mapper associated with the batch
-     * @param batch batch of data to write to DynamoDB
-     */
-    private void flushBatch(DynamoDBMapper mapper, Deque<DynamoDBItem<?>> batch) {
-        long currentTimeMillis = System.currentTimeMillis();
-        List<FailedBatch> failed = mapper.batchSave(batch);
-        for (FailedBatch failedBatch : failed) {
-            if (failedBatch.getException() instanceof ResourceNotFoundException) {
-                // Table did not exist. Try again after creating table
-                retryFlushAfterCreatingTable(mapper, batch, failedBatch);
-            } else {
-                logger.debug("Batch failed with {}. Retrying next with exponential back-off",
-                        failedBatch.getException().getMessage());
-                new ExponentialBackoffRetry(failedBatch.getUnprocessedItems()).run();
-            }
-        }
-        if (failed.isEmpty()) {
-            logger.debug("flushBatch ended with {} items in {} ms: {}", batch.size(),
-                    System.currentTimeMillis() - currentTimeMillis, batch);
-        } else {
-            logger.warn(
-                    "flushBatch ended with {} items in {} ms: {}. There were some failed batches that were retried -- check logs for ERRORs to see if writes were successful",
-                    batch.size(), System.currentTimeMillis() - currentTimeMillis, batch);
-        }
-    }
-
-    /**
-     * Retry flushing data after creating table associated with mapper
-     *
-     * @param mapper mapper associated with the batch
-     * @param batch original batch of data. Used for logging and to determine table name
-     * @param failedBatch failed batch that should be retried
-     */
-    private void retryFlushAfterCreatingTable(DynamoDBMapper mapper, Deque<DynamoDBItem<?>> batch,
-            FailedBatch failedBatch) {
-        logger.debug("Table was not found. Trying to create table and try saving again");
-        if (createTable(mapper, batch.peek().getClass())) {
-            logger.debug("Table creation successful, trying to save again");
-            if (!failedBatch.getUnprocessedItems().isEmpty()) {
-                ExponentialBackoffRetry retry = new ExponentialBackoffRetry(failedBatch.getUnprocessedItems());
-                retry.run();
-                if (retry.getUnprocessedItems().isEmpty()) {
-                    logger.debug("Successfully saved items after table creation");
-                }
-            }
-        } else {
-            logger.warn("Table creation failed. Not storing some parts of batch: {}. Unprocessed items: {}", batch,
-                    failedBatch.getUnprocessedItems());
-        }
-    }
-
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
         logger.debug("got a query");
@@ -525,21 +453,22 @@ public class DynamoDBPersistenceService extends AbstractBufferedPersistenceServi
                     e.getMessage());
             return Collections.emptyList();
         }
-        for (int itemIndexOnPage = 0; itemIndexOnPage < filter.getPageSize(); itemIndexOnPage++) {
-            int itemIndex = filter.getPageNumber() * filter.getPageSize() + itemIndexOnPage;
-            DynamoDBItem<?> dynamoItem;
-            try {
-                dynamoItem = paginatedList.get(itemIndex);
-            } catch (IndexOutOfBoundsException e) {
-                logger.debug("Index {} is out-of-bounds", itemIndex);
-                break;
+        // The list is loaded page by page while iterating and does not keep the pages already iterated, so only the
+        // pages up to the requested one are read and only the requested one is held in memory
+        int skip = filter.getPageNumber() * filter.getPageSize();
+        int itemIndex = 0;
+        @SuppressWarnings("rawtypes")
+        Iterator<? extends DynamoDBItem> iterator = paginatedList.iterator();
+        while (historicItems.size() < filter.getPageSize() && iterator.hasNext()) {
+            DynamoDBItem<?> dynamoItem = iterator.next();
+            if (itemIndex++ < skip) {
+                continue;
             }
             if (dynamoItem != null) {
                 HistoricItem historicItem = dynamoItem.asHistoricItem(item);
                 logger.trace("Dynamo item {} converted to historic item: {}", item, historicItem);
                 historicItems.add(historicItem);
             }
-
         }
         return historicItems;
     }
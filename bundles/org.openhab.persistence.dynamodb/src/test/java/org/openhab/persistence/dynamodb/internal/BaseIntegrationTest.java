@@ -174,18 +174,7 @@ public class BaseIntegrationTest {
             }
         });
 
-        Map<String, Object> config = new HashMap<>();
-        String value = System.getProperty("DYNAMODBTEST_REGION");
-        config.put("region", value != null ? value : "");
-        value = System.getProperty("DYNAMODBTEST_ACCESS");
-        config.put("accessKey", value != null ? value : "");
-        value = System.getProperty("DYNAMODBTEST_SECRET");
-        config.put("secretKey", value != null ? value : "");
-        config.put("tablePrefix", "dynamodb-integration-tests-");
-
-        // Disable buffering
-        config.put("bufferSize", "0");
-
+        Map<String, Object> config = createConfig();
         for (Entry<String, Object> entry : config.entrySet()) {
             if (((String) entry.getValue()).isEmpty()) {
                 LOGGER.warn(String.format(
@@ -200,6 +189,31 @@ public class BaseIntegrationTest {
         clearData();
     }
 
+    /**
+     * Configuration of the service under test. With DYNAMODBTEST_ENDPOINT, e.g. http://localhost:8000, the tests run
+     * against DynamoDB Local, which accepts any region and credentials.
+     */
+    protected static Map<String, Object> createConfig() {
+        Map<String, Object> config = new HashMap<>();
+        String endpoint = System.getProperty("DYNAMODBTEST_ENDPOINT");
+        String dummy = "";
+        if (endpoint != null && !endpoint.isBlank()) {
+            config.put("endpoint", endpoint);
+            dummy = "dynamodb-local";
+        }
+        String value = System.getProperty("DYNAMODBTEST_REGION");
+        config.put("region", value != null ? value : dummy.isEmpty() ? "" : "eu-west-1");
+        value = System.getProperty("DYNAMODBTEST_ACCESS");
+        config.put("accessKey", value != null ? value : dummy);
+        value = System.getProperty("DYNAMODBTEST_SECRET");
+        config.put("secretKey", value != null ? value : dummy);
+        config.put("tablePrefix", "dynamodb-integration-tests-");
+
+        // Disable buffering
+        config.put("bufferSize", "0");
+        return config;
+    }
+
     protected static void clearData() {
         // Clear data
         for (String table : new String[] { "dynamodb-integration-tests-bigdecimal",
@@ -218,4 +218,19 @@ public class DynamoDBConfigTest {
         assertEquals(501L, fromConfig.getBufferCommitIntervalMillis());
         assertEquals(112, fromConfig.getBufferSize());
     }
+
+    @Test
+    public void testRegionWithAccessKeysWithEndpoint() throws Exception {
+        DynamoDBConfig fromConfig = DynamoDBConfig.fromConfig(mapFrom("region", "eu-west-1", "accessKey", "access1",
+                "secretKey", "secret1", "endpoint", "http://localhost:8000"));
+        assertEquals(Regions.EU_WEST_1, fromConfig.getRegion());
+        assertEquals("http://localhost:8000", fromConfig.getEndpoint());
+    }
+
+    @Test
+    public void testRegionWithAccessKeysWithoutEndpoint() throws Exception {
+        DynamoDBConfig fromConfig = DynamoDBConfig
+                .fromConfig(mapFrom("region", "eu-west-1", "accessKey", "access1", "secretKey", "secret1"));
+        assertNull(fromConfig.getEndpoint());
+    }
 }
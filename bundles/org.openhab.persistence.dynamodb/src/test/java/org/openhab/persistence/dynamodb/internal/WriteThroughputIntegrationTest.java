@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * Writes many datapoints through the buffered, asynchronous write path and logs the throughput. Run it against
+ * DynamoDB Local to benchmark the writing offline, see BaseIntegrationTest.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class WriteThroughputIntegrationTest extends BaseIntegrationTest {
+
+    private static final String NAME_PREFIX = "throughput";
+    private static final int ITEM_COUNT = 2000;
+
+    @BeforeAll
+    public static void checkService() throws InterruptedException {
+        String msg = "DynamoDB integration tests will be skipped. Did you specify AWS credentials for testing? "
+                + "See BaseIntegrationTest for more details";
+        if (service == null) {
+            System.out.println(msg);
+        }
+        assumeTrue(service != null, msg);
+
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            ITEMS.put(NAME_PREFIX + i, new NumberItem(NAME_PREFIX + i));
+        }
+    }
+
+    @Test
+    public void testBufferedWritesAreWrittenInBatches() {
+        Map<String, Object> config = createConfig();
+        config.put("bufferSize", "1000");
+        config.put("bufferCommitIntervalMillis", "100");
+        service.deactivate();
+        service.activate(null, config);
+
+        ZonedDateTime storeStart = ZonedDateTime.now();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            NumberItem item = (NumberItem) ITEMS.get(NAME_PREFIX + i);
+            item.setState(new DecimalType(i));
+            service.store(item);
+        }
+        // deactivation writes the remaining buffer and waits for all pending writes
+        service.deactivate();
+        long millis = Math.max(1, System.currentTimeMillis() - start);
+        LOGGER.info("Wrote {} datapoints in {} ms ({} datapoints/s)", ITEM_COUNT, millis, ITEM_COUNT * 1000L / millis);
+
+        service.activate(null, createConfig());
+        for (int i : new int[] { 0, ITEM_COUNT / 2, ITEM_COUNT - 1 }) {
+            FilterCriteria criteria = new FilterCriteria();
+            criteria.setItemName(NAME_PREFIX + i);
+            criteria.setBeginDate(storeStart);
+            Iterator<HistoricItem> iterator = service.query(criteria).iterator();
+            assertTrue(iterator.hasNext(), "missing datapoint of item " + i);
+            assertEquals(new DecimalType(i), iterator.next().getState());
+            assertFalse(iterator.hasNext());
+        }
+    }
+}
@@ -12,6 +12,7 @@
  */
 package org.openhab.persistence.influxdb;
 
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Collections;
@@ -27,6 +28,7 @@ import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.items.MetadataRegistry;
+import org.openhab.core.library.items.NumberItem;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceItemInfo;
@@ -40,6 +42,7 @@ import org.openhab.persistence.influxdb.internal.InfluxDBHistoricItem;
 import org.openhab.persistence.influxdb.internal.InfluxDBPersistentItemInfo;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
 import org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils;
+import org.openhab.persistence.influxdb.internal.InfluxDBWriteStatistics;
 import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.InfluxRow;
 import org.openhab.persistence.influxdb.internal.ItemToStorePointCreator;
@@ -87,6 +90,7 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
 
     // Internal dependencies/state
     private InfluxDBConfiguration configuration = InfluxDBConfiguration.NO_CONFIGURATION;
+    private final InfluxDBWriteStatistics writeStatistics = new InfluxDBWriteStatistics();
 
     // Relax rules because can only be null if component is not active
     private @NonNullByDefault({}) ItemToStorePointCreator itemToStorePointCreator;
@@ -119,7 +123,7 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
 
     // Visible for testing
     protected InfluxDBRepository createInfluxDBRepository() {
-        return RepositoryFactory.createRepository(configuration);
+        return RepositoryFactory.createRepository(configuration, writeStatistics);
     }
 
     /**
@@ -208,6 +212,7 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
                 logger.trace("Ignoring item {} as is cannot be converted to a InfluxDB point", item);
             }
         } else {
+            writeStatistics.addDropped(1);
             logger.debug("store ignored, InfluxDB is not yet connected");
         }
     }
@@ -222,17 +227,34 @@ public class InfluxDBPersistenceService implements QueryablePersistenceService {
                     filter.getItemName(), filter.getOrdering().toString(), filter.getState(), filter.getOperator(),
                     filter.getBeginDate(), filter.getEndDate(), filter.getPageSize(), filter.getPageNumber());
 
+            Duration aggregateWindow = getAggregateWindow(filter);
             String query = RepositoryFactory.createQueryCreator(configuration).createQuery(filter,
-                    configuration.getRetentionPolicy());
+                    configuration.getRetentionPolicy(), aggregateWindow, configuration.getDownsampleFunction());
             logger.trace("Query {}", query);
-            List<InfluxRow> results = influxDBRepository.query(query);
-            return results.stream().map(this::mapRow2HistoricItem).collect(Collectors.toList());
+            if (configuration.getQueryChunkSize() > 0) {
+                return influxDBRepository.queryStreaming(query).map(this::mapRow2HistoricItem);
+            } else {
+                List<InfluxRow> results = influxDBRepository.query(query);
+                return results.stream().map(this::mapRow2HistoricItem).collect(Collectors.toList());
+            }
         } else {
             logger.debug("query ignored, InfluxDB is not yet connected");
             return Collections.emptyList();
         }
     }
 
+    /**
+     * Returns the length of the time windows the values of a query are aggregated into by the server, or null if the
+     * raw values have to be read. Only queries of number items are aggregated.
+     */
+    private @Nullable Duration getAggregateWindow(FilterCriteria filter) {
+        String itemName = filter.getItemName();
+        if (itemName == null || !(itemRegistry.get(itemName) instanceof NumberItem)) {
+            return null;
+        }
+        return FilterCriteriaQueryCreator.getAggregateWindow(filter, configuration.getDownsampleTargetPoints());
+    }
+
     private HistoricItem mapRow2HistoricItem(InfluxRow row) {
         State state = InfluxDBStateConvertUtils.objectToState(row.getValue(), row.getItemName(), itemRegistry);
         return new InfluxDBHistoricItem(row.getItemName(), state,
@@ -12,7 +12,11 @@
  */
 package org.openhab.persistence.influxdb.internal;
 
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.persistence.FilterCriteria;
 
 /**
@@ -29,7 +33,51 @@ public interface FilterCriteriaQueryCreator {
      * @param retentionPolicy Name of the retentionPolicy/bucket to use in query
      * @return Created query as an String
      */
-    String createQuery(FilterCriteria criteria, String retentionPolicy);
+    default String createQuery(FilterCriteria criteria, String retentionPolicy) {
+        return createQuery(criteria, retentionPolicy, null, "");
+    }
+
+    /**
+     * Create query from {@link FilterCriteria}, letting the server aggregate the values into time windows
+     *
+     * @param criteria Criteria to create query from
+     * @param retentionPolicy Name of the retentionPolicy/bucket to use in query
+     * @param aggregateWindow Length of the time windows, null to return the raw values
+     * @param aggregateFunction Function applied to the values of each window: mean, min, max or last
+     * @return Created query as an String
+     */
+    String createQuery(FilterCriteria criteria, String retentionPolicy, @Nullable Duration aggregateWindow,
+            String aggregateFunction);
+
+    /**
+     * Returns the length of the time windows the values of a query should be aggregated into, or null if the raw
+     * values have to be read.
+     *
+     * Only queries with a page size, as sent by charts and the REST API, for a closed time range and without a state
+     * condition are aggregated, into at most the page size or the target points, whichever is smaller. All pages of
+     * such a query are aggregated alike, so the first page usually holds all windows. Queries without a page size,
+     * like those of persistence extensions, get the raw values. Windows shorter than two seconds are not used.
+     *
+     * @param criteria the query
+     * @param targetPoints the configured maximum number of values, 0 to disable downsampling
+     * @return the window length or null
+     */
+    static @Nullable Duration getAggregateWindow(FilterCriteria criteria, int targetPoints) {
+        ZonedDateTime beginDate = criteria.getBeginDate();
+        ZonedDateTime endDate = criteria.getEndDate();
+        if (targetPoints <= 0 || beginDate == null || endDate == null || criteria.getState() != null
+                || criteria.getPageSize() == Integer.MAX_VALUE) {
+            return null;
+        }
+        long windows = Math.min(criteria.getPageSize(), targetPoints);
+        if (windows < 2) {
+            return null;
+        }
+        // the windows are aligned to the epoch, so the range may touch one window more than it fills
+        long rangeSeconds = Duration.between(beginDate, endDate).getSeconds();
+        long windowSeconds = (rangeSeconds + windows - 2) / (windows - 1);
+        return windowSeconds >= 2 ? Duration.ofSeconds(windowSeconds) : null;
+    }
 
     default String getOperationSymbol(FilterCriteria.Operator operator, InfluxDBVersion version) {
         switch (operator) {
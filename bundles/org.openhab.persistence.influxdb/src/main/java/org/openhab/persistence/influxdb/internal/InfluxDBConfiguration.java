@@ -13,7 +13,9 @@
 package org.openhab.persistence.influxdb.internal;
 
 import java.util.Collections;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringJoiner;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -39,6 +41,16 @@ public class InfluxDBConfiguration {
     public static final String ADD_CATEGORY_TAG_PARAM = "addCategoryTag";
     public static final String ADD_LABEL_TAG_PARAM = "addLabelTag";
     public static final String ADD_TYPE_TAG_PARAM = "addTypeTag";
+    public static final String BATCH_SIZE_PARAM = "batchSize";
+    public static final String FLUSH_INTERVAL_PARAM = "flushInterval";
+    public static final String JITTER_INTERVAL_PARAM = "jitterInterval";
+    public static final String GZIP_PARAM = "gzip";
+    public static final String RETRY_BUFFER_LIMIT_PARAM = "retryBufferLimit";
+    public static final String RETRY_INTERVAL_PARAM = "retryInterval";
+    public static final String QUERY_CHUNK_SIZE_PARAM = "queryChunkSize";
+    public static final String DOWNSAMPLE_TARGET_POINTS_PARAM = "downsampleTargetPoints";
+    public static final String DOWNSAMPLE_FUNCTION_PARAM = "downsampleFunction";
+    private static final Set<String> DOWNSAMPLE_FUNCTIONS = Set.of("mean", "min", "max", "last");
     public static InfluxDBConfiguration NO_CONFIGURATION = new InfluxDBConfiguration(Collections.emptyMap());
     private final Logger logger = LoggerFactory.getLogger(InfluxDBConfiguration.class);
     private final String url;
@@ -54,6 +66,17 @@ public class InfluxDBConfiguration {
     private final boolean addTypeTag;
     private final boolean addLabelTag;
 
+    private final int batchSize;
+    private final int flushInterval;
+    private final int jitterInterval;
+    private final boolean gzip;
+    private final int retryBufferLimit;
+    private final int retryInterval;
+
+    private final int queryChunkSize;
+    private final int downsampleTargetPoints;
+    private final String downsampleFunction;
+
     public InfluxDBConfiguration(Map<String, Object> config) {
         url = (String) config.getOrDefault(URL_PARAM, "http://127.0.0.1:8086");
         user = (String) config.getOrDefault(USER_PARAM, "openhab");
@@ -67,6 +90,17 @@ public class InfluxDBConfiguration {
         addCategoryTag = getConfigBooleanValue(config, ADD_CATEGORY_TAG_PARAM, false);
         addLabelTag = getConfigBooleanValue(config, ADD_LABEL_TAG_PARAM, false);
         addTypeTag = getConfigBooleanValue(config, ADD_TYPE_TAG_PARAM, false);
+
+        batchSize = getConfigIntValue(config, BATCH_SIZE_PARAM, 1000, 1);
+        flushInterval = getConfigIntValue(config, FLUSH_INTERVAL_PARAM, 1000, 1);
+        jitterInterval = getConfigIntValue(config, JITTER_INTERVAL_PARAM, 0, 0);
+        gzip = getConfigBooleanValue(config, GZIP_PARAM, false);
+        retryBufferLimit = Math.max(batchSize, getConfigIntValue(config, RETRY_BUFFER_LIMIT_PARAM, 10000, 1));
+        retryInterval = getConfigIntValue(config, RETRY_INTERVAL_PARAM, 5000, 1);
+
+        queryChunkSize = getConfigIntValue(config, QUERY_CHUNK_SIZE_PARAM, 0, 0);
+        downsampleTargetPoints = getConfigIntValue(config, DOWNSAMPLE_TARGET_POINTS_PARAM, 0, 0);
+        downsampleFunction = parseDownsampleFunction(config.getOrDefault(DOWNSAMPLE_FUNCTION_PARAM, "mean"));
     }
 
     private static boolean getConfigBooleanValue(Map<String, Object> config, String key, boolean defaultValue) {
@@ -80,6 +114,34 @@ public class InfluxDBConfiguration {
         }
     }
 
+    private int getConfigIntValue(Map<String, Object> config, String key, int defaultValue, int minValue) {
+        Object object = config.get(key);
+        int value = defaultValue;
+        if (object instanceof Number) {
+            value = ((Number) object).intValue();
+        } else if (object instanceof String && !((String) object).isBlank()) {
+            try {
+                value = Integer.parseInt(((String) object).trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} {}, using {}", key, object, defaultValue);
+            }
+        }
+        if (value < minValue) {
+            logger.warn("Invalid {} {}, using {}", key, value, defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    private String parseDownsampleFunction(@Nullable Object value) {
+        String function = String.valueOf(value).trim().toLowerCase(Locale.ROOT);
+        if (DOWNSAMPLE_FUNCTIONS.contains(function)) {
+            return function;
+        }
+        logger.warn("Invalid {} {}, using mean", DOWNSAMPLE_FUNCTION_PARAM, value);
+        return "mean";
+    }
+
     private InfluxDBVersion parseInfluxVersion(@Nullable Object value) {
         try {
             return InfluxDBVersion.valueOf((String) value);
@@ -168,13 +230,60 @@ public class InfluxDBConfiguration {
         return version;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
+    public int getJitterInterval() {
+        return jitterInterval;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public int getRetryBufferLimit() {
+        return retryBufferLimit;
+    }
+
+    public int getRetryInterval() {
+        return retryInterval;
+    }
+
+    /**
+     * @return the number of values read from the server at once when streaming query results, 0 if query results are
+     *         read completely before they are returned
+     */
+    public int getQueryChunkSize() {
+        return queryChunkSize;
+    }
+
+    public int getDownsampleTargetPoints() {
+        return downsampleTargetPoints;
+    }
+
+    /**
+     * @return the aggregate function (mean, min, max or last), which has the same name in InfluxQL and Flux
+     */
+    public String getDownsampleFunction() {
+        return downsampleFunction;
+    }
+
     @Override
     public String toString() {
         String sb = "InfluxDBConfiguration{" + "url='" + url + '\'' + ", user='" + user + '\'' + ", password='"
                 + password.length() + " chars" + '\'' + ", token='" + token.length() + " chars" + '\''
                 + ", databaseName='" + databaseName + '\'' + ", retentionPolicy='" + retentionPolicy + '\''
                 + ", version=" + version + ", replaceUnderscore=" + replaceUnderscore + ", addCategoryTag="
-                + addCategoryTag + ", addTypeTag=" + addTypeTag + ", addLabelTag=" + addLabelTag + '}';
+                + addCategoryTag + ", addTypeTag=" + addTypeTag + ", addLabelTag=" + addLabelTag + ", batchSize="
+                + batchSize + ", flushInterval=" + flushInterval + ", jitterInterval=" + jitterInterval + ", gzip="
+                + gzip + ", retryBufferLimit=" + retryBufferLimit + ", retryInterval=" + retryInterval
+                + ", queryChunkSize=" + queryChunkSize + ", downsampleTargetPoints=" + downsampleTargetPoints
+                + ", downsampleFunction=" + downsampleFunction + '}';
         return sb;
     }
 
@@ -65,6 +65,17 @@ public interface InfluxDBRepository {
      */
     List<InfluxRow> query(String query);
 
+    /**
+     * Executes query, streaming the results
+     *
+     * The rows are converted while they are read from the server, in chunks of
+     * {@link InfluxDBConfiguration#getQueryChunkSize()} rows. The result can only be iterated once.
+     *
+     * @param query Query
+     * @return Query results
+     */
+    InfluxRowStream queryStreaming(String query);
+
     /**
      * Write point to database
      *
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Counts the points handed to the client for writing, the write requests the client gave up on and the points that
+ * were dropped before they could be written
+ *
+ * The V2 client reports a failed write request without the points it contained, so failed requests are counted
+ * per request on both versions, not per point.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBWriteStatistics {
+    private final AtomicLong buffered = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public void addBuffered(long points) {
+        buffered.addAndGet(points);
+    }
+
+    public void addFailedWrite() {
+        failedWrites.incrementAndGet();
+    }
+
+    public void addDropped(long points) {
+        dropped.addAndGet(points);
+    }
+
+    public long getBuffered() {
+        return buffered.get();
+    }
+
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public String toString() {
+        return "InfluxDBWriteStatistics{buffered=" + buffered.get() + ", failedWrites=" + failedWrites.get()
+                + ", dropped=" + dropped.get() + '}';
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.lang.ref.Cleaner;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rows of a streamed query, handed over from the thread of the client's streaming callback to the thread iterating
+ * over them.
+ *
+ * The rows are passed through a bounded queue, so at most 'capacity' rows are held in memory. The client thread
+ * blocks while the queue is full, which stops reading the response from the server. The query is cancelled if the
+ * iterating thread does not take a row for longer than the timeout, or when the view returned by
+ * {@link #map(Function)} is closed or no longer referenced. The result can only be iterated once.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxRowStream implements Iterable<InfluxRow> {
+    public static final long DEFAULT_TIMEOUT_MILLIS = 60000;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Logger logger = LoggerFactory.getLogger(InfluxRowStream.class);
+
+    private final BlockingQueue<InfluxRow> queue;
+    private final long timeoutMillis;
+    private final AtomicBoolean iterated = new AtomicBoolean();
+
+    private volatile boolean finished = false;
+    private volatile boolean cancelled = false;
+    private volatile @Nullable Throwable failure;
+
+    public InfluxRowStream(int capacity) {
+        this(capacity, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public InfluxRowStream(int capacity, long timeoutMillis) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Adds a row, waiting while the queue is full. Called by the client thread.
+     *
+     * @param row the row to add
+     * @return true if the row was added, false if the query has to be cancelled as nobody reads the rows anymore
+     */
+    public boolean add(InfluxRow row) {
+        if (cancelled) {
+            return false;
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            // wait in short steps, so a cancellation by the reading side stops the client thread early
+            while (!cancelled) {
+                if (queue.offer(row, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    logger.debug("Rows of streamed query were not read within {} ms, cancelling query",
+                            timeoutMillis);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        cancelled = true;
+        return false;
+    }
+
+    /**
+     * Marks the stream as complete, after all rows were added. Called by the client thread.
+     */
+    public void complete() {
+        finished = true;
+    }
+
+    /**
+     * Marks the stream as failed. The rows added before are still returned. Called by the client thread.
+     */
+    public void fail(Throwable throwable) {
+        failure = throwable;
+        finished = true;
+    }
+
+    /**
+     * Cancels the query, because the rows are not needed anymore. Rows not read yet are discarded.
+     */
+    public void cancel() {
+        cancelled = true;
+        queue.clear();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns a view of the rows converted by the given function. The query is cancelled when the view is closed, or
+     * at the latest once it is garbage collected, so a reader that stops iterating early does not keep the client
+     * thread waiting.
+     *
+     * @param mapper the conversion of each row
+     * @return the converted rows, which can only be iterated once
+     */
+    public <T> MappedRows<T> map(Function<InfluxRow, T> mapper) {
+        return new MappedRows<>(this, mapper);
+    }
+
+    @Override
+    public Iterator<InfluxRow> iterator() {
+        if (!iterated.compareAndSet(false, true)) {
+            throw new IllegalStateException("Streamed query result can only be iterated once");
+        }
+        return new Iterator<>() {
+            private @Nullable InfluxRow next;
+            private boolean done = false;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !done) {
+                    next = take();
+                    done = next == null;
+                }
+                return next != null;
+            }
+
+            @Override
+            public InfluxRow next() {
+                InfluxRow row = hasNext() ? next : null;
+                if (row == null) {
+                    throw new NoSuchElementException();
+                }
+                next = null;
+                return row;
+            }
+        };
+    }
+
+    private @Nullable InfluxRow take() {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            while (!cancelled) {
+                // read the flag before polling, so no row added before completion is missed
+                boolean complete = finished;
+                InfluxRow row = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (row != null) {
+                    return row;
+                }
+                if (complete) {
+                    Throwable cause = failure;
+                    if (cause != null) {
+                        logger.warn("Streamed query failed, returning partial result: {}", cause.getMessage());
+                    }
+                    return null;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    logger.warn("No rows of streamed query received within {} ms, returning partial result",
+                            timeoutMillis);
+                    cancelled = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+        return null;
+    }
+
+    /**
+     * Converted rows of a stream, see {@link InfluxRowStream#map(Function)}.
+     */
+    public static class MappedRows<T> implements Iterable<T>, AutoCloseable {
+        private final InfluxRowStream stream;
+        private final Function<InfluxRow, T> mapper;
+        // the action must not refer to this view, otherwise it would never become unreachable
+        private final Cleaner.Cleanable cleanable;
+
+        private MappedRows(InfluxRowStream stream, Function<InfluxRow, T> mapper) {
+            this.stream = stream;
+            this.mapper = mapper;
+            this.cleanable = CLEANER.register(this, stream::cancel);
+        }
+
+        /**
+         * Cancels the query. This is the action run when the view is garbage collected, it runs at most once.
+         */
+        @Override
+        public void close() {
+            cleanable.clean();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            Iterator<InfluxRow> rows = stream.iterator();
+            // an inner class, so the view stays reachable while one of its iterators is used
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return rows.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return mapper.apply(rows.next());
+                }
+            };
+        }
+    }
+}
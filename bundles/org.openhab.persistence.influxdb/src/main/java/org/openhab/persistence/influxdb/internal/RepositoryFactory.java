@@ -27,12 +27,13 @@ import org.openhab.persistence.influxdb.internal.influx2.InfluxDB2RepositoryImpl
 @NonNullByDefault
 public class RepositoryFactory {
 
-    public static InfluxDBRepository createRepository(InfluxDBConfiguration influxDBConfiguration) {
+    public static InfluxDBRepository createRepository(InfluxDBConfiguration influxDBConfiguration,
+            InfluxDBWriteStatistics writeStatistics) {
         switch (influxDBConfiguration.getVersion()) {
             case V1:
-                return new InfluxDB1RepositoryImpl(influxDBConfiguration);
+                return new InfluxDB1RepositoryImpl(influxDBConfiguration, writeStatistics);
             case V2:
-                return new InfluxDB2RepositoryImpl(influxDBConfiguration);
+                return new InfluxDB2RepositoryImpl(influxDBConfiguration, writeStatistics);
             default:
                 throw new UnnexpectedConditionException("Not expected version " + influxDBConfiguration.getVersion());
         }
@@ -22,9 +22,11 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.influxdb.BatchOptions;
 import org.influxdb.InfluxDB;
 import org.influxdb.InfluxDBFactory;
 import org.influxdb.dto.Point;
@@ -33,8 +35,10 @@ import org.influxdb.dto.Query;
 import org.influxdb.dto.QueryResult;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
+import org.openhab.persistence.influxdb.internal.InfluxDBWriteStatistics;
 import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.InfluxRow;
+import org.openhab.persistence.influxdb.internal.InfluxRowStream;
 import org.openhab.persistence.influxdb.internal.UnnexpectedConditionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,11 +53,13 @@ import org.slf4j.LoggerFactory;
 public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
     private final Logger logger = LoggerFactory.getLogger(InfluxDB1RepositoryImpl.class);
     private InfluxDBConfiguration configuration;
+    private InfluxDBWriteStatistics writeStatistics;
     @Nullable
     private InfluxDB client;
 
-    public InfluxDB1RepositoryImpl(InfluxDBConfiguration configuration) {
+    public InfluxDB1RepositoryImpl(InfluxDBConfiguration configuration, InfluxDBWriteStatistics writeStatistics) {
         this.configuration = configuration;
+        this.writeStatistics = writeStatistics;
     }
 
     @Override
@@ -67,14 +73,26 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
                 configuration.getPassword());
         createdClient.setDatabase(configuration.getDatabaseName());
         createdClient.setRetentionPolicy(configuration.getRetentionPolicy());
-        createdClient.enableBatch(200, 100, TimeUnit.MILLISECONDS);
+        // failed batches are kept in the retry buffer and written again with the next batches
+        createdClient.enableBatch(BatchOptions.DEFAULTS.actions(configuration.getBatchSize())
+                .flushDuration(configuration.getFlushInterval()).jitterDuration(configuration.getJitterInterval())
+                .bufferLimit(configuration.getRetryBufferLimit()).exceptionHandler(this::handleFailedPoints));
+        if (configuration.isGzip()) {
+            createdClient.enableGzip();
+        }
         this.client = createdClient;
         return checkConnectionStatus();
     }
 
     @Override
     public void disconnect() {
+        final InfluxDB currentClient = this.client;
+        if (currentClient != null) {
+            // writes the buffered points
+            currentClient.close();
+        }
         this.client = null;
+        logger.debug("Disconnected, {}", writeStatistics);
     }
 
     @Override
@@ -109,13 +127,21 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
         logger.warn("database error: {}", e.getMessage(), e);
     }
 
+    private void handleFailedPoints(Iterable<Point> points, Throwable e) {
+        // counted per request, as with V2, whose client does not report the points of a failed request
+        writeStatistics.addFailedWrite();
+        logger.warn("Write request failed, its points are lost: {}, {}", e.getMessage(), writeStatistics);
+    }
+
     @Override
     public void write(InfluxPoint point) {
         final InfluxDB currentClient = this.client;
         if (currentClient != null) {
             Point clientPoint = convertPointToClientFormat(point);
             currentClient.write(configuration.getDatabaseName(), configuration.getRetentionPolicy(), clientPoint);
+            writeStatistics.addBuffered(1);
         } else {
+            writeStatistics.addDropped(1);
             logger.warn("Write point {} ignored due to client isn't connected", point);
         }
     }
@@ -147,16 +173,52 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
         final InfluxDB currentClient = client;
         if (currentClient != null) {
             Query parsedQuery = new Query(query, configuration.getDatabaseName());
-            List<QueryResult.Result> results = currentClient.query(parsedQuery, TimeUnit.MILLISECONDS).getResults();
-            return convertClientResutToRepository(results);
+            QueryResult queryResult = currentClient.query(parsedQuery, TimeUnit.MILLISECONDS);
+            List<InfluxRow> rows = new ArrayList<>();
+            convertClientResutToRepository(queryResult, rows::add);
+            return rows;
         } else {
             logger.warn("Returning empty list because queryAPI isn't present");
             return Collections.emptyList();
         }
     }
 
-    private List<InfluxRow> convertClientResutToRepository(List<QueryResult.Result> results) {
-        List<InfluxRow> rows = new ArrayList<>();
+    @Override
+    public InfluxRowStream queryStreaming(String query) {
+        final InfluxDB currentClient = client;
+        if (currentClient != null) {
+            Query parsedQuery = new Query(query, configuration.getDatabaseName());
+            InfluxRowStream rows = new InfluxRowStream(configuration.getQueryChunkSize());
+            currentClient.query(parsedQuery, configuration.getQueryChunkSize(), (cancellable, queryResult) -> {
+                if (!convertClientResutToRepository(queryResult, rows::add)) {
+                    cancellable.cancel();
+                }
+            }, rows::complete, rows::fail);
+            return rows;
+        } else {
+            logger.warn("Returning empty list because queryAPI isn't present");
+            InfluxRowStream rows = new InfluxRowStream(1);
+            rows.complete();
+            return rows;
+        }
+    }
+
+    /**
+     * Converts the values of a query result (or of one chunk of it) into rows
+     *
+     * @param queryResult the query result
+     * @param consumer gets the rows, returns false if no more rows are wanted
+     * @return false if the consumer did not want more rows, otherwise true
+     */
+    private boolean convertClientResutToRepository(QueryResult queryResult, Predicate<InfluxRow> consumer) {
+        List<QueryResult.Result> results = queryResult.getResults();
+        if (results == null) {
+            // the end of a chunked response is signalled by the error "DONE"
+            if (queryResult.getError() != null && !"DONE".equals(queryResult.getError())) {
+                logger.warn("{}", queryResult.getError());
+            }
+            return true;
+        }
         for (QueryResult.Result result : results) {
             List<QueryResult.Series> seriess = result.getSeries();
             if (result.getError() != null) {
@@ -190,18 +252,35 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
                                 throw new IllegalStateException("missing column");
                             }
                             for (int i = 0; i < valuess.size(); i++) {
-                                Double rawTime = (Double) valuess.get(i).get(timestampColumn);
-                                Instant time = Instant.ofEpochMilli(rawTime.longValue());
                                 Object value = valuess.get(i).get(valueColumn);
+                                if (value == null) {
+                                    // empty window of an aggregated query
+                                    continue;
+                                }
+                                Instant time = parseTime(valuess.get(i).get(timestampColumn));
                                 logger.trace("adding historic item {}: time {} value {}", itemName, time, value);
-                                rows.add(new InfluxRow(time, itemName, value));
+                                if (!consumer.test(new InfluxRow(time, itemName, value))) {
+                                    return false;
+                                }
                             }
                         }
                     }
                 }
             }
         }
-        return rows;
+        return true;
+    }
+
+    /**
+     * Times are returned as epoch milliseconds if requested, which is not possible for chunked queries. These return
+     * RFC3339 strings instead.
+     */
+    private Instant parseTime(Object rawTime) {
+        if (rawTime instanceof Number) {
+            return Instant.ofEpochMilli(((Number) rawTime).longValue());
+        } else {
+            return Instant.parse(rawTime.toString());
+        }
     }
 
     @Override
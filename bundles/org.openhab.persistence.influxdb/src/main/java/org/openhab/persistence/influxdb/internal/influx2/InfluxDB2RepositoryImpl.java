@@ -19,6 +19,8 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -27,8 +29,10 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBConstants;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
+import org.openhab.persistence.influxdb.internal.InfluxDBWriteStatistics;
 import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.InfluxRow;
+import org.openhab.persistence.influxdb.internal.InfluxRowStream;
 import org.openhab.persistence.influxdb.internal.UnnexpectedConditionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,9 +42,13 @@ import com.influxdb.client.InfluxDBClientFactory;
 import com.influxdb.client.InfluxDBClientOptions;
 import com.influxdb.client.QueryApi;
 import com.influxdb.client.WriteApi;
+import com.influxdb.client.WriteOptions;
 import com.influxdb.client.domain.Ready;
 import com.influxdb.client.domain.WritePrecision;
 import com.influxdb.client.write.Point;
+import com.influxdb.client.write.events.BackpressureEvent;
+import com.influxdb.client.write.events.WriteErrorEvent;
+import com.influxdb.query.FluxRecord;
 import com.influxdb.query.FluxTable;
 
 /**
@@ -52,15 +60,19 @@ import com.influxdb.query.FluxTable;
 public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
     private final Logger logger = LoggerFactory.getLogger(InfluxDB2RepositoryImpl.class);
     private InfluxDBConfiguration configuration;
+    private InfluxDBWriteStatistics writeStatistics;
     @Nullable
     private InfluxDBClient client;
     @Nullable
     private QueryApi queryAPI;
     @Nullable
     private WriteApi writeAPI;
+    // the warning about a full write buffer is only logged once per connection, further drops are only counted
+    private final AtomicBoolean backpressureReported = new AtomicBoolean();
 
-    public InfluxDB2RepositoryImpl(InfluxDBConfiguration configuration) {
+    public InfluxDB2RepositoryImpl(InfluxDBConfiguration configuration, InfluxDBWriteStatistics writeStatistics) {
         this.configuration = configuration;
+        this.writeStatistics = writeStatistics;
     }
 
     /**
@@ -91,10 +103,36 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
         InfluxDBClientOptions clientOptions = optionsBuilder.build();
 
         final InfluxDBClient createdClient = InfluxDBClientFactory.create(clientOptions);
+        backpressureReported.set(false);
         this.client = createdClient;
         logger.debug("Succesfully connected to InfluxDB. Instance ready={}", createdClient.ready());
+        if (configuration.isGzip()) {
+            createdClient.enableGzip();
+        }
         queryAPI = createdClient.getQueryApi();
-        writeAPI = createdClient.getWriteApi();
+        // failed batches are retried until they are written or pushed out of the buffer by newer points
+        WriteOptions writeOptions = WriteOptions.builder().batchSize(configuration.getBatchSize())
+                .flushInterval(configuration.getFlushInterval()).jitterInterval(configuration.getJitterInterval())
+                .retryInterval(configuration.getRetryInterval()).bufferLimit(configuration.getRetryBufferLimit())
+                .build();
+        WriteApi createdWriteAPI = createdClient.getWriteApi(writeOptions);
+        createdWriteAPI.listenEvents(WriteErrorEvent.class, event -> {
+            // the event does not tell which points the request contained, so the request is counted as a whole
+            writeStatistics.addFailedWrite();
+            logger.warn("Write request failed, its points are lost: {}, {}", event.getThrowable().getMessage(),
+                    writeStatistics);
+        });
+        createdWriteAPI.listenEvents(BackpressureEvent.class, event -> {
+            // each event drops the oldest buffered write, which is a single point as points are written one by one
+            writeStatistics.addDropped(1);
+            if (backpressureReported.compareAndSet(false, true)) {
+                logger.warn("Write buffer is full, oldest points are dropped. Consider increasing retryBufferLimit, {}",
+                        writeStatistics);
+            } else {
+                logger.debug("Write buffer is full, dropped oldest point, {}", writeStatistics);
+            }
+        });
+        writeAPI = createdWriteAPI;
         return checkConnectionStatus();
     }
 
@@ -104,10 +142,17 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
     @Override
     public void disconnect() {
         final InfluxDBClient currentClient = this.client;
+        final WriteApi currentWriteAPI = this.writeAPI;
+        if (currentWriteAPI != null) {
+            // writes the buffered points
+            currentWriteAPI.close();
+        }
         if (currentClient != null) {
             currentClient.close();
         }
         this.client = null;
+        this.writeAPI = null;
+        logger.debug("Disconnected, {}", writeStatistics);
     }
 
     /**
@@ -143,7 +188,9 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
         final WriteApi currentWriteAPI = writeAPI;
         if (currentWriteAPI != null) {
             currentWriteAPI.writePoint(convertPointToClientFormat(point));
+            writeStatistics.addBuffered(1);
         } else {
+            writeStatistics.addDropped(1);
             logger.warn("Write point {} ignored due to writeAPI isn't present", point);
         }
     }
@@ -187,17 +234,48 @@ public class InfluxDB2RepositoryImpl implements InfluxDBRepository {
         }
     }
 
+    /**
+     * Executes Flux query, streaming the records
+     *
+     * @param query Query
+     * @return Query results, converted while they are read from the server
+     */
+    @Override
+    public InfluxRowStream queryStreaming(String query) {
+        final QueryApi currentQueryAPI = queryAPI;
+        if (currentQueryAPI != null) {
+            InfluxRowStream rows = new InfluxRowStream(configuration.getQueryChunkSize());
+            currentQueryAPI.query(query, (cancellable, record) -> {
+                InfluxRow row = mapRecordToRow(record);
+                if (row != null && !rows.add(row)) {
+                    cancellable.cancel();
+                }
+            }, rows::fail, rows::complete);
+            return rows;
+        } else {
+            logger.warn("Returning empty list because queryAPI isn't present");
+            InfluxRowStream rows = new InfluxRowStream(1);
+            rows.complete();
+            return rows;
+        }
+    }
+
     private List<InfluxRow> convertClientResutToRepository(List<FluxTable> clientResult) {
         return clientResult.stream().flatMap(this::mapRawResultToHistoric).collect(Collectors.toList());
     }
 
     private Stream<InfluxRow> mapRawResultToHistoric(FluxTable rawRow) {
-        return rawRow.getRecords().stream().map(r -> {
-            String itemName = (String) r.getValueByKey(InfluxDBConstants.TAG_ITEM_NAME);
-            Object value = r.getValueByKey(COLUMN_VALUE_NAME_V2);
-            Instant time = (Instant) r.getValueByKey(COLUMN_TIME_NAME_V2);
-            return new InfluxRow(time, itemName, value);
-        });
+        return rawRow.getRecords().stream().map(this::mapRecordToRow).filter(Objects::nonNull);
+    }
+
+    private @Nullable InfluxRow mapRecordToRow(FluxRecord record) {
+        String itemName = (String) record.getValueByKey(InfluxDBConstants.TAG_ITEM_NAME);
+        Object value = record.getValueByKey(COLUMN_VALUE_NAME_V2);
+        Instant time = (Instant) record.getValueByKey(COLUMN_TIME_NAME_V2);
+        if (itemName == null || value == null || time == null) {
+            return null;
+        }
+        return new InfluxRow(time, itemName, value);
     }
 
     /**
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.openhab.persistence.influxdb.internal.InfluxDBConfiguration.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBWriteOptionsTest {
+
+    @Test
+    public void defaultWriteOptions() {
+        InfluxDBConfiguration configuration = ConfigurationTestHelper.createValidConfiguration();
+        assertThat(configuration.getBatchSize(), is(1000));
+        assertThat(configuration.getFlushInterval(), is(1000));
+        assertThat(configuration.getJitterInterval(), is(0));
+        assertThat(configuration.isGzip(), is(false));
+        assertThat(configuration.getRetryBufferLimit(), is(10000));
+        assertThat(configuration.getRetryInterval(), is(5000));
+    }
+
+    @Test
+    public void writeOptionsFromStringsAndNumbers() {
+        Map<String, Object> config = ConfigurationTestHelper.createValidConfigurationParameters();
+        config.put(BATCH_SIZE_PARAM, "500");
+        config.put(FLUSH_INTERVAL_PARAM, new BigDecimal(2000));
+        config.put(JITTER_INTERVAL_PARAM, 100);
+        config.put(GZIP_PARAM, "true");
+        config.put(RETRY_BUFFER_LIMIT_PARAM, "50000");
+        InfluxDBConfiguration configuration = new InfluxDBConfiguration(config);
+        assertThat(configuration.getBatchSize(), is(500));
+        assertThat(configuration.getFlushInterval(), is(2000));
+        assertThat(configuration.getJitterInterval(), is(100));
+        assertThat(configuration.isGzip(), is(true));
+        assertThat(configuration.getRetryBufferLimit(), is(50000));
+    }
+
+    @Test
+    public void invalidWriteOptionsFallBackToDefaults() {
+        Map<String, Object> config = ConfigurationTestHelper.createValidConfigurationParameters();
+        config.put(BATCH_SIZE_PARAM, "many");
+        config.put(FLUSH_INTERVAL_PARAM, 0);
+        InfluxDBConfiguration configuration = new InfluxDBConfiguration(config);
+        assertThat(configuration.getBatchSize(), is(1000));
+        assertThat(configuration.getFlushInterval(), is(1000));
+    }
+
+    @Test
+    public void retryBufferHoldsAtLeastOneBatch() {
+        Map<String, Object> config = ConfigurationTestHelper.createValidConfigurationParameters();
+        config.put(BATCH_SIZE_PARAM, 5000);
+        config.put(RETRY_BUFFER_LIMIT_PARAM, 100);
+        assertThat(new InfluxDBConfiguration(config).getRetryBufferLimit(), is(5000));
+    }
+
+    @Test
+    public void failedWritesAreCountedPerRequest() {
+        InfluxDBWriteStatistics statistics = new InfluxDBWriteStatistics();
+        statistics.addBuffered(3);
+        statistics.addFailedWrite();
+        statistics.addDropped(1);
+        assertThat(statistics.getBuffered(), is(3L));
+        assertThat(statistics.getFailedWrites(), is(1L));
+        assertThat(statistics.getDropped(), is(1L));
+    }
+}
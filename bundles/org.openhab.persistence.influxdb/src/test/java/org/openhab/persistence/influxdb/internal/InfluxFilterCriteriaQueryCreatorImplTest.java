@@ -12,9 +12,13 @@
  */
 package org.openhab.persistence.influxdb.internal;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -159,6 +163,69 @@ public class InfluxFilterCriteriaQueryCreatorImplTest {
                         + "|> sort(desc:false, columns:[\"_time\"])"));
     }
 
+    @Test
+    public void testAggregateWindow() {
+        FilterCriteria criteria = createBaseCriteria();
+        ZonedDateTime now = ZonedDateTime.now();
+        criteria.setBeginDate(now);
+        criteria.setEndDate(now.plus(1, ChronoUnit.DAYS));
+
+        String queryV1 = instanceV1.createQuery(criteria, RETENTION_POLICY, Duration.ofSeconds(300), "max");
+        assertThat(queryV1, containsString("SELECT max(value) AS value FROM origin.sampleItem WHERE"));
+        assertThat(queryV1, containsString("GROUP BY time(300s)"));
+
+        String queryV2 = instanceV2.createQuery(criteria, RETENTION_POLICY, Duration.ofSeconds(300), "max");
+        assertThat(queryV2, containsString("|> aggregateWindow("));
+        assertThat(queryV2, containsString("fn:max"));
+        assertThat(queryV2, containsString("createEmpty:false"));
+    }
+
+    @Test
+    public void testNoAggregateWindow() {
+        FilterCriteria criteria = createBaseCriteria();
+
+        assertThat(instanceV1.createQuery(criteria, RETENTION_POLICY, null, "mean"),
+                equalTo(instanceV1.createQuery(criteria, RETENTION_POLICY)));
+        assertThat(instanceV2.createQuery(criteria, RETENTION_POLICY, null, "mean"),
+                equalTo(instanceV2.createQuery(criteria, RETENTION_POLICY)));
+    }
+
+    @Test
+    public void testAggregateWindowForAllPagesOfPagedQueries() {
+        FilterCriteria criteria = createBaseCriteria();
+        ZonedDateTime now = ZonedDateTime.now();
+        criteria.setBeginDate(now);
+        criteria.setEndDate(now.plus(1, ChronoUnit.DAYS));
+
+        // unpaged, like persistence extensions
+        assertThat(FilterCriteriaQueryCreator.getAggregateWindow(criteria, 100), is(nullValue()));
+
+        criteria.setPageSize(100);
+        assertThat(FilterCriteriaQueryCreator.getAggregateWindow(criteria, 0), is(nullValue()));
+        // 86400 s into at most 100 windows aligned to the epoch: 99 full windows cover the range
+        assertThat(FilterCriteriaQueryCreator.getAggregateWindow(criteria, 1000), is(Duration.ofSeconds(873)));
+        assertThat(FilterCriteriaQueryCreator.getAggregateWindow(criteria, 50), is(Duration.ofSeconds(1764)));
+
+        // later pages use the same windows, so they continue the aggregated series
+        criteria.setPageNumber(1);
+        assertThat(FilterCriteriaQueryCreator.getAggregateWindow(criteria, 1000), is(Duration.ofSeconds(873)));
+    }
+
+    @Test
+    public void testNoAggregateWindowForShortWindows() {
+        FilterCriteria criteria = createBaseCriteria();
+        ZonedDateTime now = ZonedDateTime.now();
+        criteria.setBeginDate(now);
+        criteria.setEndDate(now.plus(1, ChronoUnit.HOURS));
+        criteria.setPageSize(5000);
+
+        assertThat(FilterCriteriaQueryCreator.getAggregateWindow(criteria, 5000), is(nullValue()));
+        assertThat(FilterCriteriaQueryCreator.getAggregateWindow(criteria, 1000), is(Duration.ofSeconds(4)));
+
+        criteria.setEndDate(null);
+        assertThat(FilterCriteriaQueryCreator.getAggregateWindow(criteria, 1000), is(nullValue()));
+    }
+
     private FilterCriteria createBaseCriteria() {
         return createBaseCriteria(ITEM_NAME);
     }
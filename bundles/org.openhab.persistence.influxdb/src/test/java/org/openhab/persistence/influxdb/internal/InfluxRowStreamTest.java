@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxRowStreamTest {
+
+    @Test
+    public void rowsAreReturnedWhileTheyAreAdded() throws InterruptedException {
+        InfluxRowStream stream = new InfluxRowStream(2);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                stream.add(createRow(i));
+            }
+            stream.complete();
+        });
+        producer.start();
+
+        List<Object> values = new ArrayList<>();
+        for (InfluxRow row : stream) {
+            values.add(row.getValue());
+        }
+        producer.join();
+
+        assertThat(values.size(), is(100));
+        assertThat(values.get(99), is(99));
+    }
+
+    @Test
+    public void failedStreamReturnsRowsAddedBefore() {
+        InfluxRowStream stream = new InfluxRowStream(10);
+        stream.add(createRow(1));
+        stream.fail(new IllegalStateException("connection lost"));
+
+        List<InfluxRow> rows = new ArrayList<>();
+        stream.forEach(rows::add);
+        assertThat(rows.size(), is(1));
+    }
+
+    @Test
+    public void streamCanOnlyBeIteratedOnce() {
+        InfluxRowStream stream = new InfluxRowStream(10);
+        stream.complete();
+
+        stream.iterator();
+        assertThrows(IllegalStateException.class, stream::iterator);
+    }
+
+    @Test
+    public void addIsCancelledIfRowsAreNotRead() {
+        InfluxRowStream stream = new InfluxRowStream(1, 50);
+
+        assertThat(stream.add(createRow(1)), is(true));
+        assertThat(stream.add(createRow(2)), is(false));
+        assertThat(stream.isCancelled(), is(true));
+    }
+
+    @Test
+    public void cancelStopsWaitingProducer() throws InterruptedException {
+        InfluxRowStream stream = new InfluxRowStream(1, 60000);
+        stream.add(createRow(1));
+        List<Boolean> added = new ArrayList<>();
+        Thread producer = new Thread(() -> added.add(stream.add(createRow(2))));
+        producer.start();
+
+        stream.cancel();
+        producer.join(5000);
+
+        assertThat(producer.isAlive(), is(false));
+        assertThat(added, contains(false));
+    }
+
+    @Test
+    public void mappedRowsAreConverted() {
+        InfluxRowStream stream = new InfluxRowStream(10);
+        stream.add(createRow(1));
+        stream.add(createRow(2));
+        stream.complete();
+
+        List<Object> values = new ArrayList<>();
+        stream.map(InfluxRow::getValue).forEach(values::add);
+
+        assertThat(values, contains(1, 2));
+    }
+
+    @Test
+    public void closingMappedRowsCancelsTheQuery() {
+        InfluxRowStream stream = new InfluxRowStream(1, 60000);
+        stream.add(createRow(1));
+        InfluxRowStream.MappedRows<Object> rows = stream.map(InfluxRow::getValue);
+        Iterator<Object> iterator = rows.iterator();
+        assertThat(iterator.next(), is(1));
+
+        // runs the action that is also run when the rows are garbage collected
+        rows.close();
+
+        assertThat(stream.isCancelled(), is(true));
+        assertThat(stream.add(createRow(2)), is(false));
+        assertThat(iterator.hasNext(), is(false));
+    }
+
+    private InfluxRow createRow(int value) {
+        return new InfluxRow(Instant.ofEpochSecond(value), "sampleItem", value);
+    }
+}
@@ -18,6 +18,7 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,6 +57,7 @@ import org.openhab.persistence.jdbc.model.ItemVO;
 import org.openhab.persistence.jdbc.model.ItemsVO;
 import org.openhab.persistence.jdbc.model.JdbcHistoricItem;
 import org.openhab.persistence.jdbc.utils.DbMetaData;
+import org.openhab.persistence.jdbc.utils.SqlStatementCache;
 import org.openhab.persistence.jdbc.utils.StringUtilsExt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -85,6 +87,14 @@ public class JdbcBaseDAO {
     protected String sqlGetItemTables;
     protected String sqlCreateItemTable;
     protected String sqlInsertItemValue;
+    protected String sqlTimeBucket;
+
+    // Resolved statements per item table
+    private static final int SQL_CACHE_SIZE = 2000;
+    protected final SqlStatementCache sqlInsertItemValueCache = new SqlStatementCache(SQL_CACHE_SIZE);
+    protected final SqlStatementCache sqlInsertItemValuesCache = new SqlStatementCache(SQL_CACHE_SIZE);
+    protected final SqlStatementCache sqlHistItemFilterQueryCache = new SqlStatementCache(SQL_CACHE_SIZE);
+    protected final SqlStatementCache sqlHistItemAggregateQueryCache = new SqlStatementCache(SQL_CACHE_SIZE);
 
     /********
      * INIT *
@@ -144,6 +154,8 @@ public class JdbcBaseDAO {
         sqlGetItemTables = "SELECT table_name FROM information_schema.tables WHERE table_type='BASE TABLE' AND table_schema='#jdbcUriDatabaseName#' AND NOT table_name='#itemsManageTable#'";
         sqlCreateItemTable = "CREATE TABLE IF NOT EXISTS #tableName# (time #tablePrimaryKey# NOT NULL, value #dbType#, PRIMARY KEY(time))";
         sqlInsertItemValue = "INSERT INTO #tableName# (TIME, VALUE) VALUES( #tablePrimaryValue#, ? ) ON DUPLICATE KEY UPDATE VALUE= ?";
+        // number of the time bucket a row belongs to, the bucket width in seconds is inserted as literal
+        sqlTimeBucket = "FLOOR(UNIX_TIMESTAMP(time) / #bucketSeconds#)";
     }
 
     /**
@@ -327,24 +339,70 @@ public class JdbcBaseDAO {
 
     public void doStoreItemValue(Item item, ItemVO vo) {
         ItemVO storedVO = storeItemValueProvider(item, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#tablePrimaryValue#" },
-                new String[] { storedVO.getTableName(), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = new Object[] { storedVO.getValue(), storedVO.getValue() };
+        String sql = sqlInsertItemValueCache.get(storedVO.getTableName(), table -> insertItemValueProvider(table,
+                storedVO.getDbType(), sqlTypes.get("tablePrimaryValue")));
+        Object[] params = insertItemValueParams(storedVO);
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, storedVO.getValue());
         Yank.execute(sql, params);
     }
 
+    /**
+     * Writes several values of one item as a single JDBC batch. The time column is bound from
+     * {@link ItemVO#getTime()} instead of 'tablePrimaryValue', as the values are written some time after they have
+     * been stored.
+     */
+    public void doStoreItemValues(String tableName, List<ItemVO> vol) {
+        String dbType = vol.get(0).getDbType();
+        String sql = sqlInsertItemValuesCache.get(tableName,
+                table -> insertItemValueProvider(table, dbType, timeParamProvider()));
+        Object[][] params = new Object[vol.size()][];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = insertItemValueParamsWithTime(vol.get(i));
+        }
+        logger.debug("JDBC::doStoreItemValues sql={} rows={}", sql, params.length);
+        Yank.executeBatch(sql, params);
+    }
+
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name, ZoneId timeZone) {
-        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
+        String sql = sqlHistItemFilterQueryCache.get(histItemFilterQueryKey(filter, numberDecimalcount, table, name),
+                key -> histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone));
+        Object[] params = histItemFilterQueryParams(filter, timeZone);
         logger.debug("JDBC::doGetHistItemFilterQuery sql={}", sql);
-        List<Object[]> m = Yank.queryObjectArrays(sql, null);
-        // we already retrieve the unit here once as it is a very costly operation
-        String itemName = item.getName();
-        Unit<? extends Quantity<?>> unit = item instanceof NumberItem ? ((NumberItem) item).getUnit() : null;
-        return m.stream().map(o -> new JdbcHistoricItem(itemName, getState(item, unit, o[1]), objectAsDate(o[0])))
-                .collect(Collectors.<HistoricItem> toList());
+        List<Object[]> m = Yank.queryObjectArrays(sql, params);
+        return toHistoricItems(item, m);
+    }
+
+    /**
+     * Queries the values of a number item between begin and end date of the filter, aggregated into time buckets of
+     * the given width, so only one row per bucket is read.
+     *
+     * @param aggregation one of AVG, MIN, MAX (aggregate of all values within a bucket) or LAST (last value of a
+     *            bucket)
+     */
+    public List<HistoricItem> doGetHistItemAggregateQuery(Item item, FilterCriteria filter, String table,
+            long bucketSeconds, String aggregation, ZoneId timeZone) {
+        String key = table + ':' + aggregation + ':' + (filter.getOrdering() == Ordering.ASCENDING ? 'A' : 'D');
+        // the bucket width is a literal, some databases do not accept parameters in GROUP BY expressions
+        String sql = sqlHistItemAggregateQueryCache
+                .get(key, k -> histItemAggregateQueryProvider(filter, table, aggregation))
+                .replace("#bucketSeconds#", Long.toString(bucketSeconds));
+        Object[] params = new Object[] {
+                JDBC_DATE_FORMAT.format(filter.getBeginDate().withZoneSameInstant(timeZone)),
+                JDBC_DATE_FORMAT.format(filter.getEndDate().withZoneSameInstant(timeZone)) };
+        logger.debug("JDBC::doGetHistItemAggregateQuery sql={} bucketSeconds={}", sql, bucketSeconds);
+        List<Object[]> m = Yank.queryObjectArrays(sql, params);
+        return toHistoricItems(item, m);
+    }
+
+    /**
+     * Clears all resolved SQL statements, needed whenever the SQL types they depend on change.
+     */
+    public void clearSqlCaches() {
+        sqlInsertItemValueCache.clear();
+        sqlInsertItemValuesCache.clear();
+        sqlHistItemFilterQueryCache.clear();
+        sqlHistItemAggregateQueryCache.clear();
     }
 
     /*************
@@ -352,6 +410,57 @@ public class JdbcBaseDAO {
      *************/
     static final DateTimeFormatter JDBC_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * Resolves {@link #sqlInsertItemValue} for one item table.
+     *
+     * @param tablePrimaryValue the SQL for the time column, 'tablePrimaryValue' or {@link #timeParamProvider()}
+     */
+    protected String insertItemValueProvider(String tableName, String dbType, String tablePrimaryValue) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#tablePrimaryValue#" }, new String[] { tableName, tablePrimaryValue });
+    }
+
+    /**
+     * @return the parameters of {@link #sqlInsertItemValue}, without the time parameter
+     */
+    protected Object[] insertItemValueParams(ItemVO vo) {
+        return new Object[] { vo.getValue(), vo.getValue() };
+    }
+
+    private Object[] insertItemValueParamsWithTime(ItemVO vo) {
+        Object[] valueParams = insertItemValueParams(vo);
+        Object[] params = new Object[valueParams.length + 1];
+        params[0] = getTimeParam(vo);
+        System.arraycopy(valueParams, 0, params, 1, valueParams.length);
+        return params;
+    }
+
+    /**
+     * @return the SQL for the time column if it is bound as parameter
+     */
+    protected String timeParamProvider() {
+        return "?";
+    }
+
+    /**
+     * @return the SQL for a begin or end date of a filter, which are bound as formatted strings
+     */
+    protected String filterTimeParamProvider() {
+        return "?";
+    }
+
+    protected String histItemFilterQueryKey(FilterCriteria filter, int numberDecimalcount, String table,
+            String simpleName) {
+        return table + ':' + simpleName + ':' + numberDecimalcount + ':' + (filter.getBeginDate() != null ? 'B' : '-')
+                + (filter.getEndDate() != null ? 'E' : '-') + (filter.getOrdering() == Ordering.ASCENDING ? 'A' : 'D')
+                + (filter.getPageSize() != 0x7fffffff ? 'L' : '-');
+    }
+
+    /**
+     * Returns the query for the given filter. The begin and end date and the paging are not part of the query, but
+     * bound as parameters by {@link #histItemFilterQueryParams(FilterCriteria, ZoneId)}, so the query can be cached
+     * per item table.
+     */
     protected String histItemFilterQueryProvider(FilterCriteria filter, int numberDecimalcount, String table,
             String simpleName, ZoneId timeZone) {
         logger.debug(
@@ -361,17 +470,15 @@ public class JdbcBaseDAO {
         String filterString = "";
         if (filter.getBeginDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME>'" + JDBC_DATE_FORMAT.format(filter.getBeginDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME>?";
         }
         if (filter.getEndDate() != null) {
             filterString += filterString.isEmpty() ? " WHERE" : " AND";
-            filterString += " TIME<'" + JDBC_DATE_FORMAT.format(filter.getEndDate().withZoneSameInstant(timeZone))
-                    + "'";
+            filterString += " TIME<?";
         }
         filterString += (filter.getOrdering() == Ordering.ASCENDING) ? " ORDER BY time ASC" : " ORDER BY time DESC ";
         if (filter.getPageSize() != 0x7fffffff) {
-            filterString += " LIMIT " + filter.getPageNumber() * filter.getPageSize() + "," + filter.getPageSize();
+            filterString += " LIMIT ?,?";
         }
         // SELECT time, ROUND(value,3) FROM number_item_0114 ORDER BY time DESC LIMIT 0,1
         // rounding HALF UP
@@ -385,6 +492,53 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    /**
+     * @return the parameters of the query returned by
+     *         {@link #histItemFilterQueryProvider(FilterCriteria, int, String, String, ZoneId)}
+     */
+    protected Object[] histItemFilterQueryParams(FilterCriteria filter, ZoneId timeZone) {
+        List<Object> params = new ArrayList<>(4);
+        if (filter.getBeginDate() != null) {
+            params.add(JDBC_DATE_FORMAT.format(filter.getBeginDate().withZoneSameInstant(timeZone)));
+        }
+        if (filter.getEndDate() != null) {
+            params.add(JDBC_DATE_FORMAT.format(filter.getEndDate().withZoneSameInstant(timeZone)));
+        }
+        if (filter.getPageSize() != 0x7fffffff) {
+            params.addAll(histItemFilterLimitParams(filter));
+        }
+        return params.toArray();
+    }
+
+    /**
+     * Returns the aggregating query for
+     * {@link #doGetHistItemAggregateQuery(Item, FilterCriteria, String, long, String, ZoneId)}. Its parameters are
+     * begin date and end date, the placeholder #bucketSeconds# is replaced by the bucket width in seconds.
+     */
+    protected String histItemAggregateQueryProvider(FilterCriteria filter, String table, String aggregation) {
+        String timeParam = filterTimeParamProvider();
+        String order = filter.getOrdering() == Ordering.ASCENDING ? " ASC" : " DESC";
+        String queryString;
+        if ("LAST".equals(aggregation)) {
+            // time is the primary key, so the last time of each bucket identifies its last row
+            queryString = "SELECT i.time, i.value FROM " + table + " i INNER JOIN (SELECT MAX(time) AS lasttime FROM "
+                    + table + " WHERE TIME>" + timeParam + " AND TIME<" + timeParam + " GROUP BY " + sqlTimeBucket
+                    + ") b ON i.time=b.lasttime ORDER BY i.time" + order;
+        } else {
+            queryString = "SELECT MIN(time), " + aggregation + "(value) FROM " + table + " WHERE TIME>" + timeParam
+                    + " AND TIME<" + timeParam + " GROUP BY " + sqlTimeBucket + " ORDER BY 1" + order;
+        }
+        logger.debug("JDBC::query queryString = {}", queryString);
+        return queryString;
+    }
+
+    /**
+     * @return the paging parameters, in the order they appear in the query
+     */
+    protected List<Object> histItemFilterLimitParams(FilterCriteria filter) {
+        return List.of(filter.getPageNumber() * filter.getPageSize(), filter.getPageSize());
+    }
+
     private String updateItemTableNamesProvider(List<ItemVO> namesList) {
         logger.debug("JDBC::updateItemTableNamesProvider namesList.size = {}", namesList.size());
         String queryString = "";
@@ -396,7 +550,7 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
-    protected ItemVO storeItemValueProvider(Item item, ItemVO vo) {
+    public ItemVO storeItemValueProvider(Item item, ItemVO vo) {
         String itemType = getItemType(item);
 
         logger.debug("JDBC::storeItemValueProvider: item '{}' as Type '{}' in '{}' with state '{}'", item.getName(),
@@ -487,6 +641,14 @@ public class JdbcBaseDAO {
     /*****************
      * H E L P E R S *
      *****************/
+    private List<HistoricItem> toHistoricItems(Item item, List<Object[]> m) {
+        // we already retrieve the unit here once as it is a very costly operation
+        String itemName = item.getName();
+        Unit<? extends Quantity<?>> unit = item instanceof NumberItem ? ((NumberItem) item).getUnit() : null;
+        return m.stream().map(o -> new JdbcHistoricItem(itemName, getState(item, unit, o[1]), objectAsDate(o[0])))
+                .collect(Collectors.<HistoricItem> toList());
+    }
+
     protected State getState(Item item, @Nullable Unit<? extends Quantity<?>> unit, Object v) {
         logger.debug(
                 "JDBC::ItemResultHandler::handleResult getState value = '{}', unit = '{}', getClass = '{}', clazz = '{}'",
@@ -497,11 +659,12 @@ public class JdbcBaseDAO {
                 return unit == null ? new DecimalType(((Number) v).doubleValue())
                         : QuantityType.valueOf(((Number) v).doubleValue(), unit);
             } else if (it.toUpperCase().contains("DECIMAL") || it.toUpperCase().contains("NUMERIC")) {
-                return unit == null ? new DecimalType((BigDecimal) v)
-                        : QuantityType.valueOf(((BigDecimal) v).doubleValue(), unit);
+                // aggregated values may come back as another Number type
+                BigDecimal value = v instanceof BigDecimal ? (BigDecimal) v : new BigDecimal(v.toString());
+                return unit == null ? new DecimalType(value) : QuantityType.valueOf(value.doubleValue(), unit);
             } else if (it.toUpperCase().contains("INT")) {
-                return unit == null ? new DecimalType(((Integer) v).intValue())
-                        : QuantityType.valueOf(((Integer) v).doubleValue(), unit);
+                return unit == null ? new DecimalType(((Number) v).intValue())
+                        : QuantityType.valueOf(((Number) v).doubleValue(), unit);
             }
             return unit == null ? DecimalType.valueOf(((String) v).toString())
                     : QuantityType.valueOf(((String) v).toString());
@@ -525,6 +688,10 @@ public class JdbcBaseDAO {
         }
     }
 
+    protected Object getTimeParam(ItemVO vo) {
+        return new Timestamp(vo.getTime().getTime());
+    }
+
     protected ZonedDateTime objectAsDate(Object v) {
         if (v instanceof java.lang.String) {
             return ZonedDateTime.ofInstant(Timestamp.valueOf(v.toString()).toInstant(), ZoneId.systemDefault());
@@ -588,4 +755,13 @@ public class JdbcBaseDAO {
     public String getDataType(Item item) {
         return sqlTypes.get(getItemType(item));
     }
+
+    /**
+     * @return true if values of number items are stored with a numeric SQL type and thus can be aggregated
+     */
+    public boolean isNumberAggregatable() {
+        String it = sqlTypes.get("NUMBERITEM").toUpperCase();
+        return it.contains("DOUBLE") || it.contains("DECIMAL") || it.contains("NUMERIC") || it.contains("INT")
+                || it.contains("REAL") || it.contains("FLOAT");
+    }
 }
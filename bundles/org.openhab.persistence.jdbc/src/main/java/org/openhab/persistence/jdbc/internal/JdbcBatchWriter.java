@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.persistence.jdbc.model.ItemVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind queue of the JDBC persistence service.
+ *
+ * Item values are converted into {@link ItemVO}s (including the time they were stored at) by the storing thread and
+ * put into a bounded queue. The queue is flushed by a dedicated thread, grouped by item table, as one JDBC batch per
+ * table whenever 'batchSize' values are pending or 'batchFlushInterval' milliseconds have passed.
+ *
+ * If the queue is full, the storing thread flushes it itself. Only if it is still full afterwards, the value is
+ * dropped and counted. Values of a batch that cannot be written are counted as dropped as well.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcBatchWriter {
+    private static final long QUEUE_OFFER_TIMEOUT_MILLIS = 500;
+    private static final String THREADPOOL_NAME = "jdbcPersistenceService";
+
+    private final Logger logger = LoggerFactory.getLogger(JdbcBatchWriter.class);
+
+    private final JdbcConfiguration conf;
+    private final BiConsumer<String, List<ItemVO>> store;
+    private final int batchSize;
+    private final BlockingQueue<ItemVO> queue;
+    private final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory(THREADPOOL_NAME));
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    public JdbcBatchWriter(JdbcConfiguration conf) {
+        this(conf, (tableName, values) -> conf.getDBDAO().doStoreItemValues(tableName, values));
+    }
+
+    /**
+     * @param store writes the values of one item table as a batch
+     */
+    JdbcBatchWriter(JdbcConfiguration conf, BiConsumer<String, List<ItemVO>> store) {
+        this.conf = conf;
+        this.store = store;
+        this.batchSize = Math.max(1, conf.getBatchSize());
+        this.queue = new ArrayBlockingQueue<>(Math.max(batchSize, conf.getBatchQueueSize()));
+    }
+
+    public void start() {
+        long interval = Math.max(1, conf.getBatchFlushInterval());
+        scheduler.scheduleWithFixedDelay(this::scheduledFlush, interval, interval, TimeUnit.MILLISECONDS);
+        logger.debug("JDBC::JdbcBatchWriter started: batchSize={} queueSize={} flushInterval={} ms", batchSize,
+                queue.remainingCapacity(), interval);
+    }
+
+    /**
+     * Stops the flush thread and writes all values that are still queued.
+     */
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(QUEUE_OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                logger.debug("JDBC::JdbcBatchWriter: flush thread did not terminate in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        logger.debug("JDBC::JdbcBatchWriter stopped: queued={} written={} dropped={}", queuedCount.get(),
+                writtenCount.get(), droppedCount.get());
+    }
+
+    /**
+     * Adds an already converted item value to the queue.
+     *
+     * @param vo the item value, with table name, value and time set
+     * @return true if the value was queued, false if it had to be dropped
+     */
+    public boolean add(ItemVO vo) {
+        boolean queued = offer(vo);
+        if (!queued) {
+            logger.debug("JDBC::JdbcBatchWriter: queue is full, flushing on storing thread. Consider increasing "
+                    + "batchQueueSize");
+            flush();
+            queued = offer(vo);
+        }
+        if (!queued) {
+            long dropped = droppedCount.incrementAndGet();
+            logger.warn(
+                    "JDBC::JdbcBatchWriter: queue is still full, dropping value for table '{}' (dropped so far: {})",
+                    vo.getTableName(), dropped);
+            return false;
+        }
+        queuedCount.incrementAndGet();
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::scheduledFlush);
+            } catch (RuntimeException e) {
+                // scheduler is shut down, values are written by stop()
+                flushRequested.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes all queued values, one JDBC batch per item table. Called by the flush thread, by storing threads on
+     * overflow and before queries, so that the latter see all stored values.
+     */
+    public synchronized void flush() {
+        flushRequested.set(false);
+        if (queue.isEmpty()) {
+            return;
+        }
+        long timerStart = System.currentTimeMillis();
+        List<ItemVO> pending = new ArrayList<>(queue.size());
+        queue.drainTo(pending);
+
+        Map<String, List<ItemVO>> batches = new LinkedHashMap<>();
+        for (ItemVO vo : pending) {
+            batches.computeIfAbsent(vo.getTableName(), t -> new ArrayList<>()).add(vo);
+        }
+        for (Entry<String, List<ItemVO>> batch : batches.entrySet()) {
+            try {
+                store.accept(batch.getKey(), batch.getValue());
+                writtenCount.addAndGet(batch.getValue().size());
+            } catch (RuntimeException e) {
+                // not queued again, a value the database rejects would block the queue for good
+                long dropped = droppedCount.addAndGet(batch.getValue().size());
+                logger.warn(
+                        "JDBC::JdbcBatchWriter: writing {} values to table '{}' failed, dropping them (dropped so far: {}): {}",
+                        batch.getValue().size(), batch.getKey(), dropped, e.getMessage());
+            }
+        }
+        logFlushTime(pending.size(), batches.size(), timerStart, System.currentTimeMillis());
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private boolean offer(ItemVO vo) {
+        try {
+            return queue.offer(vo, QUEUE_OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // an unhandled exception would stop the scheduled flushing for good
+            logger.warn("JDBC::JdbcBatchWriter: flushing queued values failed unexpectedly, retrying with next flush",
+                    e);
+        }
+    }
+
+    private void logFlushTime(int rows, int tables, long timerStart, long timerStop) {
+        if (conf.enableLogTime && logger.isInfoEnabled()) {
+            int timerDiff = (int) (timerStop - timerStart);
+            conf.flushAverage50arr.add(timerDiff);
+            conf.flushAverage100arr.add(timerDiff);
+            logger.info(
+                    "JDBC::logFlushTime: flushed {} values to {} tables:\n afterFlush      = {} ms\n flushAverage50  = {} ms\n flushAverage100 = {} ms\n queueDepth      = {}\n writtenCount    = {}\n droppedCount    = {}\n",
+                    rows, tables, timerDiff, conf.flushAverage50arr.getAverageInteger(),
+                    conf.flushAverage100arr.getAverageInteger(), queue.size(), writtenCount.get(),
+                    droppedCount.get());
+        }
+    }
+}
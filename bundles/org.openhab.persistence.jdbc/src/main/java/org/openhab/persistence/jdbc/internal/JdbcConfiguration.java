@@ -37,6 +37,7 @@ public class JdbcConfiguration {
 
     private static final Pattern EXTRACT_CONFIG_PATTERN = Pattern.compile("^(.*?)\\.([0-9.a-zA-Z]+)$");
     private static final String DB_DAO_PACKAGE = "org.openhab.persistence.jdbc.db.Jdbc";
+    private static final Set<String> DOWNSAMPLE_FUNCTIONS = Set.of("AVG", "MIN", "MAX", "LAST");
 
     private Map<Object, Object> configuration;
 
@@ -60,12 +61,21 @@ public class JdbcConfiguration {
 
     private int errReconnectThreshold = 0;
 
+    private int batchSize = 0;
+    private int batchQueueSize = 10000;
+    private int batchFlushInterval = 1000;
+
+    private int downsampleTargetPoints = 0;
+    private String downsampleFunction = "AVG";
+
     public int timerCount = 0;
     public int time1000Statements = 0;
     public long timer1000 = 0;
     public MovingAverage timeAverage50arr = new MovingAverage(50);
     public MovingAverage timeAverage100arr = new MovingAverage(100);
     public MovingAverage timeAverage200arr = new MovingAverage(200);
+    public MovingAverage flushAverage50arr = new MovingAverage(50);
+    public MovingAverage flushAverage100arr = new MovingAverage(100);
     public boolean enableLogTime = false;
 
     public JdbcConfiguration(Map<Object, Object> configuration) {
@@ -173,6 +183,46 @@ public class JdbcConfiguration {
             logger.debug("JDBC::updateConfig: rebuildTableNames={}", rebuildTableNames);
         }
 
+        String bs = (String) configuration.get("batchSize");
+        if (bs != null && !bs.isBlank() && isNumericPattern.matcher(bs).matches()) {
+            batchSize = Integer.parseInt(bs);
+            logger.debug("JDBC::updateConfig: batchSize={}", batchSize);
+        }
+        String tpv = (String) configuration.get("sqltype.tablePrimaryValue");
+        if (batchSize > 0 && tpv != null && !tpv.isBlank()) {
+            logger.warn(
+                    "JDBC::updateConfig: sqltype.tablePrimaryValue='{}' is ignored while batchSize > 0, batched values are written with the time they were stored at, taken from the clock of openHAB",
+                    tpv);
+        }
+
+        String bq = (String) configuration.get("batchQueueSize");
+        if (bq != null && !bq.isBlank() && isNumericPattern.matcher(bq).matches()) {
+            batchQueueSize = Integer.parseInt(bq);
+            logger.debug("JDBC::updateConfig: batchQueueSize={}", batchQueueSize);
+        }
+
+        String bf = (String) configuration.get("batchFlushInterval");
+        if (bf != null && !bf.isBlank() && isNumericPattern.matcher(bf).matches()) {
+            batchFlushInterval = Integer.parseInt(bf);
+            logger.debug("JDBC::updateConfig: batchFlushInterval={}", batchFlushInterval);
+        }
+
+        String dp = (String) configuration.get("downsampleTargetPoints");
+        if (dp != null && !dp.isBlank() && isNumericPattern.matcher(dp).matches()) {
+            downsampleTargetPoints = Integer.parseInt(dp);
+            logger.debug("JDBC::updateConfig: downsampleTargetPoints={}", downsampleTargetPoints);
+        }
+
+        String df = (String) configuration.get("downsampleFunction");
+        if (df != null && !df.isBlank()) {
+            if (DOWNSAMPLE_FUNCTIONS.contains(df.trim().toUpperCase())) {
+                downsampleFunction = df.trim().toUpperCase();
+                logger.debug("JDBC::updateConfig: downsampleFunction={}", downsampleFunction);
+            } else {
+                logger.warn("JDBC::updateConfig: unknown downsampleFunction '{}', using '{}'", df, downsampleFunction);
+            }
+        }
+
         // undocumented
         String ac = (String) configuration.get("maximumPoolSize");
         if (ac != null && !ac.isBlank()) {
@@ -350,6 +400,26 @@ public class JdbcConfiguration {
         return tableIdDigitCount;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getBatchQueueSize() {
+        return batchQueueSize;
+    }
+
+    public int getBatchFlushInterval() {
+        return batchFlushInterval;
+    }
+
+    public int getDownsampleTargetPoints() {
+        return downsampleTargetPoints;
+    }
+
+    public String getDownsampleFunction() {
+        return downsampleFunction;
+    }
+
     public JdbcBaseDAO getDBDAO() {
         return dBDAO;
     }
@@ -373,6 +443,8 @@ public class JdbcConfiguration {
         dBDAO.initAfterFirstDbConnection();
         // Running once again to prior external configured SqlTypes!
         setSqlTypes();
+        // SQL statements resolved so far may be based on outdated SqlTypes
+        dBDAO.clearSqlCaches();
         this.dbConnected = dbConnected;
     }
 
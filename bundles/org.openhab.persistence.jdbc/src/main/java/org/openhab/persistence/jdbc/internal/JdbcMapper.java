@@ -12,6 +12,8 @@
  */
 package org.openhab.persistence.jdbc.internal;
 
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -22,6 +24,7 @@ import java.util.stream.Collectors;
 import org.knowm.yank.Yank;
 import org.openhab.core.i18n.TimeZoneProvider;
 import org.openhab.core.items.Item;
+import org.openhab.core.library.items.NumberItem;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceItemInfo;
@@ -46,6 +49,7 @@ public class JdbcMapper {
     protected boolean initialized = false;
     protected JdbcConfiguration conf = null;
     protected final Map<String, String> sqlTables = new HashMap<>();
+    protected volatile JdbcBatchWriter batchWriter = null;
     private long afterAccessMin = 10000;
     private long afterAccessMax = 0;
     private static final String ITEM_NAME_PATTERN = "[^a-zA-Z_0-9\\-]";
@@ -145,18 +149,34 @@ public class JdbcMapper {
         return vo;
     }
 
-    public Item storeItemValue(Item item) {
+    /**
+     * Stores the current state of an item, or queues it if batching is enabled.
+     *
+     * @return true if the value was stored or queued, false if it was dropped
+     */
+    public boolean storeItemValue(Item item) {
         logger.debug("JDBC::storeItemValue: item={}", item);
         String tableName = getTable(item);
         if (tableName == null) {
             logger.error("JDBC::store: Unable to store item '{}'.", item.getName());
-            return item;
+            return false;
         }
         long timerStart = System.currentTimeMillis();
-        conf.getDBDAO().doStoreItemValue(item, new ItemVO(tableName, null));
-        logTime("storeItemValue", timerStart, System.currentTimeMillis());
+        JdbcBatchWriter writer = batchWriter;
+        if (writer != null) {
+            // convert now, the item state may have changed when the queue is flushed
+            ItemVO vo = conf.getDBDAO().storeItemValueProvider(item, new ItemVO(tableName, null));
+            vo.setTime(new Timestamp(timerStart));
+            if (!writer.add(vo)) {
+                return false;
+            }
+            logTime("queueItemValue", timerStart, System.currentTimeMillis());
+        } else {
+            conf.getDBDAO().doStoreItemValue(item, new ItemVO(tableName, null));
+            logTime("storeItemValue", timerStart, System.currentTimeMillis());
+        }
         errCnt = 0;
-        return item;
+        return true;
     }
 
     public List<HistoricItem> getHistItemFilterQuery(FilterCriteria filter, int numberDecimalcount, String table,
@@ -166,8 +186,17 @@ public class JdbcMapper {
                 (filter != null), numberDecimalcount, table, item, item.getName());
         if (table != null) {
             long timerStart = System.currentTimeMillis();
-            List<HistoricItem> result = conf.getDBDAO().doGetHistItemFilterQuery(item, filter, numberDecimalcount,
-                    table, item.getName(), timeZoneProvider.getTimeZone());
+            long bucketSeconds = getDownsampleBucketSeconds(filter, item);
+            List<HistoricItem> result;
+            if (bucketSeconds > 0) {
+                logger.debug("JDBC::getHistItemFilterQuery: downsampling to buckets of {} s using {}", bucketSeconds,
+                        conf.getDownsampleFunction());
+                result = getPage(conf.getDBDAO().doGetHistItemAggregateQuery(item, filter, table, bucketSeconds,
+                        conf.getDownsampleFunction(), timeZoneProvider.getTimeZone()), filter);
+            } else {
+                result = conf.getDBDAO().doGetHistItemFilterQuery(item, filter, numberDecimalcount, table,
+                        item.getName(), timeZoneProvider.getTimeZone());
+            }
             logTime("getHistItemFilterQuery", timerStart, System.currentTimeMillis());
             errCnt = 0;
             return result;
@@ -177,6 +206,81 @@ public class JdbcMapper {
         return null;
     }
 
+    private long getDownsampleBucketSeconds(FilterCriteria filter, Item item) {
+        if (!(item instanceof NumberItem) || !conf.getDBDAO().isNumberAggregatable()) {
+            return 0;
+        }
+        return getDownsampleBucketSeconds(filter, conf.getDownsampleTargetPoints());
+    }
+
+    /**
+     * Returns the width of the time buckets a query is downsampled to, or 0 if the raw values have to be read.
+     *
+     * Downsampling has to be requested by the caller with a page size: A query for a closed time range is downsampled
+     * into at most as many buckets as the page size and the target points allow, and only if a bucket is at least two
+     * seconds long. The bucket width does not depend on the page number, so all pages of a query are cut from the same
+     * buckets and the first page holds all of them. Unpaged queries, e.g. of persistence extensions, always read the
+     * raw values.
+     *
+     * @param filter the query
+     * @param targetPoints the configured maximum number of buckets, 0 disables downsampling
+     * @return the bucket width in seconds, or 0
+     */
+    static long getDownsampleBucketSeconds(FilterCriteria filter, int targetPoints) {
+        if (targetPoints <= 0 || filter == null || filter.getPageSize() == Integer.MAX_VALUE
+                || filter.getBeginDate() == null || filter.getEndDate() == null) {
+            return 0;
+        }
+        long buckets = Math.min(filter.getPageSize(), targetPoints);
+        if (buckets < 2) {
+            return 0;
+        }
+        long rangeSeconds = Duration.between(filter.getBeginDate(), filter.getEndDate()).getSeconds();
+        // buckets are aligned to the epoch, so the range may touch one bucket more than it covers
+        long bucketSeconds = (rangeSeconds + buckets - 2) / (buckets - 1);
+        return bucketSeconds >= 2 ? bucketSeconds : 0;
+    }
+
+    /**
+     * Returns the requested page of the buckets of a downsampled query, which reads all buckets at once.
+     */
+    static <T> List<T> getPage(List<T> buckets, FilterCriteria filter) {
+        long from = (long) filter.getPageNumber() * filter.getPageSize();
+        if (from >= buckets.size()) {
+            return new ArrayList<>();
+        }
+        return buckets.subList((int) from, (int) Math.min(buckets.size(), from + filter.getPageSize()));
+    }
+
+    /***************
+     * BATCH WRITE *
+     ***************/
+    protected void startBatchWriter() {
+        stopBatchWriter();
+        if (conf.getBatchSize() > 0) {
+            logger.debug("JDBC::startBatchWriter: batchSize={}", conf.getBatchSize());
+            JdbcBatchWriter writer = new JdbcBatchWriter(conf);
+            writer.start();
+            batchWriter = writer;
+        }
+    }
+
+    protected void stopBatchWriter() {
+        JdbcBatchWriter writer = batchWriter;
+        if (writer != null) {
+            logger.debug("JDBC::stopBatchWriter");
+            batchWriter = null;
+            writer.stop();
+        }
+    }
+
+    protected void flushBatchWriter() {
+        JdbcBatchWriter writer = batchWriter;
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
     /***********************
      * DATABASE CONNECTION *
      ***********************/
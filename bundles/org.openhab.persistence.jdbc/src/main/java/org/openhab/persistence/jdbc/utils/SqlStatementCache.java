@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Bounded LRU cache of resolved SQL statements, so the statement templates of the DAOs are resolved only once per
+ * item table. Passing the very same SQL string for the same statement also lets the JDBC drivers hit their
+ * per-connection prepared statement caches.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class SqlStatementCache {
+
+    private final Map<String, String> cache;
+
+    public SqlStatementCache(int maxSize) {
+        cache = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * Returns the cached statement for the given key, resolving it with the provider on a cache miss.
+     */
+    public String get(String key, Function<String, String> provider) {
+        return cache.computeIfAbsent(key, provider);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.knowm.yank.Yank;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * Runs the downsampling queries of {@link JdbcDerbyDAO} against an embedded in-memory Derby database.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+public class JdbcDerbyDAOTest {
+    private static final String TABLE = "ITEM0001";
+    private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 0, 0, 0);
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final JdbcDerbyDAO dao = new JdbcDerbyDAO();
+    private final NumberItem item = new NumberItem("item");
+
+    @BeforeEach
+    public void setUp() {
+        Properties properties = new Properties();
+        properties.setProperty("jdbcUrl", "jdbc:derby:memory:jdbcDerbyDAOTest;create=true");
+        properties.setProperty("maximumPoolSize", "1");
+        Yank.setupDefaultConnectionPool(properties);
+        Yank.execute("CREATE TABLE " + TABLE + " (time TIMESTAMP NOT NULL, value DOUBLE, PRIMARY KEY(time))", null);
+        // one value every 10 seconds for 10 minutes: 0, 1, ..., 59
+        for (int i = 0; i < 60; i++) {
+            Yank.execute("INSERT INTO " + TABLE + " (time, value) VALUES (?, ?)",
+                    new Object[] { Timestamp.valueOf(START.plusSeconds(10 * i)), (double) i });
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Yank.execute("DROP TABLE " + TABLE, null);
+        Yank.releaseDefaultConnectionPool();
+    }
+
+    private FilterCriteria filter(Ordering ordering) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName(item.getName());
+        filter.setBeginDate(ZonedDateTime.of(START.minusSeconds(1), ZONE));
+        filter.setEndDate(ZonedDateTime.of(START.plusMinutes(10), ZONE));
+        filter.setOrdering(ordering);
+        filter.setPageSize(10);
+        return filter;
+    }
+
+    @Test
+    public void averagePerBucket() {
+        List<HistoricItem> result = dao.doGetHistItemAggregateQuery(item, filter(Ordering.ASCENDING), TABLE, 60,
+                "AVG", ZONE);
+
+        assertEquals(10, result.size());
+        for (int bucket = 0; bucket < 10; bucket++) {
+            HistoricItem historicItem = result.get(bucket);
+            // each minute holds the values 6 * bucket ... 6 * bucket + 5
+            assertEquals(new DecimalType(6 * bucket + 2.5), historicItem.getState());
+            assertEquals(ZonedDateTime.of(START.plusMinutes(bucket), ZONE).toInstant(),
+                    historicItem.getTimestamp().toInstant());
+        }
+    }
+
+    @Test
+    public void lastPerBucketDescending() {
+        List<HistoricItem> result = dao.doGetHistItemAggregateQuery(item, filter(Ordering.DESCENDING), TABLE, 60,
+                "LAST", ZONE);
+
+        assertEquals(10, result.size());
+        HistoricItem first = result.get(0);
+        assertEquals(new DecimalType(59.0), first.getState());
+        assertEquals(ZonedDateTime.of(START.plusSeconds(590), ZONE).toInstant(), first.getTimestamp().toInstant());
+        assertEquals(new DecimalType(5.0), result.get(9).getState());
+    }
+
+    @Test
+    public void bucketWidthIsNotCachedWithTheStatement() {
+        dao.doGetHistItemAggregateQuery(item, filter(Ordering.ASCENDING), TABLE, 60, "MAX", ZONE);
+        List<HistoricItem> result = dao.doGetHistItemAggregateQuery(item, filter(Ordering.ASCENDING), TABLE, 300,
+                "MAX", ZONE);
+
+        assertEquals(2, result.size());
+        assertEquals(new DecimalType(29.0), result.get(0).getState());
+        assertEquals(new DecimalType(59.0), result.get(1).getState());
+    }
+}
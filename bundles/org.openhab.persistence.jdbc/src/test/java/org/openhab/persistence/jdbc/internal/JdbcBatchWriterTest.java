@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.persistence.jdbc.model.ItemVO;
+
+/**
+ * Tests the queueing, flushing and counting of {@link JdbcBatchWriter}.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+public class JdbcBatchWriterTest {
+    private final List<ItemVO> written = new ArrayList<>();
+    private JdbcBatchWriter writer;
+
+    private JdbcBatchWriter createWriter(int batchSize, int batchQueueSize, BiConsumer<String, List<ItemVO>> store) {
+        JdbcConfiguration conf = new JdbcConfiguration(new HashMap<>(Map.of("url", "jdbc:derby:./testDerby;create=true",
+                "batchSize", Integer.toString(batchSize), "batchQueueSize", Integer.toString(batchQueueSize),
+                "batchFlushInterval", "3600000")));
+        writer = new JdbcBatchWriter(conf, store);
+        return writer;
+    }
+
+    private void write(String tableName, List<ItemVO> values) {
+        synchronized (written) {
+            written.addAll(values);
+        }
+    }
+
+    private ItemVO createValue(String tableName, int value) {
+        ItemVO vo = new ItemVO(tableName, null);
+        vo.setValue(value);
+        vo.setTime(new Timestamp(System.currentTimeMillis()));
+        return vo;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void stopWritesQueuedValues() {
+        JdbcBatchWriter writer = createWriter(10, 10, this::write);
+        writer.start();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(writer.add(createValue("item0001", i)));
+        }
+        assertEquals(3, writer.getQueueDepth());
+
+        writer.stop();
+
+        assertEquals(3, written.size());
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(3, writer.getWrittenCount());
+        assertEquals(0, writer.getDroppedCount());
+    }
+
+    @Test
+    public void failedFlushCountsValuesAsDropped() {
+        JdbcBatchWriter writer = createWriter(10, 10, (tableName, values) -> {
+            if ("item0002".equals(tableName)) {
+                throw new IllegalStateException("table does not exist");
+            }
+            write(tableName, values);
+        });
+        writer.add(createValue("item0001", 1));
+        writer.add(createValue("item0002", 2));
+        writer.add(createValue("item0002", 3));
+
+        writer.flush();
+
+        assertEquals(1, written.size());
+        assertEquals(1, writer.getWrittenCount());
+        assertEquals(2, writer.getDroppedCount());
+        assertEquals(0, writer.getQueueDepth());
+    }
+
+    @Test
+    public void fullQueueIsFlushedByStoringThread() throws InterruptedException {
+        CountDownLatch firstFlushStarted = new CountDownLatch(1);
+        CountDownLatch firstFlushReleased = new CountDownLatch(1);
+        JdbcBatchWriter writer = createWriter(2, 2, (tableName, values) -> {
+            firstFlushStarted.countDown();
+            try {
+                // block the flush thread, so the queue fills up again
+                firstFlushReleased.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            write(tableName, values);
+        });
+        assertTrue(writer.add(createValue("item0001", 1)));
+        assertTrue(writer.add(createValue("item0001", 2)));
+        assertTrue(firstFlushStarted.await(5, TimeUnit.SECONDS));
+        assertTrue(writer.add(createValue("item0001", 3)));
+        assertTrue(writer.add(createValue("item0001", 4)));
+
+        new Thread(() -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            firstFlushReleased.countDown();
+        }).start();
+        // the queue is full: waits for the blocked flush, then flushes itself
+        assertTrue(writer.add(createValue("item0001", 5)));
+
+        writer.stop();
+        assertEquals(5, written.size());
+        assertEquals(0, writer.getDroppedCount());
+    }
+
+    @Test
+    public void valueThatCannotBeQueuedIsDropped() {
+        JdbcBatchWriter writer = createWriter(10, 10, this::write);
+
+        // an interrupted storing thread cannot wait for free space in the queue
+        Thread.currentThread().interrupt();
+        try {
+            assertFalse(writer.add(createValue("item0001", 1)));
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals(1, writer.getDroppedCount());
+        assertEquals(0, writer.getQueuedCount());
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openhab.core.persistence.FilterCriteria;
+
+/**
+ * Tests the selection of the downsampling bucket width by {@link JdbcMapper}.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+public class JdbcMapperTest {
+    private static final ZonedDateTime BEGIN = ZonedDateTime.parse("2021-01-01T00:00:00Z");
+
+    private FilterCriteria filter(int hours, int pageSize, int pageNumber) {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("item");
+        filter.setBeginDate(BEGIN);
+        filter.setEndDate(BEGIN.plusHours(hours));
+        filter.setPageSize(pageSize);
+        filter.setPageNumber(pageNumber);
+        return filter;
+    }
+
+    @Test
+    public void unpagedQueriesAreNotDownsampled() {
+        // like the queries of persistence extensions
+        assertEquals(0, JdbcMapper.getDownsampleBucketSeconds(filter(24, Integer.MAX_VALUE, 0), 100));
+    }
+
+    @Test
+    public void disabledByDefault() {
+        assertEquals(0, JdbcMapper.getDownsampleBucketSeconds(filter(24, 100, 0), 0));
+    }
+
+    @Test
+    public void allPagesAreDownsampledAlike() {
+        assertEquals(873, JdbcMapper.getDownsampleBucketSeconds(filter(24, 100, 1), 100));
+    }
+
+    @Test
+    public void pagesAreCutFromTheBuckets() {
+        List<Integer> buckets = List.of(1, 2, 3, 4, 5);
+        assertEquals(List.of(1, 2, 3, 4, 5), JdbcMapper.getPage(buckets, filter(24, 100, 0)));
+        assertEquals(List.of(), JdbcMapper.getPage(buckets, filter(24, 100, 1)));
+        assertEquals(List.of(3, 4), JdbcMapper.getPage(buckets, filter(24, 2, 1)));
+        assertEquals(List.of(5), JdbcMapper.getPage(buckets, filter(24, 2, 2)));
+    }
+
+    @Test
+    public void openRangesAreNotDownsampled() {
+        FilterCriteria filter = filter(24, 100, 0);
+        filter.setEndDate(null);
+        assertEquals(0, JdbcMapper.getDownsampleBucketSeconds(filter, 100));
+    }
+
+    @Test
+    public void bucketsFitIntoPage() {
+        // 86400 s into at most 100 buckets aligned to the epoch: 99 full buckets cover the range
+        long bucketSeconds = JdbcMapper.getDownsampleBucketSeconds(filter(24, 100, 0), 1000);
+        assertEquals(873, bucketSeconds);
+        assertEquals(bucketSeconds, JdbcMapper.getDownsampleBucketSeconds(filter(24, 1000, 0), 100));
+    }
+
+    @Test
+    public void shortBucketsAreNotUsed() {
+        // 3600 s into 5000 buckets would be 1 s each
+        assertEquals(0, JdbcMapper.getDownsampleBucketSeconds(filter(1, 5000, 0), 5000));
+        // 3600 s into 1000 buckets are 4 s each
+        assertEquals(4, JdbcMapper.getDownsampleBucketSeconds(filter(1, 1000, 0), 1000));
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jpa.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.persistence.jpa.internal.model.JpaPersistentItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind queue of the JPA persistence service.
+ *
+ * Entities are put into a bounded queue by the storing thread. The queue is flushed by a dedicated thread whenever
+ * 'batchSize' entities are pending or 'batchFlushInterval' milliseconds have passed. All entities of a flush are
+ * persisted in a single transaction, which OpenJPA sends as batched JDBC statements. The EntityManager is kept open
+ * between flushes and only cleared, so its connection and prepared statements are reused.
+ *
+ * If the queue is full, the storing thread flushes it itself. Only if it is still full afterwards, the entity is
+ * dropped and counted. The entities of a transaction that fails are counted as dropped as well. They are not queued
+ * again, as an entity the database rejects would block the queue for good.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class JpaBatchWriter {
+    private static final long QUEUE_OFFER_TIMEOUT_MILLIS = 500;
+    private static final String THREADPOOL_NAME = "jpaPersistenceService";
+
+    private final Logger logger = LoggerFactory.getLogger(JpaBatchWriter.class);
+
+    private final Supplier<@Nullable EntityManagerFactory> entityManagerFactory;
+    private final int batchSize;
+    private final long flushInterval;
+    private final BlockingQueue<JpaPersistentItem> queue;
+    private final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory(THREADPOOL_NAME));
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    // only used while holding the lock of this object
+    private @Nullable EntityManager entityManager;
+
+    public JpaBatchWriter(Supplier<@Nullable EntityManagerFactory> entityManagerFactory, int batchSize, int queueSize,
+            long flushInterval) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushInterval = Math.max(1, flushInterval);
+        this.queue = new ArrayBlockingQueue<>(Math.max(this.batchSize, queueSize));
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::scheduledFlush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        logger.debug("JPA batch writer started: batchSize={} queueSize={} flushInterval={} ms", batchSize,
+                queue.remainingCapacity(), flushInterval);
+    }
+
+    /**
+     * Stops the flush thread, writes all entities that are still queued and closes the EntityManager.
+     */
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(QUEUE_OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                logger.debug("JPA batch writer: flush thread did not terminate in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            flush();
+            closeEntityManager();
+        }
+        logger.debug("JPA batch writer stopped: queued={} written={} dropped={}", queuedCount.get(),
+                writtenCount.get(), droppedCount.get());
+    }
+
+    /**
+     * Adds an entity to the queue.
+     *
+     * @return true if the entity was queued, false if it had to be dropped
+     */
+    public boolean add(JpaPersistentItem item) {
+        boolean queued = offer(item);
+        if (!queued) {
+            logger.debug("JPA batch writer: queue is full, flushing on storing thread. Consider increasing "
+                    + "batchQueueSize");
+            flush();
+            queued = offer(item);
+        }
+        if (!queued) {
+            long dropped = droppedCount.incrementAndGet();
+            logger.warn("JPA batch writer: queue is still full, dropping item (dropped so far: {})", dropped);
+            return false;
+        }
+        queuedCount.incrementAndGet();
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::scheduledFlush);
+            } catch (RuntimeException e) {
+                // scheduler is shut down, entities are written by stop()
+                flushRequested.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Persists all queued entities in one transaction. Called by the flush thread, by storing threads on overflow and
+     * before queries, so that the latter see all stored values.
+     */
+    public synchronized void flush() {
+        flushRequested.set(false);
+        if (queue.isEmpty()) {
+            return;
+        }
+        EntityManager em = getEntityManager();
+        if (em == null) {
+            logger.debug("JPA batch writer: no EntityManagerFactory, keeping {} items queued", queue.size());
+            return;
+        }
+        List<JpaPersistentItem> pending = new ArrayList<>(queue.size());
+        queue.drainTo(pending);
+
+        try {
+            // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
+            em.getTransaction().begin();
+            for (JpaPersistentItem item : pending) {
+                em.persist(item);
+            }
+            em.getTransaction().commit();
+            // detach the written entities, so the persistence context does not grow
+            em.clear();
+            writtenCount.addAndGet(pending.size());
+            logger.debug("JPA batch writer: wrote {} items", pending.size());
+        } catch (RuntimeException e) {
+            long dropped = droppedCount.addAndGet(pending.size());
+            logger.error("JPA batch writer: error on persisting {} items! Rolling back! (dropped so far: {})",
+                    pending.size(), dropped, e);
+            try {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+            } finally {
+                // the EntityManager might be unusable after an error, a new one is created with the next flush
+                closeEntityManager();
+            }
+        }
+    }
+
+    public long getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private @Nullable EntityManager getEntityManager() {
+        EntityManager em = entityManager;
+        if (em == null || !em.isOpen()) {
+            EntityManagerFactory factory = entityManagerFactory.get();
+            if (factory == null) {
+                return null;
+            }
+            em = factory.createEntityManager();
+            entityManager = em;
+        }
+        return em;
+    }
+
+    private void closeEntityManager() {
+        EntityManager em = entityManager;
+        entityManager = null;
+        if (em != null && em.isOpen()) {
+            try {
+                em.close();
+            } catch (RuntimeException e) {
+                logger.debug("JPA batch writer: error on closing EntityManager: {}", e.getMessage());
+            }
+        }
+    }
+
+    private boolean offer(JpaPersistentItem item) {
+        try {
+            return queue.offer(item, QUEUE_OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // an unhandled exception would stop the scheduled flushing for good
+            logger.warn("JPA batch writer: flushing queued items failed unexpectedly, retrying with next flush", e);
+        }
+    }
+}
@@ -32,6 +32,13 @@ public class JpaConfiguration {
     private static final String CFG_USERNAME = "user";
     private static final String CFG_PASSWORD = "password";
     private static final String CFG_SYNCMAPPING = "syncmappings";
+    private static final String CFG_BATCH_SIZE = "batchSize";
+    private static final String CFG_BATCH_QUEUE_SIZE = "batchQueueSize";
+    private static final String CFG_BATCH_FLUSH_INTERVAL = "batchFlushInterval";
+
+    public static final int DEFAULT_BATCH_SIZE = 0;
+    public static final int DEFAULT_BATCH_QUEUE_SIZE = 10000;
+    public static final int DEFAULT_BATCH_FLUSH_INTERVAL = 1000;
 
     public static boolean isInitialized = false;
 
@@ -40,6 +47,9 @@ public class JpaConfiguration {
     public final String dbUserName;
     public final String dbPassword;
     public final String dbSyncMapping;
+    public final int batchSize;
+    public final int batchQueueSize;
+    public final int batchFlushInterval;
 
     public JpaConfiguration(final Map<String, Object> properties) {
         logger.debug("Update config...");
@@ -77,7 +87,26 @@ public class JpaConfiguration {
         }
         dbSyncMapping = (String) properties.get(CFG_SYNCMAPPING);
 
+        batchSize = getInt(properties, CFG_BATCH_SIZE, DEFAULT_BATCH_SIZE);
+        batchQueueSize = getInt(properties, CFG_BATCH_QUEUE_SIZE, DEFAULT_BATCH_QUEUE_SIZE);
+        batchFlushInterval = getInt(properties, CFG_BATCH_FLUSH_INTERVAL, DEFAULT_BATCH_FLUSH_INTERVAL);
+        logger.debug("batchSize: {}, batchQueueSize: {}, batchFlushInterval: {}", batchSize, batchQueueSize,
+                batchFlushInterval);
+
         isInitialized = true;
         logger.debug("Update config... done");
     }
+
+    private int getInt(Map<String, Object> properties, String key, int defaultValue) {
+        Object value = properties.get(key);
+        if (value == null || value.toString().isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for {} in jpa.cfg, using default {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
 }
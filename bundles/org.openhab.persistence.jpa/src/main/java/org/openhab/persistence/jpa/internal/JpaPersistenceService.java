@@ -12,6 +12,7 @@
  */
 package org.openhab.persistence.jpa.internal;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -23,7 +24,7 @@ import java.util.Set;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
-import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -57,12 +58,20 @@ import org.slf4j.LoggerFactory;
 @Component(service = { PersistenceService.class,
         QueryablePersistenceService.class }, configurationPid = "org.openhab.jpa", configurationPolicy = ConfigurationPolicy.REQUIRE)
 public class JpaPersistenceService implements QueryablePersistenceService {
+    // bounds used for queries without begin or end date, within the range of the timestamp column OpenJPA creates:
+    // TIMESTAMP on Derby and PostgreSQL, DATETIME (1000-9999) on MySQL. A MySQL TIMESTAMP column (1970-2038) is not
+    // supported.
+    private static final Date MIN_DATE = Date.from(Instant.parse("1900-01-01T00:00:00Z"));
+    private static final Date MAX_DATE = Date.from(Instant.parse("9999-12-31T00:00:00Z"));
+
     private final Logger logger = LoggerFactory.getLogger(JpaPersistenceService.class);
 
     private final ItemRegistry itemRegistry;
 
     private @Nullable EntityManagerFactory emf = null;
 
+    private @Nullable JpaBatchWriter batchWriter;
+
     private @NonNullByDefault({}) JpaConfiguration config;
 
     @Activate
@@ -75,7 +84,7 @@ public class JpaPersistenceService implements QueryablePersistenceService {
      *
      * @return EntityManagerFactory
      */
-    protected @Nullable EntityManagerFactory getEntityManagerFactory() {
+    protected synchronized @Nullable EntityManagerFactory getEntityManagerFactory() {
         if (emf == null) {
             emf = newEntityManagerFactory();
         }
@@ -86,6 +95,12 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     public void activate(BundleContext context, Map<String, Object> properties) {
         logger.debug("Activating jpa persistence service");
         config = new JpaConfiguration(properties);
+        if (config.batchSize > 0) {
+            JpaBatchWriter writer = new JpaBatchWriter(this::getEntityManagerFactory, config.batchSize,
+                    config.batchQueueSize, config.batchFlushInterval);
+            writer.start();
+            batchWriter = writer;
+        }
     }
 
     /**
@@ -94,6 +109,11 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     @Deactivate
     public void deactivate() {
         logger.debug("Deactivating jpa persistence service");
+        JpaBatchWriter writer = batchWriter;
+        batchWriter = null;
+        if (writer != null) {
+            writer.stop();
+        }
         closeEntityManagerFactory();
     }
 
@@ -142,6 +162,14 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         pItem.setRealName(item.getName());
         pItem.setTimestamp(new Date());
 
+        JpaBatchWriter writer = batchWriter;
+        if (writer != null) {
+            if (writer.add(pItem)) {
+                logger.debug("Storing item...queued");
+            }
+            return;
+        }
+
         EntityManager em = getEntityManagerFactory().createEntityManager();
         try {
             logger.debug("Persisting item...");
@@ -177,62 +205,43 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         String itemName = filter.getItemName();
         Item item = getItemFromRegistry(itemName);
 
-        String sortOrder;
-        if (filter.getOrdering() == Ordering.ASCENDING) {
-            sortOrder = "ASC";
-        } else {
-            sortOrder = "DESC";
+        if (item == null) {
+            return Collections.emptyList();
         }
 
-        boolean hasBeginDate = false;
-        boolean hasEndDate = false;
-        String queryString = "SELECT n FROM " + JpaPersistentItem.class.getSimpleName()
-                + " n WHERE n.realName = :itemName";
-        if (filter.getBeginDate() != null) {
-            queryString += " AND n.timestamp >= :beginDate";
-            hasBeginDate = true;
+        JpaBatchWriter writer = batchWriter;
+        if (writer != null) {
+            // write pending values first, so that they are part of the result
+            writer.flush();
         }
-        if (filter.getEndDate() != null) {
-            queryString += " AND n.timestamp <= :endDate";
-            hasEndDate = true;
-        }
-        queryString += " ORDER BY n.timestamp " + sortOrder;
 
-        logger.debug("The query: {}", queryString);
+        String queryName = filter.getOrdering() == Ordering.ASCENDING ? JpaPersistentItem.QUERY_HISTORY_ASC
+                : JpaPersistentItem.QUERY_HISTORY_DESC;
+        Date beginDate = filter.getBeginDate() != null ? Date.from(filter.getBeginDate().toInstant()) : MIN_DATE;
+        Date endDate = filter.getEndDate() != null ? Date.from(filter.getEndDate().toInstant()) : MAX_DATE;
+
+        logger.debug("The query: {} ({} - {})", queryName, beginDate, endDate);
 
         EntityManager em = getEntityManagerFactory().createEntityManager();
         try {
-            // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
-            em.getTransaction().begin();
-
-            logger.debug("Creating query...");
-            Query query = em.createQuery(queryString);
+            // reading does not need a transaction
+            TypedQuery<JpaPersistentItem> query = em.createNamedQuery(queryName, JpaPersistentItem.class);
             query.setParameter("itemName", item.getName());
-            if (hasBeginDate) {
-                query.setParameter("beginDate", Date.from(filter.getBeginDate().toInstant()));
-            }
-            if (hasEndDate) {
-                query.setParameter("endDate", Date.from(filter.getEndDate().toInstant()));
-            }
-
+            query.setParameter("beginDate", beginDate);
+            query.setParameter("endDate", endDate);
             query.setFirstResult(filter.getPageNumber() * filter.getPageSize());
             query.setMaxResults(filter.getPageSize());
-            logger.debug("Creating query...done");
 
             logger.debug("Retrieving result list...");
-            @SuppressWarnings("unchecked")
             List<JpaPersistentItem> result = query.getResultList();
             logger.debug("Retrieving result list...done");
 
             List<HistoricItem> historicList = JpaHistoricItem.fromResultList(result, item);
             logger.debug("{}", String.format("Convert to HistoricItem: %d", historicList.size()));
 
-            em.getTransaction().commit();
-
             return historicList;
         } catch (Exception e) {
             logger.error("Error on querying database!", e);
-            em.getTransaction().rollback();
         } finally {
             em.close();
         }
@@ -264,6 +273,10 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             logger.warn("You are settings openjpa.jdbc.SynchronizeMappings, I hope you know what you're doing!");
             properties.put("openjpa.jdbc.SynchronizeMappings", config.dbSyncMapping);
         }
+        if (config.batchSize > 0) {
+            // send the inserts of a batch as batched JDBC statements
+            properties.put("openjpa.jdbc.DBDictionary", "batchLimit=" + config.batchSize);
+        }
 
         EntityManagerFactory fac = Persistence.createEntityManagerFactory(getPersistenceUnitName(), properties);
         logger.debug("Creating EntityManagerFactory...done");
@@ -22,6 +22,8 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
@@ -39,8 +41,22 @@ import org.openhab.core.types.UnDefType;
 
 @Entity
 @Table(name = "HISTORIC_ITEM")
+@NamedQueries({
+        @NamedQuery(name = JpaPersistentItem.QUERY_HISTORY_ASC, query = "SELECT n FROM JpaPersistentItem n "
+                + "WHERE n.realName = :itemName AND n.timestamp >= :beginDate AND n.timestamp <= :endDate "
+                + "ORDER BY n.timestamp ASC"),
+        @NamedQuery(name = JpaPersistentItem.QUERY_HISTORY_DESC, query = "SELECT n FROM JpaPersistentItem n "
+                + "WHERE n.realName = :itemName AND n.timestamp >= :beginDate AND n.timestamp <= :endDate "
+                + "ORDER BY n.timestamp DESC") })
 public class JpaPersistentItem implements HistoricItem {
 
+    /**
+     * Named queries for the history of an item, parsed once by the EntityManagerFactory and cached as SQL. Both take
+     * the parameters itemName, beginDate and endDate.
+     */
+    public static final String QUERY_HISTORY_ASC = "JpaPersistentItem.historyAsc";
+    public static final String QUERY_HISTORY_DESC = "JpaPersistentItem.historyDesc";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.NextPreviousType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.PlayPauseType;
+import org.openhab.core.library.types.PointType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.RawType;
+import org.openhab.core.library.types.RewindFastforwardType;
+import org.openhab.core.library.types.StopMoveType;
+import org.openhab.core.library.types.StringListType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.types.UpDownType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.TypeParser;
+import org.openhab.core.types.UnDefType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compact binary encoding of a {@link MapDbItem}, used instead of JSON.
+ *
+ * The encoding consists of a format version, the timestamp, the name, the type of the state and the state as full
+ * string. The type is written as a one byte code of the core state types. Classes are not loaded by name, as a class
+ * of another bundle is not visible to this one.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemSerializer {
+    private static final byte FORMAT_VERSION = 1;
+
+    // the type code is the index in this list plus one, so new types must only be appended
+    private static final List<Class<? extends State>> STATE_TYPES = List.of(DecimalType.class, QuantityType.class,
+            OnOffType.class, OpenClosedType.class, PercentType.class, HSBType.class, StringType.class,
+            DateTimeType.class, PointType.class, UpDownType.class, StopMoveType.class, PlayPauseType.class,
+            RewindFastforwardType.class, NextPreviousType.class, RawType.class, StringListType.class,
+            UnDefType.class);
+
+    private final Logger logger = LoggerFactory.getLogger(MapDbItemSerializer.class);
+
+    public byte[] serialize(MapDbItem item) throws IOException {
+        State state = item.getState();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(item.getTimestamp().toInstant().toEpochMilli());
+            writeString(out, item.getName());
+            int typeIndex = STATE_TYPES.indexOf(state.getClass());
+            if (typeIndex < 0) {
+                throw new IOException("unsupported state type " + state.getClass().getName());
+            }
+            out.writeByte(typeIndex + 1);
+            writeString(out, state.toFullString());
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the item, or null if the bytes do not contain a valid item
+     */
+    public @Nullable MapDbItem deserialize(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                logger.warn("Couldn't deserialize item: unknown format version {}", version);
+                return null;
+            }
+            long timestamp = in.readLong();
+            String name = readString(in);
+            int typeCode = in.readUnsignedByte();
+            if (typeCode < 1 || typeCode > STATE_TYPES.size()) {
+                logger.warn("Couldn't deserialize item '{}': unknown state type {}", name, typeCode);
+                return null;
+            }
+            Class<? extends State> type = STATE_TYPES.get(typeCode - 1);
+            String value = readString(in);
+            State state = TypeParser.parseState(List.of(type), value);
+            if (state == null) {
+                logger.warn("Couldn't deserialize state '{}' of item '{}' as {}", value, name, type.getSimpleName());
+                return null;
+            }
+
+            MapDbItem item = new MapDbItem();
+            item.setName(name);
+            item.setState(state);
+            item.setTimestamp(new Date(timestamp));
+            return item;
+        } catch (IOException e) {
+            logger.warn("Couldn't deserialize item: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        // not writeUTF, as it is limited to 64 KB, which string states may exceed
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
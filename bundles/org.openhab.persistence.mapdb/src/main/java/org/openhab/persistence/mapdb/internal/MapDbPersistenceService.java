@@ -24,16 +24,22 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.mapdb.BTreeKeySerializer;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
 import org.openhab.core.OpenHAB;
 import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
@@ -43,6 +49,7 @@ import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
+import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -60,31 +67,62 @@ import com.google.gson.GsonBuilder;
  * @author Martin Kühl - Port to 3.x
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
+@Component(service = { PersistenceService.class,
+        QueryablePersistenceService.class }, configurationPid = "org.openhab.mapdb", //
+        property = Constants.SERVICE_PID + "=org.openhab.mapdb")
+@ConfigurableService(category = "persistence", label = "MapDB Persistence Service", description_uri = MapDbPersistenceService.CONFIG_URI)
 public class MapDbPersistenceService implements QueryablePersistenceService {
 
+    protected static final String CONFIG_URI = "persistence:mapdb";
+    private static final String COMMIT_INTERVAL_PARAM = "commitInterval";
+    private static final String COMMIT_COUNT_PARAM = "commitCount";
+    private static final String STORE_MODE_PARAM = "storeMode";
+    private static final String STORE_MODE_MMAP = "mmap";
+    private static final long DEFAULT_COMMIT_INTERVAL = 1000;
+    private static final int DEFAULT_COMMIT_COUNT = 100;
+
     private static final String SERVICE_ID = "mapdb";
     private static final String SERVICE_LABEL = "MapDB";
     private static final Path DB_DIR = new File(OpenHAB.getUserDataFolder(), "persistence").toPath().resolve("mapdb");
     private static final Path BACKUP_DIR = DB_DIR.resolve("backup");
     private static final String DB_FILE_NAME = "storage.mapdb";
+    // states were stored as JSON strings before, these are converted once into the binary store
+    private static final String JSON_STORE_NAME = "itemStore";
+    private static final String STORE_NAME = "itemStates";
 
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
-    private final ExecutorService threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(getClass().getSimpleName());
 
     /** holds the local instance of the MapDB database */
 
     private @NonNullByDefault({}) DB db;
-    private @NonNullByDefault({}) Map<String, String> map;
+    private @NonNullByDefault({}) Map<String, byte[]> map;
 
     private transient Gson mapper = new GsonBuilder().registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
             .create();
+    private final MapDbItemSerializer serializer = new MapDbItemSerializer();
+
+    private long commitInterval = DEFAULT_COMMIT_INTERVAL;
+    private int commitCount = DEFAULT_COMMIT_COUNT;
+    private boolean mmap = false;
+
+    /** number of updates since the last commit */
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
 
     @Activate
-    public void activate() {
+    public void activate(final @Nullable Map<String, Object> config) {
         logger.debug("MapDB persistence service is being activated");
 
+        if (config != null) {
+            commitInterval = getConfigLongValue(config, COMMIT_INTERVAL_PARAM, DEFAULT_COMMIT_INTERVAL);
+            commitCount = (int) Math.max(1, getConfigLongValue(config, COMMIT_COUNT_PARAM, DEFAULT_COMMIT_COUNT));
+            mmap = STORE_MODE_MMAP.equalsIgnoreCase(String.valueOf(config.get(STORE_MODE_PARAM)).trim());
+        }
+        logger.debug("MapDB commitInterval={} ms, commitCount={}, mmap={}", commitInterval, commitCount, mmap);
+
         try {
             Files.createDirectories(DB_DIR);
         } catch (IOException e) {
@@ -95,8 +133,7 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
         File dbFile = DB_DIR.resolve(DB_FILE_NAME).toFile();
         try {
-            db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-            map = db.createTreeMap("itemStore").makeOrGet();
+            openDB(dbFile);
         } catch (RuntimeException re) {
             Throwable cause = re.getCause();
             if (cause instanceof ClassNotFoundException) {
@@ -128,8 +165,7 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
                     return;
                 }
 
-                db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-                map = db.createTreeMap("itemStore").makeOrGet();
+                openDB(dbFile);
             } else {
                 logger.warn("Failed to create or open the MapDB: {}", re.getMessage());
                 logger.warn("MapDB persistence service activation has failed.");
@@ -139,13 +175,76 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
     }
 
     @Deactivate
-    public void deactivate() {
+    public synchronized void deactivate() {
         logger.debug("MapDB persistence service deactivated");
         if (db != null) {
+            commitPendingUpdates();
             db.close();
         }
     }
 
+    private void openDB(File dbFile) {
+        DBMaker<?> maker = DBMaker.newFileDB(dbFile).closeOnJvmShutdown();
+        if (mmap) {
+            // the file is mapped into memory outside of the heap, falls back to file access on 32 bit JVMs
+            maker.mmapFileEnableIfSupported();
+        }
+        db = maker.make();
+        map = db.createTreeMap(STORE_NAME).keySerializer(BTreeKeySerializer.STRING)
+                .valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        convertJsonStore();
+    }
+
+    /**
+     * Converts the states of a store written by a former version of this service from JSON into the binary encoding.
+     *
+     * The JSON store is kept, so the former version can still be started again. Only states that are newer than the
+     * converted ones are taken from it, e.g. those the former version stored after a downgrade.
+     */
+    private void convertJsonStore() {
+        if (!db.exists(JSON_STORE_NAME)) {
+            return;
+        }
+        Map<String, String> jsonMap = db.getTreeMap(JSON_STORE_NAME);
+        int converted = 0;
+        for (Map.Entry<String, String> entry : jsonMap.entrySet()) {
+            Optional<MapDbItem> item = deserializeJson(entry.getValue());
+            if (item.isPresent() && isNewer(item.get(), map.get(entry.getKey()))) {
+                Optional<byte[]> data = serialize(item.get());
+                if (data.isPresent()) {
+                    map.put(entry.getKey(), data.get());
+                    converted++;
+                }
+            }
+        }
+        if (converted > 0) {
+            db.commit();
+            logger.info("Converted {} MapDB item states from JSON into binary encoding", converted);
+        }
+    }
+
+    private boolean isNewer(MapDbItem item, byte @Nullable [] data) {
+        if (data == null) {
+            return true;
+        }
+        Optional<MapDbItem> stored = deserialize(data);
+        return stored.isEmpty() || item.getTimestamp().after(stored.get().getTimestamp());
+    }
+
+    private long getConfigLongValue(Map<String, Object> config, String key, long defaultValue) {
+        Object value = config.get(key);
+        if (value instanceof Number) {
+            return Math.max(0, ((Number) value).longValue());
+        } else if (value instanceof String && !((String) value).isBlank()) {
+            try {
+                return Math.max(0, Long.parseLong(((String) value).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} '{}', using {}", key, value, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     @Override
     public String getId() {
         return SERVICE_ID;
@@ -182,30 +281,47 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         mItem.setName(localAlias);
         mItem.setState(state);
         mItem.setTimestamp(new Date());
-        String json = serialize(mItem);
-        map.put(localAlias, json);
-        commit();
-        if (logger.isDebugEnabled()) {
-            logger.debug("Stored '{}' with state '{}' as '{}' in MapDB database", localAlias, state, json);
+        Optional<byte[]> data = serialize(mItem);
+        if (data.isEmpty()) {
+            return;
         }
+        map.put(localAlias, data.get());
+        commit();
+        logger.debug("Stored '{}' with state '{}' in MapDB database", localAlias, state);
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        byte[] data = map.get(filter.getItemName());
+        if (data == null) {
             return List.of();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        Optional<MapDbItem> item = deserialize(data);
         return item.isPresent() ? List.of(item.get()) : List.of();
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
+    private Optional<byte[]> serialize(MapDbItem item) {
+        try {
+            return Optional.of(serializer.serialize(item));
+        } catch (IOException e) {
+            logger.warn("Couldn't serialize item '{}': {}", item.getName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<MapDbItem> deserialize(byte[] data) {
+        MapDbItem item = serializer.deserialize(data);
+        if (item == null) {
+            return Optional.empty();
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Deserialized '{}' with state '{}'", item.getName(), item.getState());
+        }
+
+        return Optional.of(item);
     }
 
     @SuppressWarnings("null")
-    private Optional<MapDbItem> deserialize(String json) {
+    private Optional<MapDbItem> deserializeJson(String json) {
         MapDbItem item = mapper.<MapDbItem> fromJson(json, MapDbItem.class);
         if (item == null || !item.isValid()) {
             logger.warn("Deserialized invalid item: {}", item);
@@ -217,8 +333,31 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         return Optional.of(item);
     }
 
+    /**
+     * Requests a commit of the stored updates. Updates are committed together once 'commitCount' updates are pending
+     * or 'commitInterval' milliseconds after the first pending update, whatever comes first.
+     */
     private void commit() {
-        threadPool.submit(() -> db.commit());
+        int pending = pendingUpdates.incrementAndGet();
+        if (commitInterval == 0 || pending == commitCount) {
+            scheduler.execute(this::commitPendingUpdates);
+        } else if (commitScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::commitPendingUpdates, commitInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void commitPendingUpdates() {
+        commitScheduled.set(false);
+        int pending = pendingUpdates.getAndSet(0);
+        if (pending == 0 || db == null || db.isClosed()) {
+            return;
+        }
+        try {
+            db.commit();
+            logger.trace("Committed {} updates to MapDB database", pending);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to commit {} updates to MapDB database: {}", pending, e.getMessage());
+        }
     }
 
     private static <T> Stream<T> streamOptional(Optional<T> opt) {
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.MapDbItemSerializer;
+
+/**
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemSerializerTest {
+    private MapDbItemSerializer serializer = new MapDbItemSerializer();
+
+    @ParameterizedTest
+    @MethodSource
+    public void serializeDeserializeRoundtripShouldRecreateTheItem(State state) throws IOException {
+        MapDbItem item = new MapDbItem();
+        item.setName("item");
+        item.setState(state);
+        item.setTimestamp(new Date(1234567890L));
+
+        MapDbItem actual = Objects.requireNonNull(serializer.deserialize(serializer.serialize(item)));
+        assertThat(actual.getName(), is(equalTo("item")));
+        assertThat(actual.getState(), is(equalTo(state)));
+        assertThat(actual.getTimestamp(), is(equalTo(item.getTimestamp())));
+    }
+
+    public static Stream<State> serializeDeserializeRoundtripShouldRecreateTheItem() {
+        return Stream.of(DecimalType.ZERO, new DecimalType(1.123), HSBType.fromRGB(11, 22, 33), OnOffType.ON,
+                PercentType.valueOf("99.999"), QuantityType.valueOf("1 kW"),
+                new QuantityType<>(new BigDecimal("21.23"), SIUnits.CELSIUS), StringType.valueOf(""),
+                StringType.valueOf("@@@###   @@@"), StringType.valueOf("x".repeat(70000)), UnDefType.UNDEF);
+    }
+
+    @Test
+    public void serializeUnsupportedStateTypeShouldFail() {
+        MapDbItem item = new MapDbItem();
+        item.setName("item");
+        item.setState(new CustomState());
+        item.setTimestamp(new Date(1234567890L));
+
+        assertThrows(IOException.class, () -> serializer.serialize(item));
+    }
+
+    @Test
+    public void deserializeInvalidDataShouldReturnNull() {
+        assertThat(serializer.deserialize(new byte[0]), is(nullValue()));
+        assertThat(serializer.deserialize(new byte[] { 1, 0, 0 }), is(nullValue()));
+        assertThat(serializer.deserialize(new byte[] { 2, 0, 0, 0, 0, 0, 0, 0, 0 }), is(nullValue()));
+    }
+
+    private static class CustomState implements State {
+        @Override
+        public String format(String pattern) {
+            return toFullString();
+        }
+
+        @Override
+        public String toFullString() {
+            return "custom";
+        }
+    }
+}
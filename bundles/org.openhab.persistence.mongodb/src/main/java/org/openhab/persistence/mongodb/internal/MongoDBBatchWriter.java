@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.common.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
+
+/**
+ * Write-behind queue of the MongoDB persistence service.
+ *
+ * Documents are put into a bounded queue by the storing thread. The queue is flushed by a dedicated thread as one
+ * unordered bulk insert whenever 'batchSize' documents are pending or 'batchFlushInterval' milliseconds have passed.
+ * Unordered bulk inserts let the server apply the documents in parallel and do not stop at the first failing document.
+ *
+ * If the queue is full, the storing thread flushes it itself. Only if it is still full afterwards, the document is
+ * dropped and counted.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBBatchWriter {
+    private static final long QUEUE_OFFER_TIMEOUT_MILLIS = 500;
+    private static final String THREADPOOL_NAME = "mongodbPersistenceService";
+
+    private final Logger logger = LoggerFactory.getLogger(MongoDBBatchWriter.class);
+
+    private final DBCollection collection;
+    private final WriteConcern writeConcern;
+    private final int batchSize;
+    private final long flushInterval;
+    private final BlockingQueue<DBObject> queue;
+    private final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(new NamedThreadFactory(THREADPOOL_NAME));
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    public MongoDBBatchWriter(DBCollection collection, WriteConcern writeConcern, int batchSize, int queueSize,
+            long flushInterval) {
+        this.collection = collection;
+        this.writeConcern = writeConcern;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushInterval = Math.max(1, flushInterval);
+        this.queue = new ArrayBlockingQueue<>(Math.max(this.batchSize, queueSize));
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::scheduledFlush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        logger.debug("MongoDB batch writer started: batchSize={} queueSize={} flushInterval={} ms", batchSize,
+                queue.remainingCapacity(), flushInterval);
+    }
+
+    /**
+     * Stops the flush thread and writes all documents that are still queued.
+     */
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(QUEUE_OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                logger.debug("MongoDB batch writer: flush thread did not terminate in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        logger.debug("MongoDB batch writer stopped: queued={} written={} dropped={}", queuedCount.get(),
+                writtenCount.get(), droppedCount.get());
+    }
+
+    /**
+     * Adds a document to the queue.
+     *
+     * @return true if the document was queued, false if it had to be dropped
+     */
+    public boolean add(DBObject document) {
+        boolean queued = offer(document);
+        if (!queued) {
+            logger.debug("MongoDB batch writer: queue is full, flushing on storing thread. Consider increasing "
+                    + "batchQueueSize");
+            flush();
+            queued = offer(document);
+        }
+        if (!queued) {
+            long dropped = droppedCount.incrementAndGet();
+            logger.warn("MongoDB batch writer: queue is still full, dropping document (dropped so far: {})", dropped);
+            return false;
+        }
+        queuedCount.incrementAndGet();
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::scheduledFlush);
+            } catch (RuntimeException e) {
+                // scheduler is shut down, documents are written by stop()
+                flushRequested.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes all queued documents as one unordered bulk insert. Called by the flush thread, by storing threads on
+     * overflow and before queries, so that the latter see all stored values.
+     */
+    public synchronized void flush() {
+        flushRequested.set(false);
+        if (queue.isEmpty()) {
+            return;
+        }
+        List<DBObject> pending = new ArrayList<>(queue.size());
+        queue.drainTo(pending);
+
+        BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+        for (DBObject document : pending) {
+            bulk.insert(document);
+        }
+        try {
+            bulk.execute(writeConcern);
+            writtenCount.addAndGet(pending.size());
+            logger.debug("MongoDB batch writer: wrote {} documents", pending.size());
+        } catch (BulkWriteException e) {
+            // with an unordered bulk insert, all documents without an error were written
+            int failed = e.getWriteErrors().size();
+            writtenCount.addAndGet(pending.size() - failed);
+            long dropped = droppedCount.addAndGet(failed);
+            logger.warn("MongoDB batch writer: {} of {} documents could not be written (dropped so far: {}): {}",
+                    failed, pending.size(), dropped, e.getMessage());
+        } catch (MongoException e) {
+            // not queued again, documents the database rejects would block the queue for good
+            long dropped = droppedCount.addAndGet(pending.size());
+            logger.warn("MongoDB batch writer: writing {} documents failed, dropping them (dropped so far: {}): {}",
+                    pending.size(), dropped, e.getMessage());
+        }
+    }
+
+    public long getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private boolean offer(DBObject document) {
+        try {
+            return queue.offer(document, QUEUE_OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // an unhandled exception would stop the scheduled flushing for good
+            logger.warn("MongoDB batch writer: flushing queued documents failed unexpectedly, retrying with next flush",
+                    e);
+        }
+    }
+}
@@ -65,6 +65,8 @@ import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientURI;
+import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
 
 /**
  * This is the implementation of the MongoDB {@link PersistenceService}.
@@ -82,18 +84,32 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
     private static final String FIELD_TIMESTAMP = "timestamp";
     private static final String FIELD_VALUE = "value";
 
+    private static final DBObject QUERY_PROJECTION = new BasicDBObject(FIELD_ID, 0).append(FIELD_TIMESTAMP, 1)
+            .append(FIELD_VALUE, 1);
+
     private final Logger logger = LoggerFactory.getLogger(MongoDBPersistenceService.class);
 
     private @NonNullByDefault({}) String url;
     private @NonNullByDefault({}) String db;
     private @NonNullByDefault({}) String collection;
 
+    private static final int DEFAULT_BATCH_SIZE = 0;
+    private static final int DEFAULT_BATCH_QUEUE_SIZE = 10000;
+    private static final int DEFAULT_BATCH_FLUSH_INTERVAL = 1000;
+
+    private WriteConcern writeConcern = WriteConcern.ACKNOWLEDGED;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int batchQueueSize = DEFAULT_BATCH_QUEUE_SIZE;
+    private int batchFlushInterval = DEFAULT_BATCH_FLUSH_INTERVAL;
+    private boolean dropLegacyIndex = false;
+
     private boolean initialized = false;
 
     protected final ItemRegistry itemRegistry;
 
     private @NonNullByDefault({}) MongoClient cl;
     private @NonNullByDefault({}) DBCollection mongoCollection;
+    private @Nullable MongoDBBatchWriter batchWriter;
 
     @Activate
     public MongoDBPersistenceService(final @Reference ItemRegistry itemRegistry) {
@@ -122,6 +138,24 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             return;
         }
 
+        // settings removed from the configuration return to their defaults
+        writeConcern = WriteConcern.ACKNOWLEDGED;
+        String writeConcernName = (String) config.get("writeConcern");
+        if (writeConcernName != null && !writeConcernName.isBlank()) {
+            WriteConcern configuredWriteConcern = WriteConcern.valueOf(writeConcernName.trim().toUpperCase());
+            if (configuredWriteConcern != null) {
+                writeConcern = configuredWriteConcern;
+            } else {
+                logger.warn("Unknown MongoDB write concern '{}', using ACKNOWLEDGED", writeConcernName);
+            }
+        }
+        batchSize = getConfigIntValue(config, "batchSize", DEFAULT_BATCH_SIZE);
+        batchQueueSize = getConfigIntValue(config, "batchQueueSize", DEFAULT_BATCH_QUEUE_SIZE);
+        batchFlushInterval = getConfigIntValue(config, "batchFlushInterval", DEFAULT_BATCH_FLUSH_INTERVAL);
+        logger.debug("MongoDB writeConcern {}, batchSize {}, batchQueueSize {}, batchFlushInterval {} ms",
+                writeConcern, batchSize, batchQueueSize, batchFlushInterval);
+        dropLegacyIndex = Boolean.parseBoolean(String.valueOf(config.get("dropLegacyIndex")).trim());
+
         disconnectFromDatabase();
         connectToDatabase();
 
@@ -129,6 +163,20 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         initialized = true;
     }
 
+    private int getConfigIntValue(Map<String, Object> config, String key, int defaultValue) {
+        Object value = config.get(key);
+        if (value instanceof Number) {
+            return Math.max(0, ((Number) value).intValue());
+        } else if (value instanceof String && !((String) value).isBlank()) {
+            try {
+                return Math.max(0, Integer.parseInt(((String) value).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid MongoDB {} '{}', using {}", key, value, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     @Deactivate
     public void deactivate(final int reason) {
         logger.debug("MongoDB persistence bundle stopping. Disconnecting from database.");
@@ -181,9 +229,16 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         obj.put(FIELD_REALNAME, realName);
         obj.put(FIELD_TIMESTAMP, new Date());
         obj.put(FIELD_VALUE, value);
-        this.mongoCollection.save(obj);
-
-        logger.debug("MongoDB save {}={}", name, value);
+        MongoDBBatchWriter writer = batchWriter;
+        if (writer != null) {
+            if (!writer.add(obj)) {
+                return;
+            }
+            logger.debug("MongoDB queue {}={}", name, value);
+        } else {
+            this.mongoCollection.save(obj, writeConcern);
+            logger.debug("MongoDB save {}={}", name, value);
+        }
     }
 
     private Object convertValue(State state) {
@@ -231,9 +286,18 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             this.cl = new MongoClient(new MongoClientURI(this.url));
             mongoCollection = cl.getDB(this.db).getCollection(this.collection);
 
+            // queries filter on the item and a time range and sort by time, so the item has to be the first key
             BasicDBObject idx = new BasicDBObject();
-            idx.append(FIELD_TIMESTAMP, 1).append(FIELD_ITEM, 1);
+            idx.append(FIELD_ITEM, 1).append(FIELD_TIMESTAMP, 1);
             this.mongoCollection.createIndex(idx);
+            checkLegacyIndex();
+
+            if (batchSize > 0) {
+                MongoDBBatchWriter writer = new MongoDBBatchWriter(mongoCollection, writeConcern, batchSize,
+                        batchQueueSize, batchFlushInterval);
+                writer.start();
+                batchWriter = writer;
+            }
             logger.debug("Connect MongoDB ... done");
         } catch (Exception e) {
             logger.error("Failed to connect to database {}", this.url);
@@ -241,10 +305,42 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    /**
+     * Checks for the index on (timestamp, item) created by former versions of this service. Queries use the index on
+     * (item, timestamp), so the old one only slows down every insert. It is only dropped if configured, as it might be
+     * used by other applications reading the collection.
+     */
+    private void checkLegacyIndex() {
+        BasicDBObject legacyIdx = new BasicDBObject(FIELD_TIMESTAMP, 1).append(FIELD_ITEM, 1);
+        boolean exists = this.mongoCollection.getIndexInfo().stream()
+                .anyMatch(index -> legacyIdx.equals(index.get("key")));
+        if (!exists) {
+            return;
+        }
+        if (!dropLegacyIndex) {
+            logger.info(
+                    "The MongoDB index on {} and {} of former versions is not used anymore, set dropLegacyIndex=true to drop it",
+                    FIELD_TIMESTAMP, FIELD_ITEM);
+            return;
+        }
+        try {
+            this.mongoCollection.dropIndex(legacyIdx);
+            logger.info("Dropped the former MongoDB index on {} and {}", FIELD_TIMESTAMP, FIELD_ITEM);
+        } catch (MongoException e) {
+            logger.warn("Failed to drop the former MongoDB index on {} and {}: {}", FIELD_TIMESTAMP, FIELD_ITEM,
+                    e.getMessage());
+        }
+    }
+
     /**
      * Disconnects from the database
      */
     private void disconnectFromDatabase() {
+        MongoDBBatchWriter writer = batchWriter;
+        if (writer != null) {
+            writer.stop();
+            batchWriter = null;
+        }
         this.mongoCollection = null;
         if (this.cl != null) {
             this.cl.close();
@@ -266,6 +362,11 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             return Collections.emptyList();
         }
 
+        MongoDBBatchWriter writer = batchWriter;
+        if (writer != null) {
+            writer.flush();
+        }
+
         String name = filter.getItemName();
         Item item = getItem(name);
 
@@ -279,15 +380,22 @@ public class MongoDBPersistenceService implements QueryablePersistenceService {
             Object value = convertValue(filter.getState());
             query.put(FIELD_VALUE, new BasicDBObject(op, value));
         }
-        if (filter.getBeginDate() != null) {
-            query.put(FIELD_TIMESTAMP, new BasicDBObject("$gte", filter.getBeginDate()));
-        }
-        if (filter.getBeginDate() != null) {
-            query.put(FIELD_TIMESTAMP, new BasicDBObject("$lte", filter.getBeginDate()));
+        ZonedDateTime beginDate = filter.getBeginDate();
+        ZonedDateTime endDate = filter.getEndDate();
+        if (beginDate != null || endDate != null) {
+            BasicDBObject timeRange = new BasicDBObject();
+            if (beginDate != null) {
+                timeRange.append("$gte", Date.from(beginDate.toInstant()));
+            }
+            if (endDate != null) {
+                timeRange.append("$lte", Date.from(endDate.toInstant()));
+            }
+            query.put(FIELD_TIMESTAMP, timeRange);
         }
 
         Integer sortDir = (filter.getOrdering() == Ordering.ASCENDING) ? 1 : -1;
-        DBCursor cursor = this.mongoCollection.find(query).sort(new BasicDBObject(FIELD_TIMESTAMP, sortDir))
+        DBCursor cursor = this.mongoCollection.find(query, QUERY_PROJECTION)
+                .sort(new BasicDBObject(FIELD_TIMESTAMP, sortDir))
                 .skip(filter.getPageNumber() * filter.getPageSize()).limit(filter.getPageSize());
 
         while (cursor.hasNext()) {
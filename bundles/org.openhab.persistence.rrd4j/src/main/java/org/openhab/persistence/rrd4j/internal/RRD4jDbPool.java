@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of open {@link RrdDb} handles, so a database file is not opened and parsed again for every store and query.
+ *
+ * Handles are reference counted: every {@link #acquire(String, RrdDbOpener)} has to be followed by a
+ * {@link #release(RrdDb)}. Released handles are kept open until they are idle for longer than the idle timeout or
+ * more than 'capacity' handles are open, in which case the least recently used idle handles are closed first.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jDbPool {
+
+    /**
+     * Opens or creates a database on a pool miss.
+     */
+    @FunctionalInterface
+    public interface RrdDbOpener {
+        @Nullable
+        RrdDb open() throws IOException;
+    }
+
+    private static class PoolEntry {
+        private final RrdDb db;
+        private int usage;
+        private long lastUsed;
+
+        private PoolEntry(RrdDb db) {
+            this.db = db;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(RRD4jDbPool.class);
+
+    private int capacity;
+    private final long idleTimeoutMillis;
+
+    // access ordered, so iteration starts with the least recently used handle
+    private final Map<String, PoolEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean closed = false;
+
+    public RRD4jDbPool(int capacity, long idleTimeoutMillis) {
+        this.capacity = capacity;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Returns the open handle for the given file, opening it with the opener if it is not in the pool.
+     *
+     * The opener is called without holding the pool lock, so opening one file does not block access to the others.
+     *
+     * @param path the absolute path of the database file
+     * @param opener opens or creates the database, may return null if no database can be created
+     * @return the handle, which has to be released afterwards, or null if the opener returned null
+     */
+    public @Nullable RrdDb acquire(String path, RrdDbOpener opener) throws IOException {
+        synchronized (this) {
+            PoolEntry entry = entries.get(path);
+            if (entry != null) {
+                entry.usage++;
+                return entry.db;
+            }
+        }
+
+        RrdDb db = opener.open();
+        if (db == null) {
+            return null;
+        }
+
+        RrdDb obsolete = null;
+        synchronized (this) {
+            PoolEntry entry = entries.get(path);
+            if (entry != null) {
+                // opened concurrently by another thread, use that handle
+                obsolete = db;
+            } else if (!closed) {
+                entry = new PoolEntry(db);
+                entries.put(path, entry);
+            }
+            if (entry != null) {
+                entry.usage++;
+                db = entry.db;
+            }
+            // after counting the usage, so the new handle is not closed right away
+            evict();
+        }
+        if (obsolete != null) {
+            closeQuietly(obsolete);
+        }
+        return db;
+    }
+
+    /**
+     * Releases a handle returned by {@link #acquire(String, RrdDbOpener)}.
+     */
+    public synchronized void release(RrdDb db) {
+        PoolEntry entry = entries.get(db.getPath());
+        if (entry == null || entry.db != db) {
+            // not pooled, as the pool was closed in the meantime
+            closeQuietly(db);
+            return;
+        }
+        entry.usage--;
+        entry.lastUsed = System.currentTimeMillis();
+        if (closed && entry.usage <= 0) {
+            entries.remove(db.getPath());
+            closeQuietly(db);
+        } else {
+            // handles kept open beyond the capacity while they were in use
+            evict();
+        }
+    }
+
+    /**
+     * Closes all handles that are not in use and have not been used for longer than the idle timeout.
+     */
+    public synchronized void closeIdle() {
+        long idleSince = System.currentTimeMillis() - idleTimeoutMillis;
+        Iterator<PoolEntry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            PoolEntry entry = it.next();
+            if (entry.usage <= 0 && entry.lastUsed < idleSince) {
+                it.remove();
+                closeQuietly(entry.db);
+            }
+        }
+    }
+
+    /**
+     * Closes all handles that are not in use.
+     */
+    public synchronized void closeUnused() {
+        Iterator<PoolEntry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            PoolEntry entry = it.next();
+            if (entry.usage <= 0) {
+                it.remove();
+                closeQuietly(entry.db);
+            }
+        }
+    }
+
+    /**
+     * Closes all handles. Handles still in use are closed when they are released.
+     */
+    public synchronized void close() {
+        closed = true;
+        closeUnused();
+    }
+
+    /**
+     * Changes the number of handles kept open, closing the least recently used idle handles if there are more.
+     */
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = capacity;
+        evict();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        Iterator<PoolEntry> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            PoolEntry entry = it.next();
+            if (entry.usage <= 0) {
+                it.remove();
+                closeQuietly(entry.db);
+            }
+        }
+        if (entries.size() > capacity) {
+            logger.debug("All {} pooled rrd4j databases are in use, exceeding the pool capacity of {}",
+                    entries.size(), capacity);
+        }
+    }
+
+    private void closeQuietly(RrdDb db) {
+        try {
+            db.close();
+        } catch (IOException e) {
+            logger.debug("Error closing rrd4j database: {}", e.getMessage());
+        }
+    }
+}
@@ -14,12 +14,16 @@ package org.openhab.persistence.rrd4j.internal;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -67,14 +71,19 @@ import org.openhab.core.types.State;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.RrdMemoryBackendFactory;
+import org.rrd4j.core.RrdNioBackendFactory;
+import org.rrd4j.core.RrdRandomAccessFileBackendFactory;
 import org.rrd4j.core.Sample;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -89,8 +98,8 @@ import org.slf4j.LoggerFactory;
  * @author Karel Goderis - remove TimerThread dependency
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class,
-        QueryablePersistenceService.class }, configurationPid = "org.openhab.rrd4j", configurationPolicy = ConfigurationPolicy.OPTIONAL)
+@Component(service = { PersistenceService.class, QueryablePersistenceService.class,
+        RRD4jPersistenceService.class }, configurationPid = "org.openhab.rrd4j", configurationPolicy = ConfigurationPolicy.OPTIONAL)
 public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     private static final String DEFAULT_OTHER = "default_other";
@@ -105,19 +114,48 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     private final Map<String, RrdDefConfig> rrdDefs = new ConcurrentHashMap<>();
 
-    private static final String DATASOURCE_STATE = "state";
+    public static final String DATASOURCE_STATE = "state";
 
     public static final String DB_FOLDER = getUserPersistenceDataFolder() + File.separator + "rrd4j";
 
     private final Logger logger = LoggerFactory.getLogger(RRD4jPersistenceService.class);
 
-    private final Map<String, ScheduledFuture<?>> scheduledJobs = new HashMap<>();
+    private final Map<String, ScheduledFuture<?>> scheduledJobs = new ConcurrentHashMap<>();
+
+    // keep the databases of items persisted at least every few minutes open
+    private static final String DB_POOL_SIZE = "dbPoolSize";
+    private static final int DEFAULT_DB_POOL_SIZE = 20;
+    private static final long DB_POOL_IDLE_TIMEOUT_MINUTES = 10;
+    private static final int LOCK_STRIPES = 64;
+
+    private final RRD4jDbPool dbPool = new RRD4jDbPool(DEFAULT_DB_POOL_SIZE,
+            TimeUnit.MINUTES.toMillis(DB_POOL_IDLE_TIMEOUT_MINUTES));
+    private @Nullable ScheduledFuture<?> dbPoolCleanupJob;
+
+    // stores of the same item are serialized, stores of different items can run in parallel
+    private final Object[] itemLocks = new Object[LOCK_STRIPES];
+
+    private static final String BACKEND_FILE = "FILE";
+    private static final String BACKEND_NIO = "NIO";
+    private static final String BACKEND_MEMORY = "MEMORY";
+    private static final int DEFAULT_BACKEND_PERIOD = 300;
+
+    // shared by all datasources with a memory backend, replaced on configuration changes
+    private volatile RrdMemoryBackendFactory memoryBackendFactory = new RrdMemoryBackendFactory();
+    // each NIO backend factory runs its own sync threads, so one is shared by all datasources and kept across
+    // configuration changes. RRD4j only supports a sync period per factory, which is set before creating it.
+    private @Nullable RrdNioBackendFactory nioBackendFactory;
+    private int nioSyncPeriod;
+    private final List<ScheduledFuture<?>> snapshotJobs = new ArrayList<>();
 
     protected final ItemRegistry itemRegistry;
 
     @Activate
     public RRD4jPersistenceService(final @Reference ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
+        for (int i = 0; i < itemLocks.length; i++) {
+            itemLocks[i] = new Object();
+        }
     }
 
     @Override
@@ -131,95 +169,100 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     }
 
     @Override
-    public synchronized void store(final Item item, @Nullable final String alias) {
+    public void store(final Item item, @Nullable final String alias) {
         if (!isSupportedItemType(item)) {
             logger.trace("Ignoring item '{}' since its type {} is not supported", item.getName(), item.getType());
             return;
         }
         final String name = alias == null ? item.getName() : alias;
-        RrdDb db = getDB(name);
-        if (db != null) {
-            ConsolFun function = getConsolidationFunction(db);
-            long now = System.currentTimeMillis() / 1000;
-            if (function != ConsolFun.AVERAGE) {
+        synchronized (getItemLock(name)) {
+            RrdDb db = getDB(name);
+            if (db != null) {
                 try {
-                    // we store the last value again, so that the value change
-                    // in the database is not interpolated, but
-                    // happens right at this spot
-                    if (now - 1 > db.getLastUpdateTime()) {
-                        // only do it if there is not already a value
-                        double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
-                        if (!Double.isNaN(lastValue)) {
-                            Sample sample = db.createSample();
-                            sample.setTime(now - 1);
-                            sample.setValue(DATASOURCE_STATE, lastValue);
-                            sample.update();
-                            logger.debug("Stored '{}' as value '{}' in rrd4j database (again)", name, lastValue);
-                        }
-                    }
-                } catch (IOException e) {
-                    logger.debug("Error storing last value (again): {}", e.getMessage());
+                    storeSample(item, name, db);
+                } finally {
+                    releaseDB(db);
                 }
             }
+        }
+    }
+
+    private void storeSample(Item item, String name, RrdDb db) {
+        ConsolFun function = getConsolidationFunction(db);
+        long now = System.currentTimeMillis() / 1000;
+        if (function != ConsolFun.AVERAGE) {
             try {
-                Sample sample = db.createSample();
-                sample.setTime(now);
-
-                Double value = null;
-
-                if (item instanceof NumberItem && item.getState() instanceof QuantityType) {
-                    NumberItem nItem = (NumberItem) item;
-                    QuantityType<?> qState = (QuantityType<?>) item.getState();
-                    Unit<? extends Quantity<?>> unit = nItem.getUnit();
-                    if (unit != null) {
-                        QuantityType<?> convertedState = qState.toUnit(unit);
-                        if (convertedState != null) {
-                            value = convertedState.doubleValue();
-                        } else {
-                            logger.warn(
-                                    "Failed to convert state '{}' to unit '{}'. Please check your item definition for correctness.",
-                                    qState, unit);
-                        }
+                // we store the last value again, so that the value change
+                // in the database is not interpolated, but
+                // happens right at this spot
+                if (now - 1 > db.getLastUpdateTime()) {
+                    // only do it if there is not already a value
+                    double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
+                    if (!Double.isNaN(lastValue)) {
+                        Sample sample = db.createSample();
+                        sample.setTime(now - 1);
+                        sample.setValue(DATASOURCE_STATE, lastValue);
+                        sample.update();
+                        logger.debug("Stored '{}' as value '{}' in rrd4j database (again)", name, lastValue);
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("Error storing last value (again): {}", e.getMessage());
+            }
+        }
+        try {
+            Sample sample = db.createSample();
+            sample.setTime(now);
+
+            Double value = null;
+
+            if (item instanceof NumberItem && item.getState() instanceof QuantityType) {
+                NumberItem nItem = (NumberItem) item;
+                QuantityType<?> qState = (QuantityType<?>) item.getState();
+                Unit<? extends Quantity<?>> unit = nItem.getUnit();
+                if (unit != null) {
+                    QuantityType<?> convertedState = qState.toUnit(unit);
+                    if (convertedState != null) {
+                        value = convertedState.doubleValue();
                     } else {
-                        value = qState.doubleValue();
+                        logger.warn(
+                                "Failed to convert state '{}' to unit '{}'. Please check your item definition for correctness.",
+                                qState, unit);
                     }
                 } else {
-                    DecimalType state = item.getStateAs(DecimalType.class);
-                    if (state != null) {
-                        value = state.toBigDecimal().doubleValue();
-                    }
+                    value = qState.doubleValue();
                 }
-                if (value != null) {
-                    if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) { // counter values must be
-                                                                                          // adjusted by stepsize
-                        value = value * db.getRrdDef().getStep();
-                    }
-                    sample.setValue(DATASOURCE_STATE, value);
-                    sample.update();
-                    logger.debug("Stored '{}' as value '{}' in rrd4j database", name, value);
+            } else {
+                DecimalType state = item.getStateAs(DecimalType.class);
+                if (state != null) {
+                    value = state.toBigDecimal().doubleValue();
                 }
-            } catch (IllegalArgumentException e) {
-                String message = e.getMessage();
-                if (message != null && message.contains("at least one second step is required")) {
-                    // we try to store the value one second later
-                    ScheduledFuture<?> job = scheduledJobs.get(name);
-                    if (job != null) {
-                        job.cancel(true);
-                        scheduledJobs.remove(name);
-                    }
-                    job = scheduler.schedule(() -> store(item, name), 1, TimeUnit.SECONDS);
-                    scheduledJobs.put(name, job);
-                } else {
-                    logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
+            }
+            if (value != null) {
+                if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) {
+                    // counter values must be adjusted by stepsize
+                    value = value * db.getRrdDef().getStep();
                 }
-            } catch (Exception e) {
-                logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
+                sample.setValue(DATASOURCE_STATE, value);
+                sample.update();
+                logger.debug("Stored '{}' as value '{}' in rrd4j database", name, value);
             }
-            try {
-                db.close();
-            } catch (IOException e) {
-                logger.debug("Error closing rrd4j database: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            String message = e.getMessage();
+            if (message != null && message.contains("at least one second step is required")) {
+                // we try to store the value one second later
+                ScheduledFuture<?> job = scheduledJobs.get(name);
+                if (job != null) {
+                    job.cancel(true);
+                    scheduledJobs.remove(name);
+                }
+                job = scheduler.schedule(() -> store(item, name), 1, TimeUnit.SECONDS);
+                scheduledJobs.put(name, job);
+            } else {
+                logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
             }
+        } catch (Exception e) {
+            logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
         }
     }
 
@@ -232,12 +275,6 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     public Iterable<HistoricItem> query(FilterCriteria filter) {
         String itemName = filter.getItemName();
 
-        RrdDb db = getDB(itemName);
-        if (db == null) {
-            logger.debug("Could not find item '{}' in rrd4j database", itemName);
-            return List.of();
-        }
-
         Item item = null;
         Unit<?> unit = null;
         try {
@@ -255,6 +292,11 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         long end = filter.getEndDate() == null ? System.currentTimeMillis() / 1000
                 : filter.getEndDate().toInstant().getEpochSecond();
 
+        RrdDb db = getDB(itemName);
+        if (db == null) {
+            logger.debug("Could not find item '{}' in rrd4j database", itemName);
+            return List.of();
+        }
         try {
             if (filter.getBeginDate() == null) {
                 // as rrd goes back for years and gets more and more
@@ -305,7 +347,43 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         } catch (IOException e) {
             logger.warn("Could not query rrd4j database for item '{}': {}", itemName, e.getMessage());
             return List.of();
+        } finally {
+            releaseDB(db);
+        }
+    }
+
+    /**
+     * Fetches the values of several items for the same time window, e.g. for drawing them into one chart. Each
+     * database is opened once and its values are returned as primitive arrays instead of {@link HistoricItem}s.
+     *
+     * @param itemNames the names of the items
+     * @param start begin of the time window in seconds since the epoch
+     * @param end end of the time window in seconds since the epoch
+     * @param resolution the preferred time between two values in seconds, used to select the archive
+     * @return the series of all items with a database, in the order of the item names
+     */
+    public Map<String, RRD4jSeries> fetch(Collection<String> itemNames, long start, long end, long resolution) {
+        Map<String, RRD4jSeries> series = new LinkedHashMap<>();
+        for (String itemName : itemNames) {
+            if (series.containsKey(itemName) || !hasDB(itemName)) {
+                // do not create databases just for reading them
+                continue;
+            }
+            RrdDb db = getDB(itemName);
+            if (db == null) {
+                continue;
+            }
+            try {
+                ConsolFun function = getConsolidationFunction(db);
+                FetchData result = db.createFetchRequest(function, start, end, resolution).fetchData();
+                series.put(itemName, new RRD4jSeries(itemName, function, result));
+            } catch (IOException e) {
+                logger.warn("Could not query rrd4j database for item '{}': {}", itemName, e.getMessage());
+            } finally {
+                releaseDB(db);
+            }
         }
+        return series;
     }
 
     @Override
@@ -313,35 +391,151 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         return Set.of();
     }
 
-    protected synchronized @Nullable RrdDb getDB(String alias) {
-        RrdDb db = null;
+    /**
+     * Checks whether an item has a database, without creating one. A database held in memory might not have been
+     * written to its file yet.
+     */
+    private boolean hasDB(String alias) {
+        if (new File(DB_FOLDER + File.separator + alias + ".rrd").exists()) {
+            return true;
+        }
+        RrdDefConfig useRdc = getRrdDefConfig(alias);
+        return useRdc != null && useRdc.memoryItems.contains(alias);
+    }
+
+    /**
+     * Returns the pooled database of an item, which has to be released with {@link #releaseDB(RrdDb)}.
+     */
+    protected @Nullable RrdDb getDB(String alias) {
         File file = new File(DB_FOLDER + File.separator + alias + ".rrd");
-        try {
-            if (file.exists()) {
-                // recreate the RrdDb instance from the file
-                db = new RrdDb(file.getAbsolutePath());
+        // the lock makes sure that a database file is only created once
+        synchronized (getItemLock(alias)) {
+            try {
+                return dbPool.acquire(file.getAbsolutePath(), () -> openDB(alias, file));
+            } catch (IOException e) {
+                logger.error("Could not create rrd4j database file '{}': {}", file.getAbsolutePath(), e.getMessage());
+            } catch (RejectedExecutionException e) {
+                // this happens if the system is shut down
+                logger.debug("Could not create rrd4j database file '{}': {}", file.getAbsolutePath(),
+                        e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    protected void releaseDB(RrdDb db) {
+        dbPool.release(db);
+    }
+
+    private @Nullable RrdDb openDB(String alias, File file) throws IOException {
+        RrdDb db = null;
+        RrdDefConfig useRdc = getRrdDefConfig(alias);
+        if (useRdc != null && BACKEND_MEMORY.equals(useRdc.backend)) {
+            return openMemoryDB(alias, file, useRdc);
+        }
+        RrdBackendFactory factory = useRdc != null ? useRdc.backendFactory : null;
+        if (file.exists()) {
+            // recreate the RrdDb instance from the file
+            db = factory == null ? new RrdDb(file.getAbsolutePath()) : new RrdDb(file.getAbsolutePath(), factory);
+        } else {
+            File folder = new File(DB_FOLDER);
+            if (!folder.exists()) {
+                folder.mkdirs();
+            }
+            RrdDef rrdDef = getRrdDef(useRdc, file);
+            if (rrdDef != null) {
+                // create a new database file
+                db = factory == null ? new RrdDb(rrdDef) : new RrdDb(rrdDef, factory);
             } else {
-                File folder = new File(DB_FOLDER);
-                if (!folder.exists()) {
-                    folder.mkdirs();
+                logger.debug(
+                        "Did not create rrd4j database for item '{}' since no rrd definition could be determined. This is likely due to an unsupported item type.",
+                        alias);
+            }
+        }
+        return db;
+    }
+
+    /**
+     * Opens a database held in memory. It is loaded from its last snapshot file when it is opened for the first time
+     * and written back to it by {@link #snapshotMemoryDBs(RrdDefConfig)}.
+     */
+    private RrdDb openMemoryDB(String alias, File file, RrdDefConfig useRdc) throws IOException {
+        RrdMemoryBackendFactory factory = memoryBackendFactory;
+        String path = file.getAbsolutePath();
+        RrdDb db;
+        if (useRdc.memoryItems.contains(alias)) {
+            db = new RrdDb(path, factory);
+        } else if (file.exists()) {
+            try (RrdDb fileDb = new RrdDb(path, true)) {
+                db = new RrdDb(fileDb.getRrdDef(), factory);
+                fileDb.copyStateTo(db);
+            }
+            logger.debug("Loaded rrd4j database '{}' into memory", alias);
+        } else {
+            File folder = new File(DB_FOLDER);
+            if (!folder.exists()) {
+                folder.mkdirs();
+            }
+            RrdDef rrdDef = getRrdDef(useRdc, file);
+            if (rrdDef == null) {
+                throw new IOException("no valid rrd definition for datasource " + useRdc.name);
+            }
+            db = new RrdDb(rrdDef, factory);
+        }
+        useRdc.memoryItems.add(alias);
+        return db;
+    }
+
+    /**
+     * Writes the databases held in memory by the given datasource to their files.
+     */
+    private void snapshotMemoryDBs(RrdDefConfig rdc) {
+        for (String alias : rdc.memoryItems) {
+            synchronized (getItemLock(alias)) {
+                RrdDb db = getDB(alias);
+                if (db == null) {
+                    continue;
                 }
-                RrdDef rrdDef = getRrdDef(alias, file);
-                if (rrdDef != null) {
-                    // create a new database file
-                    db = new RrdDb(rrdDef);
-                } else {
-                    logger.debug(
-                            "Did not create rrd4j database for item '{}' since no rrd definition could be determined. This is likely due to an unsupported item type.",
-                            alias);
+                try {
+                    Path file = Path.of(db.getPath());
+                    Path tmpFile = Path.of(db.getPath() + ".tmp");
+                    Files.write(tmpFile, db.getBytes());
+                    Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    logger.trace("Wrote snapshot of rrd4j database '{}'", alias);
+                } catch (IOException e) {
+                    logger.warn("Could not write snapshot of rrd4j database '{}': {}", alias, e.getMessage());
+                } finally {
+                    releaseDB(db);
+                }
+            }
+        }
+    }
+
+    private void startMemorySnapshots() {
+        synchronized (snapshotJobs) {
+            for (RrdDefConfig rdc : rrdDefs.values()) {
+                if (BACKEND_MEMORY.equals(rdc.backend)) {
+                    snapshotJobs.add(scheduler.scheduleWithFixedDelay(() -> snapshotMemoryDBs(rdc),
+                            rdc.backendPeriod, rdc.backendPeriod, TimeUnit.SECONDS));
                 }
             }
-        } catch (IOException e) {
-            logger.error("Could not create rrd4j database file '{}': {}", file.getAbsolutePath(), e.getMessage());
-        } catch (RejectedExecutionException e) {
-            // this happens if the system is shut down
-            logger.debug("Could not create rrd4j database file '{}': {}", file.getAbsolutePath(), e.getMessage());
         }
-        return db;
+    }
+
+    private void stopMemorySnapshots() {
+        synchronized (snapshotJobs) {
+            snapshotJobs.forEach(job -> job.cancel(false));
+            snapshotJobs.clear();
+            for (RrdDefConfig rdc : rrdDefs.values()) {
+                if (BACKEND_MEMORY.equals(rdc.backend)) {
+                    snapshotMemoryDBs(rdc);
+                }
+            }
+        }
+    }
+
+    private Object getItemLock(String alias) {
+        return itemLocks[Math.floorMod(alias.hashCode(), itemLocks.length)];
     }
 
     private @Nullable RrdDefConfig getRrdDefConfig(String itemName) {
@@ -376,9 +570,8 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         return useRdc;
     }
 
-    private @Nullable RrdDef getRrdDef(String itemName, File file) {
+    private @Nullable RrdDef getRrdDef(@Nullable RrdDefConfig useRdc, File file) {
         RrdDef rrdDef = new RrdDef(file.getAbsolutePath());
-        RrdDefConfig useRdc = getRrdDefConfig(itemName);
         if (useRdc != null) {
             rrdDef.setStep(useRdc.step);
             rrdDef.setStartTime(System.currentTimeMillis() / 1000 - 1);
@@ -441,10 +634,28 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     @Activate
     protected void activate(final Map<String, Object> config) {
         modified(config);
+        dbPoolCleanupJob = scheduler.scheduleWithFixedDelay(dbPool::closeIdle, DB_POOL_IDLE_TIMEOUT_MINUTES,
+                DB_POOL_IDLE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        ScheduledFuture<?> job = dbPoolCleanupJob;
+        if (job != null) {
+            job.cancel(false);
+            dbPoolCleanupJob = null;
+        }
+        stopMemorySnapshots();
+        dbPool.close();
     }
 
     @Modified
     protected void modified(final Map<String, Object> config) {
+        // write and drop the databases held in memory and close all open databases, as their backend may change
+        stopMemorySnapshots();
+        dbPool.closeUnused();
+        memoryBackendFactory = new RrdMemoryBackendFactory();
+
         // clean existing definitions
         rrdDefs.clear();
 
@@ -487,8 +698,11 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         defaultOther.addArchives("LAST,0.5,1,720:LAST,0.5,12,10080:LAST,0.5,180,35040:LAST,0.5,2880,21900");
         rrdDefs.put(DEFAULT_OTHER, defaultOther);
 
+        dbPool.setCapacity(getDbPoolSize(config.get(DB_POOL_SIZE)));
+
         if (config.isEmpty()) {
             logger.debug("using default configuration only");
+            startMemorySnapshots();
             return;
         }
 
@@ -496,8 +710,8 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         while (keys.hasNext()) {
             String key = keys.next();
 
-            if (key.equals("service.pid") || key.equals("component.name")) {
-                // ignore service.pid and name
+            if (key.equals("service.pid") || key.equals("component.name") || key.equals(DB_POOL_SIZE)) {
+                // ignore service.pid and name, the pool size is not a datasource setting
                 continue;
             }
 
@@ -533,6 +747,8 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                         rrdDef.addArchives(value);
                     } else if (property.equals("items")) {
                         rrdDef.addItems(value);
+                    } else if (property.equals("backend")) {
+                        rrdDef.setBackend(value);
                     } else {
                         logger.debug("Unknown property {} : {}", property, value);
                     }
@@ -552,6 +768,38 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 }
             }
         }
+        startMemorySnapshots();
+    }
+
+    private synchronized RrdNioBackendFactory getNioBackendFactory(String name, int period) {
+        RrdNioBackendFactory factory = nioBackendFactory;
+        if (factory == null) {
+            RrdNioBackendFactory.setSyncPeriod(period);
+            factory = new RrdNioBackendFactory();
+            nioBackendFactory = factory;
+            nioSyncPeriod = period;
+        } else if (period != nioSyncPeriod) {
+            logger.warn(
+                    "{}: NIO backend period {} ignored, all NIO databases are synced every {} seconds until restart",
+                    name, period, nioSyncPeriod);
+        }
+        return factory;
+    }
+
+    private int getDbPoolSize(@Nullable Object value) {
+        if (value == null || value.toString().isBlank()) {
+            return DEFAULT_DB_POOL_SIZE;
+        }
+        try {
+            int size = Integer.parseInt(value.toString().trim());
+            if (size >= 0) {
+                return size;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        logger.warn("Ignoring illegal {} '{}', using {}", DB_POOL_SIZE, value, DEFAULT_DB_POOL_SIZE);
+        return DEFAULT_DB_POOL_SIZE;
     }
 
     private class RrdArchiveDef {
@@ -576,6 +824,11 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         public double min, max;
         public List<RrdArchiveDef> archives;
         public List<String> itemNames;
+        public String backend = "";
+        public int backendPeriod;
+        public @Nullable RrdBackendFactory backendFactory;
+        // items of a memory backend that have been loaded into memory
+        public final Set<String> memoryItems = ConcurrentHashMap.newKeySet();
 
         private boolean isInitialized;
 
@@ -665,6 +918,34 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
             }
         }
 
+        public void setBackend(String backendString) {
+            String[] opts = backendString.split(",");
+            if (opts.length > 2) { // check if correct number of parameters
+                logger.warn("invalid number of parameters {}: {}", name, backendString);
+                return;
+            }
+
+            int period = opts.length == 2 ? Integer.parseInt(opts[1].trim()) : DEFAULT_BACKEND_PERIOD;
+            if (period < 1) {
+                logger.warn("{}: backend period {} must be positive", name, period);
+                return;
+            }
+
+            String type = opts[0].trim().toUpperCase();
+            if (type.equals(BACKEND_FILE)) {
+                backendFactory = new RrdRandomAccessFileBackendFactory();
+            } else if (type.equals(BACKEND_NIO)) {
+                backendFactory = getNioBackendFactory(name, period);
+            } else if (type.equals(BACKEND_MEMORY)) {
+                backendFactory = null;
+            } else {
+                logger.warn("{}: backend {} not supported", name, opts[0]);
+                return;
+            }
+            backend = type;
+            backendPeriod = period;
+        }
+
         public boolean appliesTo(String item) {
             return itemNames.contains(item);
         }
@@ -681,6 +962,9 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
             sb.append(" heartbeat = ").append(heartbeat);
             sb.append(" min/max = ").append(min).append("/").append(max);
             sb.append(" step = ").append(step);
+            if (!backend.isEmpty()) {
+                sb.append(" backend = ").append(backend).append("/").append(backendPeriod);
+            }
             sb.append(" ").append(archives.size()).append(" archives(s) = [");
             for (RrdArchiveDef arc : archives) {
                 sb.append(arc.toString());
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.core.FetchData;
+
+/**
+ * The values of one item for a time window, as returned by
+ * {@link RRD4jPersistenceService#fetch(java.util.Collection, long, long, long)}. Timestamps and values are kept in
+ * primitive arrays, as they come out of the database.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jSeries {
+
+    private final String name;
+    private final ConsolFun consolFun;
+    private final FetchData fetchData;
+
+    public RRD4jSeries(String name, ConsolFun consolFun, FetchData fetchData) {
+        this.name = name;
+        this.consolFun = consolFun;
+        this.fetchData = fetchData;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ConsolFun getConsolFun() {
+        return consolFun;
+    }
+
+    /**
+     * @return the timestamps in seconds since the epoch
+     */
+    public long[] getTimestamps() {
+        return fetchData.getTimestamps();
+    }
+
+    /**
+     * @return the values, NaN where no value is stored
+     */
+    public double[] getValues() {
+        return fetchData.getValues(RRD4jPersistenceService.DATASOURCE_STATE);
+    }
+
+    /**
+     * @return the fetched data, e.g. to be used as datasource of a graph
+     */
+    public FetchData getFetchData() {
+        return fetchData;
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.RrdMemoryBackendFactory;
+
+/**
+ * Tests the reuse, eviction and idle close of pooled databases by {@link RRD4jDbPool}.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class RRD4jDbPoolTest {
+    private static final long NO_IDLE_TIMEOUT = Long.MAX_VALUE / 2;
+
+    private final RrdMemoryBackendFactory backendFactory = new RrdMemoryBackendFactory();
+    private final Map<String, Integer> opened = new HashMap<>();
+
+    private RrdDb acquire(RRD4jDbPool pool, String path) throws IOException {
+        return Objects.requireNonNull(pool.acquire(path, () -> {
+            opened.merge(path, 1, Integer::sum);
+            RrdDef rrdDef = new RrdDef(path, 10);
+            rrdDef.addDatasource("state", DsType.GAUGE, 600, Double.NaN, Double.NaN);
+            rrdDef.addArchive(ConsolFun.LAST, 0.5, 1, 10);
+            return new RrdDb(rrdDef, backendFactory);
+        }));
+    }
+
+    @Test
+    public void releasedDatabaseIsReused() throws IOException {
+        RRD4jDbPool pool = new RRD4jDbPool(2, NO_IDLE_TIMEOUT);
+
+        RrdDb db = acquire(pool, "a");
+        pool.release(db);
+        RrdDb again = acquire(pool, "a");
+
+        assertThat(again, is(sameInstance(db)));
+        assertThat(opened.get("a"), is(1));
+        assertThat(db.isClosed(), is(false));
+    }
+
+    @Test
+    public void leastRecentlyUsedDatabaseIsEvicted() throws IOException {
+        RRD4jDbPool pool = new RRD4jDbPool(2, NO_IDLE_TIMEOUT);
+
+        RrdDb a = acquire(pool, "a");
+        pool.release(a);
+        RrdDb b = acquire(pool, "b");
+        pool.release(b);
+        // use a again, so b is the least recently used one
+        pool.release(acquire(pool, "a"));
+        RrdDb c = acquire(pool, "c");
+        pool.release(c);
+
+        assertThat(pool.size(), is(2));
+        assertThat(a.isClosed(), is(false));
+        assertThat(b.isClosed(), is(true));
+        assertThat(c.isClosed(), is(false));
+    }
+
+    @Test
+    public void databaseInUseIsNotEvicted() throws IOException {
+        RRD4jDbPool pool = new RRD4jDbPool(1, NO_IDLE_TIMEOUT);
+
+        RrdDb a = acquire(pool, "a");
+        RrdDb b = acquire(pool, "b");
+
+        assertThat(a.isClosed(), is(false));
+        assertThat(b.isClosed(), is(false));
+        assertThat(pool.size(), is(2));
+
+        pool.release(a);
+        assertThat(a.isClosed(), is(true));
+        assertThat(pool.size(), is(1));
+        pool.release(b);
+        assertThat(b.isClosed(), is(false));
+    }
+
+    @Test
+    public void databaseIsClosedOnReleaseWithoutCapacity() throws IOException {
+        RRD4jDbPool pool = new RRD4jDbPool(0, NO_IDLE_TIMEOUT);
+
+        RrdDb db = acquire(pool, "a");
+        assertThat(db.isClosed(), is(false));
+
+        pool.release(db);
+        assertThat(db.isClosed(), is(true));
+        assertThat(pool.size(), is(0));
+    }
+
+    @Test
+    public void shrinkingCapacityClosesIdleDatabases() throws IOException {
+        RRD4jDbPool pool = new RRD4jDbPool(2, NO_IDLE_TIMEOUT);
+        RrdDb a = acquire(pool, "a");
+        pool.release(a);
+        RrdDb b = acquire(pool, "b");
+        pool.release(b);
+
+        pool.setCapacity(1);
+
+        assertThat(a.isClosed(), is(true));
+        assertThat(b.isClosed(), is(false));
+    }
+
+    @Test
+    public void idleDatabasesAreClosed() throws IOException, InterruptedException {
+        RRD4jDbPool pool = new RRD4jDbPool(10, 1);
+        RrdDb idle = acquire(pool, "idle");
+        pool.release(idle);
+        RrdDb used = acquire(pool, "used");
+
+        Thread.sleep(10);
+        pool.closeIdle();
+
+        assertThat(idle.isClosed(), is(true));
+        assertThat(used.isClosed(), is(false));
+        assertThat(pool.size(), is(1));
+    }
+
+    @Test
+    public void databaseInUseIsClosedOnReleaseAfterPoolIsClosed() throws IOException {
+        RRD4jDbPool pool = new RRD4jDbPool(10, NO_IDLE_TIMEOUT);
+        RrdDb unused = acquire(pool, "unused");
+        pool.release(unused);
+        RrdDb used = acquire(pool, "used");
+
+        pool.close();
+        assertThat(unused.isClosed(), is(true));
+        assertThat(used.isClosed(), is(false));
+
+        pool.release(used);
+        assertThat(used.isClosed(), is(true));
+    }
+}
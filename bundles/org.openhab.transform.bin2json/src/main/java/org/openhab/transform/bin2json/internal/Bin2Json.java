@@ -16,14 +16,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 import org.openhab.core.util.HexUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
 import com.igormaznitsa.jbbp.JBBPParser;
 import com.igormaznitsa.jbbp.exceptions.JBBPException;
 import com.igormaznitsa.jbbp.model.JBBPAbstractArrayField;
@@ -58,12 +59,17 @@ import com.igormaznitsa.jbbp.model.JBBPFieldUShort;
  * "https://github.com/raydac/java-binary-block-parser">https://github.com/raydac/java-binary-block-parser</a>
  *
  * <p>
+ * The parser rule is compiled once in the constructor. The compiled parser is thread-safe, so an instance can be
+ * reused for any number of conversions. The JSON text is written directly into a per-thread buffer, without building
+ * a JSON object tree first.
+ *
+ * <p>
  * Usage example:
  *
  * <pre>
  * {@code
- * JsonObject json = new Bin2Json("byte a; byte b; ubyte c;").convert("03FAFF");
- * json.toString() = {"a":3,"b":-6,"c":255}
+ * String json = new Bin2Json("byte a; byte b; ubyte c;").convert("03FAFF");
+ * json = {"a":3,"b":-6,"c":255}
  * </pre>
  *
  * @author Pauli Anttila - Initial contribution
@@ -71,6 +77,9 @@ import com.igormaznitsa.jbbp.model.JBBPFieldUShort;
  */
 public class Bin2Json {
 
+    private static final int MAX_REUSED_BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
     private final Logger logger = LoggerFactory.getLogger(Bin2Json.class);
 
     private JBBPParser parser;
@@ -89,13 +98,13 @@ public class Bin2Json {
     }
 
     /**
-     * Convert {@link String} in hexadecimal string format to JSON object.
+     * Convert {@link String} in hexadecimal string format to JSON.
      *
      * @param hexString Data in hexadecimal string format. Example data: 03FAFF
-     * @return Gson {@link JsonObject}
+     * @return JSON text
      * @throws ConversionException
      */
-    public JsonObject convert(String hexString) throws ConversionException {
+    public String convert(String hexString) throws ConversionException {
         try {
             return convert(HexUtils.hexToBytes(hexString));
         } catch (IllegalArgumentException e) {
@@ -104,13 +113,13 @@ public class Bin2Json {
     }
 
     /**
-     * Convert byte array to JSON object.
+     * Convert byte array to JSON.
      *
      * @param data Data in byte array format.
-     * @return Gson {@link JsonObject}
+     * @return JSON text
      * @throws ConversionException
      */
-    public JsonObject convert(byte[] data) throws ConversionException {
+    public String convert(byte[] data) throws ConversionException {
         try {
             return convert(parser.parse(data));
         } catch (IOException e) {
@@ -121,13 +130,13 @@ public class Bin2Json {
     }
 
     /**
-     * Convert data from {@link InputStream} to JSON object.
+     * Convert data from {@link InputStream} to JSON.
      *
      * @param inputStream
-     * @return Gson {@link JsonObject}
+     * @return JSON text
      * @throws ConversionException
      */
-    public JsonObject convert(InputStream inputStream) throws ConversionException {
+    public String convert(InputStream inputStream) throws ConversionException {
         try {
             return convert(parser.parse(inputStream));
         } catch (IOException e) {
@@ -137,13 +146,20 @@ public class Bin2Json {
         }
     }
 
-    private JsonObject convert(JBBPFieldStruct data) throws ConversionException {
+    private String convert(JBBPFieldStruct data) throws ConversionException {
         try {
             LocalDateTime start = LocalDateTime.now();
-            final JsonObject json = convertToJSon(data);
+            StringBuilder buffer = BUFFER.get();
+            buffer.setLength(0);
+            writeFields(buffer, data.getArray());
+            final String json = buffer.toString();
+            if (buffer.capacity() > MAX_REUSED_BUFFER_SIZE) {
+                // do not keep the memory of an unusually large conversion
+                BUFFER.remove();
+            }
             if (logger.isTraceEnabled()) {
                 Duration duration = Duration.between(start, LocalDateTime.now());
-                logger.trace("Conversion time={}, json={}", duration, json.toString());
+                logger.trace("Conversion time={}, json={}", duration, json);
             }
             return json;
         } catch (JBBPException e) {
@@ -151,89 +167,187 @@ public class Bin2Json {
         }
     }
 
-    private JsonObject convertToJSon(final JBBPAbstractField field) throws ConversionException {
-        return convertToJSon(null, field);
+    /**
+     * Writes the fields as JSON object. Fields without name are named 'nonamed'. If several fields have the same name,
+     * the last one is written at the position of the first one, as a JSON object tree would do.
+     */
+    private void writeFields(StringBuilder out, JBBPAbstractField[] fields) throws ConversionException {
+        if (hasDuplicateNames(fields)) {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (final JBBPAbstractField field : fields) {
+                StringBuilder value = new StringBuilder();
+                writeValue(value, field);
+                values.put(getFieldName(field), value.toString());
+            }
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                writeString(out, entry.getKey());
+                out.append(':').append(entry.getValue());
+            }
+            out.append('}');
+            return;
+        }
+        out.append('{');
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            writeString(out, getFieldName(fields[i]));
+            out.append(':');
+            writeValue(out, fields[i]);
+        }
+        out.append('}');
     }
 
-    private JsonObject convertToJSon(final JsonObject json, final JBBPAbstractField field) throws ConversionException {
-        JsonObject jsn = json == null ? new JsonObject() : json;
-
-        final String fieldName = field.getFieldName() == null ? "nonamed" : field.getFieldName();
+    private void writeValue(StringBuilder out, final JBBPAbstractField field) throws ConversionException {
         if (field instanceof JBBPAbstractArrayField) {
-            final JsonArray jsonArray = new JsonArray();
+            out.append('[');
             if (field instanceof JBBPFieldArrayBit) {
-                for (final byte b : ((JBBPFieldArrayBit) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                final byte[] array = ((JBBPFieldArrayBit) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(out, i).append(array[i]);
                 }
             } else if (field instanceof JBBPFieldArrayBoolean) {
-                for (final boolean b : ((JBBPFieldArrayBoolean) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                final boolean[] array = ((JBBPFieldArrayBoolean) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(out, i).append(array[i]);
                 }
             } else if (field instanceof JBBPFieldArrayByte) {
-                for (final byte b : ((JBBPFieldArrayByte) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                final byte[] array = ((JBBPFieldArrayByte) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(out, i).append(array[i]);
                 }
             } else if (field instanceof JBBPFieldArrayInt) {
-                for (final int b : ((JBBPFieldArrayInt) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                final int[] array = ((JBBPFieldArrayInt) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(out, i).append(array[i]);
                 }
             } else if (field instanceof JBBPFieldArrayLong) {
-                for (final long b : ((JBBPFieldArrayLong) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                final long[] array = ((JBBPFieldArrayLong) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(out, i).append(array[i]);
                 }
             } else if (field instanceof JBBPFieldArrayShort) {
-                for (final short b : ((JBBPFieldArrayShort) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                final short[] array = ((JBBPFieldArrayShort) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(out, i).append(array[i]);
                 }
             } else if (field instanceof JBBPFieldArrayStruct) {
                 final JBBPFieldArrayStruct array = (JBBPFieldArrayStruct) field;
                 for (int i = 0; i < array.size(); i++) {
-                    jsonArray.add(convertToJSon(new JsonObject(), array.getElementAt(i)));
+                    // each element is wrapped into an object with the name of the array
+                    final JBBPFieldStruct element = array.getElementAt(i);
+                    appendSeparator(out, i).append('{');
+                    writeString(out, getFieldName(element));
+                    out.append(':');
+                    writeFields(out, element.getArray());
+                    out.append('}');
                 }
             } else if (field instanceof JBBPFieldArrayUByte) {
-                for (final byte b : ((JBBPFieldArrayUByte) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b & 0xFF));
+                final byte[] array = ((JBBPFieldArrayUByte) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(out, i).append(array[i] & 0xFF);
                 }
             } else if (field instanceof JBBPFieldArrayUShort) {
-                for (final short b : ((JBBPFieldArrayUShort) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b & 0xFFFF));
+                final short[] array = ((JBBPFieldArrayUShort) field).getArray();
+                for (int i = 0; i < array.length; i++) {
+                    appendSeparator(out, i).append(array[i] & 0xFFFF);
                 }
             } else {
                 throw new ConversionException(String.format("Unexpected field type '%s'", field));
             }
-            jsn.add(fieldName, jsonArray);
+            out.append(']');
         } else {
             if (field instanceof JBBPFieldBit) {
-                jsn.addProperty(fieldName, ((JBBPFieldBit) field).getAsInt());
+                out.append(((JBBPFieldBit) field).getAsInt());
             } else if (field instanceof JBBPFieldBoolean) {
-                jsn.addProperty(fieldName, ((JBBPFieldBoolean) field).getAsBool());
+                out.append(((JBBPFieldBoolean) field).getAsBool());
             } else if (field instanceof JBBPFieldByte) {
-                jsn.addProperty(fieldName, ((JBBPFieldByte) field).getAsInt());
+                out.append(((JBBPFieldByte) field).getAsInt());
             } else if (field instanceof JBBPFieldInt) {
-                jsn.addProperty(fieldName, ((JBBPFieldInt) field).getAsInt());
+                out.append(((JBBPFieldInt) field).getAsInt());
             } else if (field instanceof JBBPFieldLong) {
-                jsn.addProperty(fieldName, ((JBBPFieldLong) field).getAsLong());
+                out.append(((JBBPFieldLong) field).getAsLong());
             } else if (field instanceof JBBPFieldShort) {
-                jsn.addProperty(fieldName, ((JBBPFieldShort) field).getAsInt());
+                out.append(((JBBPFieldShort) field).getAsInt());
             } else if (field instanceof JBBPFieldStruct) {
-                final JBBPFieldStruct struct = (JBBPFieldStruct) field;
-                final JsonObject obj = new JsonObject();
-                for (final JBBPAbstractField f : struct.getArray()) {
-                    convertToJSon(obj, f);
-                }
-                if (json == null) {
-                    return obj;
-                } else {
-                    jsn.add(fieldName, obj);
-                }
+                writeFields(out, ((JBBPFieldStruct) field).getArray());
             } else if (field instanceof JBBPFieldUByte) {
-                jsn.addProperty(fieldName, ((JBBPFieldUByte) field).getAsInt());
+                out.append(((JBBPFieldUByte) field).getAsInt());
             } else if (field instanceof JBBPFieldUShort) {
-                jsn.addProperty(fieldName, ((JBBPFieldUShort) field).getAsInt());
+                out.append(((JBBPFieldUShort) field).getAsInt());
             } else {
                 throw new ConversionException(String.format("Unexpected field '%s'", field));
             }
         }
-        return jsn;
+    }
+
+    private static String getFieldName(final JBBPAbstractField field) {
+        final String fieldName = field.getFieldName();
+        return fieldName == null ? "nonamed" : fieldName;
+    }
+
+    private static boolean hasDuplicateNames(JBBPAbstractField[] fields) {
+        if (fields.length < 2) {
+            return false;
+        }
+        Set<String> names = new HashSet<>();
+        for (final JBBPAbstractField field : fields) {
+            if (!names.add(getFieldName(field))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static StringBuilder appendSeparator(StringBuilder out, int index) {
+        return index > 0 ? out.append(',') : out;
+    }
+
+    /**
+     * Writes a JSON string, escaped like Gson does.
+     */
+    static void writeString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                    out.append('\\').append(c);
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                case '\u2028':
+                case '\u2029':
+                    out.append(String.format("\\u%04x", (int) c));
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
     }
 }
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.bin2json.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Pins the JSON text written by {@link Bin2Json} to the output of the former Gson based implementation.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+public class Bin2JsonTest {
+
+    private String convert(String rule, String hexString) throws ConversionException {
+        return new Bin2Json(rule).convert(hexString);
+    }
+
+    @Test
+    public void plainFields() throws ConversionException {
+        assertEquals("{\"a\":3,\"b\":-6,\"c\":255}", convert("byte a; byte b; ubyte c;", "03FAFF"));
+        assertEquals("{\"s\":-2,\"u\":65534,\"i\":-1,\"l\":1,\"f\":true}",
+                convert("short s; ushort u; int i; long l; bool f;", "FFFEFFFEFFFFFFFF000000000000000101"));
+    }
+
+    @Test
+    public void nestedStructs() throws ConversionException {
+        assertEquals("{\"a\":1,\"outer\":{\"b\":2,\"inner\":{\"c\":255}},\"d\":4}",
+                convert("byte a; outer { byte b; inner { ubyte c; } } byte d;", "0102FF04"));
+    }
+
+    @Test
+    public void structArrayElementsAreWrappedInObjectsNamedAfterTheArray() throws ConversionException {
+        assertEquals("{\"arr\":[{\"arr\":{\"x\":1,\"y\":255}},{\"arr\":{\"x\":2,\"y\":254}}]}",
+                convert("arr [2] { byte x; ubyte y; }", "01FF02FE"));
+    }
+
+    @Test
+    public void laterFieldWithSameNameReplacesEarlierOne() throws ConversionException {
+        // unnamed fields are all named 'nonamed', the last value is written at the position of the first field
+        assertEquals("{\"nonamed\":255,\"a\":2}", convert("byte; byte a; ubyte;", "0102FF"));
+        assertEquals("{\"a\":1,\"s\":{\"nonamed\":3}}", convert("byte a; s { byte; byte; }", "010203"));
+    }
+
+    @Test
+    public void unsignedArrays() throws ConversionException {
+        assertEquals("{\"u\":[255,128],\"s\":[65534,1]}", convert("ubyte [2] u; ushort [2] s;", "FF80FFFE0001"));
+    }
+
+    @Test
+    public void signedArrays() throws ConversionException {
+        assertEquals("{\"b\":[-1,1],\"s\":[-2],\"i\":[-1],\"l\":[2]}",
+                convert("byte [2] b; short [1] s; int [1] i; long [1] l;", "FF01FFFEFFFFFFFF0000000000000002"));
+    }
+
+    @Test
+    public void bitAndBooleanArrays() throws ConversionException {
+        assertEquals("{\"b\":[1,2],\"f\":[true,false]}", convert("bit:4 [2] b; bool [2] f;", "210100"));
+        assertEquals("{\"x\":1,\"y\":2}", convert("bit:4 x; bit:4 y;", "21"));
+    }
+
+    @Test
+    public void stringsAreEscapedLikeGson() {
+        String[] values = { "plain", "quote\"", "back\\slash", "tab\tnew\nline\rfeed\fback\b",
+                "control\u0001\u001f", "separators\u2028\u2029", "unicode\u00e4\u20ac", "html<>&='" };
+        for (String value : values) {
+            StringBuilder out = new StringBuilder();
+            Bin2Json.writeString(out, value);
+            assertEquals(new JsonPrimitive(value).toString(), out.toString());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-running process which transforms one input line on stdin into one output line on stdout.
+ *
+ * An output line is read by a dedicated thread, so a request can time out. After a timeout the state of the process is
+ * unknown, so it is stopped and must not be used anymore.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class ExecCoprocess {
+
+    private static final long WAIT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Logger logger = LoggerFactory.getLogger(ExecCoprocess.class);
+
+    private final String commandLine;
+    private final Process process;
+    private final BufferedWriter stdin;
+    private final Thread reader;
+    private final BlockingQueue<String> responses = new LinkedBlockingQueue<>();
+    private volatile boolean stopped = false;
+
+    /**
+     * Starts the process.
+     *
+     * @param commandLine the command line, arguments are separated by spaces
+     * @throws IOException if the process cannot be started
+     */
+    public ExecCoprocess(String commandLine) throws IOException {
+        this.commandLine = commandLine;
+        process = new ProcessBuilder(Arrays.asList(commandLine.split(" "))).redirectError(Redirect.DISCARD).start();
+        stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+
+        reader = new Thread(this::readResponses, "OH-exec-coprocess-" + process.pid());
+        reader.setDaemon(true);
+        reader.start();
+        logger.debug("Started co-process '{}' with pid {}", commandLine, process.pid());
+    }
+
+    /**
+     * Writes the input as one line and waits for one line of output.
+     *
+     * @param input the input, must not contain line breaks
+     * @param timeout the time to wait for the output
+     * @return the output line, or null if the process did not answer in time or has terminated
+     * @throws IOException if the input cannot be written
+     */
+    public @Nullable String request(String input, Duration timeout) throws IOException {
+        // a late answer to an earlier request would be mistaken for the answer to this one
+        responses.clear();
+        stdin.write(input);
+        stdin.newLine();
+        stdin.flush();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            String response = null;
+            // wake up regularly, so a request to a process that was stopped or has closed its output fails early
+            while (response == null && !stopped && reader.isAlive()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                response = responses.poll(Math.min(remaining, WAIT_INTERVAL_NANOS), TimeUnit.NANOSECONDS);
+            }
+            if (response == null) {
+                // the answer might have been read right before the output was closed
+                response = responses.poll();
+            }
+            if (response == null && isAlive()) {
+                logger.debug("Co-process '{}' did not answer within {} ms, stopping it", commandLine,
+                        timeout.toMillis());
+                stop();
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop();
+            return null;
+        }
+    }
+
+    public boolean isAlive() {
+        return !stopped && process.isAlive();
+    }
+
+    public void stop() {
+        stopped = true;
+        try {
+            stdin.close();
+        } catch (IOException e) {
+            // the process might have terminated already
+        }
+        process.destroy();
+        try {
+            if (!process.waitFor(1, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void readResponses() {
+        try (BufferedReader stdout = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = stdout.readLine()) != null) {
+                responses.offer(line);
+            }
+        } catch (IOException e) {
+            logger.debug("Reading output of co-process '{}' failed: {}", commandLine, e.getMessage());
+        }
+        logger.debug("Co-process '{}' terminated", commandLine);
+    }
+}
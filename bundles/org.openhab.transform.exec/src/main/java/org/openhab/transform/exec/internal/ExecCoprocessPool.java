@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.transform.TransformationException;
+
+/**
+ * A pool of {@link ExecCoprocess}es running the same command line.
+ *
+ * Processes are started on demand, up to the given maximum. A process serves one request at a time, so if all of them
+ * are busy, a request waits for the next free one. Processes which have terminated or timed out are replaced.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class ExecCoprocessPool {
+
+    private static final long WAIT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String commandLine;
+    private final int maxProcesses;
+    private final Duration timeout;
+
+    private final BlockingQueue<ExecCoprocess> idle = new LinkedBlockingQueue<>();
+    // only modified while holding the lock of this object
+    private final List<ExecCoprocess> processes = new ArrayList<>();
+    private boolean stopped = false;
+
+    public ExecCoprocessPool(String commandLine, int maxProcesses, Duration timeout) {
+        this.commandLine = commandLine;
+        this.maxProcesses = Math.max(1, maxProcesses);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Sends the input to a free process and returns its answer.
+     *
+     * @param input the input, must not contain line breaks
+     * @return the answer
+     * @throws TransformationException if no process is available or the process failed to answer in time
+     */
+    public String request(String input) throws TransformationException {
+        ExecCoprocess process = borrow();
+        String response = null;
+        try {
+            response = process.request(input, timeout);
+        } catch (IOException e) {
+            process.stop();
+            throw new TransformationException("Writing to co-process '" + commandLine + "' failed: " + e.getMessage(),
+                    e);
+        } finally {
+            release(process);
+        }
+        if (response == null) {
+            throw new TransformationException("Co-process '" + commandLine + "' did not answer in time");
+        }
+        return response;
+    }
+
+    /**
+     * Stops all processes of this pool, including busy ones, whose pending requests fail. Further requests fail as
+     * well.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        for (ExecCoprocess process : processes) {
+            process.stop();
+        }
+        processes.clear();
+        idle.clear();
+    }
+
+    private ExecCoprocess borrow() throws TransformationException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            ExecCoprocess process = idle.poll();
+            if (process == null) {
+                process = startIfPossible();
+            }
+            if (process == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TransformationException("No co-process '" + commandLine + "' available");
+                }
+                try {
+                    // wake up regularly, as a busy process might be discarded instead of released
+                    process = idle.poll(Math.min(remaining, WAIT_INTERVAL_NANOS), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TransformationException("Interrupted while waiting for co-process '" + commandLine + "'");
+                }
+            }
+            if (process != null) {
+                if (process.isAlive()) {
+                    return process;
+                }
+                discard(process);
+            }
+        }
+    }
+
+    private synchronized @Nullable ExecCoprocess startIfPossible() throws TransformationException {
+        if (stopped) {
+            throw new TransformationException("Co-processes '" + commandLine + "' are stopped");
+        }
+        if (processes.size() >= maxProcesses) {
+            return null;
+        }
+        try {
+            ExecCoprocess process = new ExecCoprocess(commandLine);
+            processes.add(process);
+            return process;
+        } catch (IOException e) {
+            throw new TransformationException("Starting co-process '" + commandLine + "' failed: " + e.getMessage(),
+                    e);
+        }
+    }
+
+    private synchronized void release(ExecCoprocess process) {
+        if (stopped || !process.isAlive()) {
+            discard(process);
+        } else {
+            idle.offer(process);
+        }
+    }
+
+    private synchronized void discard(ExecCoprocess process) {
+        process.stop();
+        processes.remove(process);
+    }
+}
@@ -13,6 +13,8 @@
 package org.openhab.transform.exec.internal;
 
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -21,6 +23,7 @@ import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,26 +32,44 @@ import org.slf4j.LoggerFactory;
  * The implementation of {@link TransformationService} which transforms the
  * input by command line.
  *
+ * Command lines starting with {@value #COPROCESS_PREFIX} are run as long-running co-processes instead, which get the
+ * input as one line on stdin and answer with one line on stdout, see {@link ExecCoprocessPool}.
+ *
  * @author Pauli Anttila - Initial contribution
  * @author Jan N. Klug - added command whitelist service
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=EXEC" })
 public class ExecTransformationService implements TransformationService {
+    static final String COPROCESS_PREFIX = "coproc:";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final int COPROCESS_POOL_SIZE = 2;
+
     private final Logger logger = LoggerFactory.getLogger(ExecTransformationService.class);
     private final ExecTransformationWhitelistWatchService execTransformationWhitelistWatchService;
+    private final Map<String, ExecCoprocessPool> coprocessPools = new ConcurrentHashMap<>();
+    private final Runnable whitelistChangeListener = this::stopRevokedCoprocesses;
 
     @Activate
     public ExecTransformationService(
             @Reference ExecTransformationWhitelistWatchService execTransformationWhitelistWatchService) {
         this.execTransformationWhitelistWatchService = execTransformationWhitelistWatchService;
+        execTransformationWhitelistWatchService.addWhitelistChangeListener(whitelistChangeListener);
+    }
+
+    @Deactivate
+    public void deactivate() {
+        execTransformationWhitelistWatchService.removeWhitelistChangeListener(whitelistChangeListener);
+        coprocessPools.values().forEach(ExecCoprocessPool::stop);
+        coprocessPools.clear();
     }
 
     /**
      * Transforms the input <code>source</code> by the command line.
      *
      * @param commandLine the command to execute. Command line should contain %s string, which will be replaced by the
-     *            input data.
+     *            input data. If it starts with {@value #COPROCESS_PREFIX}, the rest is started as co-process instead.
      * @param source the input to transform
      */
     @Override
@@ -59,17 +80,40 @@ public class ExecTransformationService implements TransformationService {
 
         if (!execTransformationWhitelistWatchService.isWhitelisted(commandLine)) {
             logger.warn("Tried to execute '{}', but it is not contained in whitelist.", commandLine);
+            stopCoprocesses(commandLine);
             return null;
         }
         logger.debug("about to transform '{}' by the commandline '{}'", source, commandLine);
 
         long startTime = System.currentTimeMillis();
 
-        String formattedCommandLine = String.format(commandLine, source);
-        String result = ExecUtil.executeCommandLineAndWaitResponse(Duration.ofSeconds(5),
-                formattedCommandLine.split(" "));
+        String result;
+        if (commandLine.startsWith(COPROCESS_PREFIX)) {
+            if (source.indexOf('\n') >= 0 || source.indexOf('\r') >= 0) {
+                throw new TransformationException("the input of a co-process must not contain line breaks");
+            }
+            ExecCoprocessPool pool = coprocessPools.computeIfAbsent(commandLine, c -> new ExecCoprocessPool(
+                    c.substring(COPROCESS_PREFIX.length()).trim(), COPROCESS_POOL_SIZE, TIMEOUT));
+            result = pool.request(source);
+        } else {
+            String formattedCommandLine = String.format(commandLine, source);
+            result = ExecUtil.executeCommandLineAndWaitResponse(TIMEOUT, formattedCommandLine.split(" "));
+        }
         logger.trace("command line execution elapsed {} ms", System.currentTimeMillis() - startTime);
 
         return result;
     }
+
+    private void stopRevokedCoprocesses() {
+        // co-processes keep running between transformations, so they are stopped as soon as their command is removed
+        coprocessPools.keySet().stream().filter(c -> !execTransformationWhitelistWatchService.isWhitelisted(c))
+                .forEach(this::stopCoprocesses);
+    }
+
+    private void stopCoprocesses(String commandLine) {
+        ExecCoprocessPool pool = coprocessPools.remove(commandLine);
+        if (pool != null) {
+            pool.stop();
+        }
+    }
 }
@@ -23,6 +23,7 @@ import java.nio.file.WatchEvent;
 import java.nio.file.WatchEvent.Kind;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -45,7 +46,8 @@ public class ExecTransformationWhitelistWatchService extends AbstractWatchServic
     private static final String COMMAND_WHITELIST_FILE = "exec.whitelist";
 
     private final Logger logger = LoggerFactory.getLogger(ExecTransformationWhitelistWatchService.class);
-    private final Set<String> commandWhitelist = new HashSet<>();
+    private final Set<Runnable> whitelistChangeListeners = new CopyOnWriteArraySet<>();
+    private volatile Set<String> commandWhitelist = Set.of();
 
     @Activate
     public ExecTransformationWhitelistWatchService() {
@@ -66,13 +68,16 @@ public class ExecTransformationWhitelistWatchService extends AbstractWatchServic
     @Override
     protected void processWatchEvent(@Nullable WatchEvent<?> event, @Nullable Kind<?> kind, @Nullable Path path) {
         if (path != null && path.endsWith(COMMAND_WHITELIST_FILE)) {
-            commandWhitelist.clear();
+            // replaced as a whole, so no command is missing while the file is read
+            Set<String> newWhitelist = new HashSet<>();
             try {
-                Files.lines(path).filter(line -> !line.trim().startsWith("#")).forEach(commandWhitelist::add);
-                logger.debug("Updated command whitelist: {}", commandWhitelist);
+                Files.lines(path).filter(line -> !line.trim().startsWith("#")).forEach(newWhitelist::add);
+                logger.debug("Updated command whitelist: {}", newWhitelist);
             } catch (IOException e) {
                 logger.warn("Cannot read whitelist file, exec transformations won't be processed: {}", e.getMessage());
             }
+            commandWhitelist = newWhitelist;
+            whitelistChangeListeners.forEach(Runnable::run);
         }
     }
 
@@ -85,4 +90,22 @@ public class ExecTransformationWhitelistWatchService extends AbstractWatchServic
     public boolean isWhitelisted(String command) {
         return commandWhitelist.contains(command);
     }
+
+    /**
+     * Adds a listener which is called after each update of the whitelist
+     *
+     * @param listener the listener to add
+     */
+    public void addWhitelistChangeListener(Runnable listener) {
+        whitelistChangeListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added by {@link #addWhitelistChangeListener(Runnable)}
+     *
+     * @param listener the listener to remove
+     */
+    public void removeWhitelistChangeListener(Runnable listener) {
+        whitelistChangeListeners.remove(listener);
+    }
 }
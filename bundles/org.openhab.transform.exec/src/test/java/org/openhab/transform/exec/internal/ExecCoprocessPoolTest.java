@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.core.transform.TransformationException;
+
+/**
+ * Tests the reuse and replacement of the processes of {@link ExecCoprocessPool}.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@DisabledOnOs(OS.WINDOWS)
+public class ExecCoprocessPoolTest {
+
+    // answers with its pid and the input, so the tests can tell the processes apart
+    static final String SCRIPT = "#!/bin/sh\n" //
+            + "while read line; do\n" //
+            + "  if [ \"$line\" = \"crash\" ]; then exit 1; fi\n" //
+            + "  echo \"$$:$line\"\n" //
+            + "done\n";
+
+    private @TempDir Path tempDir;
+    private ExecCoprocessPool pool;
+
+    static String writeScript(Path dir) throws IOException {
+        Path script = Files.writeString(dir.resolve("coprocess.sh"), SCRIPT);
+        assertTrue(script.toFile().setExecutable(true));
+        return script.toString();
+    }
+
+    static String pid(String response) {
+        return response.substring(0, response.indexOf(':'));
+    }
+
+    @BeforeEach
+    public void init() throws IOException {
+        pool = new ExecCoprocessPool(writeScript(tempDir), 2, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.stop();
+    }
+
+    @Test
+    public void processIsReused() throws TransformationException {
+        String first = pool.request("a");
+        String second = pool.request("b");
+
+        assertTrue(first.endsWith(":a"));
+        assertTrue(second.endsWith(":b"));
+        assertEquals(pid(first), pid(second));
+    }
+
+    @Test
+    public void crashedProcessIsReplaced() throws TransformationException {
+        String first = pool.request("a");
+
+        long start = System.currentTimeMillis();
+        assertThrows(TransformationException.class, () -> pool.request("crash"));
+        // the terminated process is noticed before the timeout
+        assertTrue(System.currentTimeMillis() - start < 5000);
+
+        String second = pool.request("b");
+        assertTrue(second.endsWith(":b"));
+        assertNotEquals(pid(first), pid(second));
+    }
+
+    @Test
+    public void stoppedPoolFailsRequests() throws TransformationException {
+        pool.request("a");
+
+        pool.stop();
+
+        assertThrows(TransformationException.class, () -> pool.request("b"));
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openhab.core.transform.TransformationException;
+
+/**
+ * Tests the co-processes of {@link ExecTransformationService} against whitelist updates.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@DisabledOnOs(OS.WINDOWS)
+public class ExecTransformationServiceTest {
+
+    private @TempDir Path tempDir;
+    private @Mock ExecTransformationWhitelistWatchService whitelistWatchService;
+
+    private String commandLine;
+    private Runnable whitelistChangeListener;
+    private ExecTransformationService service;
+
+    @BeforeEach
+    public void init() throws IOException {
+        commandLine = ExecTransformationService.COPROCESS_PREFIX + ExecCoprocessPoolTest.writeScript(tempDir);
+        service = new ExecTransformationService(whitelistWatchService);
+
+        ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+        verify(whitelistWatchService).addWhitelistChangeListener(listener.capture());
+        whitelistChangeListener = listener.getValue();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.deactivate();
+    }
+
+    @Test
+    public void coprocessIsStoppedWhenRemovedFromWhitelist() throws TransformationException {
+        when(whitelistWatchService.isWhitelisted(commandLine)).thenReturn(true);
+        String first = service.transform(commandLine, "a");
+        assertEquals(ExecCoprocessPoolTest.pid(first), ExecCoprocessPoolTest.pid(service.transform(commandLine, "b")));
+
+        when(whitelistWatchService.isWhitelisted(commandLine)).thenReturn(false);
+        whitelistChangeListener.run();
+
+        // whitelisted again, a new process has to be started
+        when(whitelistWatchService.isWhitelisted(commandLine)).thenReturn(true);
+        String second = service.transform(commandLine, "c");
+        assertTrue(second.endsWith(":c"));
+        assertNotEquals(ExecCoprocessPoolTest.pid(first), ExecCoprocessPoolTest.pid(second));
+    }
+
+    @Test
+    public void coprocessIsKeptOnUnrelatedWhitelistUpdate() throws TransformationException {
+        when(whitelistWatchService.isWhitelisted(commandLine)).thenReturn(true);
+        String first = service.transform(commandLine, "a");
+
+        whitelistChangeListener.run();
+
+        assertEquals(ExecCoprocessPoolTest.pid(first), ExecCoprocessPoolTest.pid(service.transform(commandLine, "b")));
+    }
+
+    @Test
+    public void listenerIsRemovedOnDeactivation() {
+        service.deactivate();
+
+        verify(whitelistWatchService).removeWhitelistChangeListener(whitelistChangeListener);
+    }
+}
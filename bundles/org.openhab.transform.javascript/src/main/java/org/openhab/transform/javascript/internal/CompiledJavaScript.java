@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A compiled JavaScript transformation together with a pool of bindings to evaluate it with.
+ *
+ * Each evaluation uses its own bindings, i.e. its own global scope, so the script can be evaluated by several threads
+ * at once. Creating bindings is expensive, so they are returned to the pool after the evaluation and reused. Before
+ * that, all variables added by the evaluation, including 'input', are removed again, so no state is carried into the
+ * next evaluation. Bindings that cannot be reset to their initial variables, e.g. because the script declared global
+ * variables with 'var', which cannot be deleted, are not reused.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class CompiledJavaScript {
+
+    private static final String INPUT = "input";
+
+    private final CompiledScript script;
+    private final ScriptMetrics metrics;
+    private final int maxPooledBindings;
+    private final Deque<PooledBindings> bindingsPool = new ConcurrentLinkedDeque<>();
+
+    private static class PooledBindings {
+        private final Bindings bindings;
+        private final Set<String> initialKeys;
+
+        private PooledBindings(Bindings bindings) {
+            this.bindings = bindings;
+            this.initialKeys = new HashSet<>(bindings.keySet());
+        }
+
+        /**
+         * Removes all variables added since the bindings were created.
+         *
+         * @return true if the bindings have their initial variables again
+         */
+        private boolean reset() {
+            for (String key : new ArrayList<>(bindings.keySet())) {
+                if (!initialKeys.contains(key)) {
+                    bindings.remove(key);
+                }
+            }
+            return initialKeys.equals(bindings.keySet());
+        }
+    }
+
+    public CompiledJavaScript(CompiledScript script, ScriptMetrics metrics, int maxPooledBindings) {
+        this.script = script;
+        this.metrics = metrics;
+        this.maxPooledBindings = maxPooledBindings;
+    }
+
+    /**
+     * Evaluates the script with the given input.
+     *
+     * @param input the value of the 'input' variable
+     * @return the result of the script
+     * @throws ScriptException if the evaluation fails
+     */
+    public @Nullable Object eval(String input) throws ScriptException {
+        PooledBindings pooledBindings = bindingsPool.pollFirst();
+        if (pooledBindings == null) {
+            pooledBindings = new PooledBindings(script.getEngine().createBindings());
+        }
+        pooledBindings.bindings.put(INPUT, input);
+        boolean success = false;
+        long start = System.nanoTime();
+        try {
+            Object result = script.eval(pooledBindings.bindings);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(System.nanoTime() - start, success);
+            // bindings of a failed evaluation might be in an inconsistent state, so they are not reused
+            if (success && bindingsPool.size() < maxPooledBindings && pooledBindings.reset()) {
+                bindingsPool.offerFirst(pooledBindings);
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.transform.TransformationException;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
@@ -35,6 +36,11 @@ import org.slf4j.LoggerFactory;
 /**
  * Simple cache for compiled JavaScript files.
  *
+ * Cached scripts are looked up without locking. A missing script is compiled while holding the lock of its map entry
+ * only, so other scripts can still be looked up and evaluated meanwhile, and a concurrent removal by the
+ * {@link TransformationScriptWatcher} waits until the compilation is finished. Evaluation times are recorded per
+ * script file and kept across reloads of the file.
+ *
  * @author Thomas Kordelle - Initial contribution
  * @author Thomas Kordelle - pre compiled scripts
  */
@@ -42,39 +48,32 @@ import org.slf4j.LoggerFactory;
 @Component(service = JavaScriptEngineManager.class)
 public class JavaScriptEngineManager {
 
+    private static final int MAX_POOLED_BINDINGS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
     private final Logger logger = LoggerFactory.getLogger(JavaScriptEngineManager.class);
     private final ScriptEngineManager manager = new ScriptEngineManager();
-    /* keep memory foot print low. max 2 concurrent threads are estimated */
-    private final Map<String, CompiledScript> compiledScriptMap = new ConcurrentHashMap<>(4, 0.5f, 2);
+    private final Map<String, CompiledJavaScript> compiledScriptMap = new ConcurrentHashMap<>();
+    private final Map<String, ScriptMetrics> scriptMetrics = new ConcurrentHashMap<>();
 
     /**
-     * Get a pre compiled script {@link CompiledScript} from cache. If it is not in the cache, then load it from
+     * Get a pre compiled script {@link CompiledJavaScript} from cache. If it is not in the cache, then load it from
      * storage and put a pre compiled version into the cache.
      *
      * @param filename name of the JavaScript file to load
-     * @return a pre compiled script {@link CompiledScript}
+     * @return a pre compiled script {@link CompiledJavaScript}
      * @throws TransformationException if compile of JavaScript failed
      */
-    protected CompiledScript getScript(final String filename) throws TransformationException {
-        synchronized (compiledScriptMap) {
-            CompiledScript compiledScript = compiledScriptMap.get(filename);
-            if (compiledScript != null) {
-                logger.debug("Loading JavaScript {} from cache.", filename);
-                return compiledScript;
-            } else {
-                final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
-                logger.debug("Loading script {} from storage ", path);
-                try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
-                    final ScriptEngine engine = manager.getEngineByName("javascript");
-                    final CompiledScript cScript = ((Compilable) engine).compile(reader);
-                    logger.debug("Putting compiled JavaScript {} to cache.", cScript);
-                    compiledScriptMap.put(filename, cScript);
-                    return cScript;
-                } catch (IOException | ScriptException e) {
-                    throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(),
-                            e);
-                }
-            }
+    protected CompiledJavaScript getScript(final String filename) throws TransformationException {
+        CompiledJavaScript compiledScript = compiledScriptMap.get(filename);
+        if (compiledScript != null) {
+            logger.debug("Loading JavaScript {} from cache.", filename);
+            return compiledScript;
+        }
+        try {
+            return compiledScriptMap.computeIfAbsent(filename, this::compile);
+        } catch (CompilationException e) {
+            throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(),
+                    e.getCause());
         }
     }
 
@@ -86,5 +85,44 @@ public class JavaScriptEngineManager {
     protected void removeFromCache(String fileName) {
         logger.debug("Removing JavaScript {} from cache.", fileName);
         compiledScriptMap.remove(fileName);
+        ScriptMetrics metrics = scriptMetrics.get(fileName);
+        if (metrics != null) {
+            logger.debug("JavaScript {} statistics: {}", fileName, metrics);
+        }
+    }
+
+    /**
+     * Returns the evaluation statistics of a script file.
+     *
+     * @param filename name of the JavaScript file
+     * @return the statistics, or null if the script has not been loaded yet
+     */
+    public @Nullable ScriptMetrics getMetrics(String filename) {
+        return scriptMetrics.get(filename);
+    }
+
+    private CompiledJavaScript compile(String filename) {
+        final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
+        logger.debug("Loading script {} from storage ", path);
+        try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
+            final ScriptEngine engine = manager.getEngineByName("javascript");
+            final CompiledScript cScript = ((Compilable) engine).compile(reader);
+            logger.debug("Putting compiled JavaScript {} to cache.", cScript);
+            ScriptMetrics metrics = scriptMetrics.computeIfAbsent(filename, f -> new ScriptMetrics());
+            return new CompiledJavaScript(cScript, metrics, MAX_POOLED_BINDINGS);
+        } catch (IOException | ScriptException e) {
+            throw new CompilationException(e);
+        }
+    }
+
+    /**
+     * Carries a checked exception out of {@link Map#computeIfAbsent}.
+     */
+    private static class CompilationException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private CompilationException(Exception cause) {
+            super(cause.getMessage(), cause);
+        }
     }
 }
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jochen Klein - Initial contribution
+ */
+public class CompiledJavaScriptTest {
+
+    /**
+     * Behaves like <code>if (input == "set") { flag = "set"; } flag</code>, evaluated in the global scope.
+     */
+    private static class ConditionalGlobalScript extends CompiledScript {
+        private final Engine engine = new Engine();
+        private final Set<Bindings> usedBindings = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final boolean deletable;
+
+        private ConditionalGlobalScript(boolean deletable) {
+            this.deletable = deletable;
+        }
+
+        @Override
+        public Object eval(Bindings bindings) throws ScriptException {
+            usedBindings.add(bindings);
+            if ("set".equals(bindings.get("input"))) {
+                bindings.put("flag", "set");
+            }
+            if (!deletable) {
+                // like a global declared with 'var'
+                bindings.put("counter", "1");
+            }
+            Object flag = bindings.get("flag");
+            return flag == null ? "undefined" : flag;
+        }
+
+        @Override
+        public Object eval(ScriptContext context) throws ScriptException {
+            return eval(context.getBindings(ScriptContext.ENGINE_SCOPE));
+        }
+
+        @Override
+        public ScriptEngine getEngine() {
+            return engine;
+        }
+
+        private class Engine extends AbstractScriptEngine {
+            @Override
+            public Bindings createBindings() {
+                SimpleBindings bindings = deletable ? new SimpleBindings() : new SimpleBindings() {
+                    @Override
+                    public Object remove(Object key) {
+                        return "counter".equals(key) ? get(key) : super.remove(key);
+                    }
+                };
+                bindings.put("builtin", "value");
+                return bindings;
+            }
+
+            @Override
+            public Object eval(String script, ScriptContext context) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Object eval(Reader reader, ScriptContext context) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ScriptEngineFactory getFactory() {
+                throw new UnsupportedOperationException();
+            }
+        }
+    }
+
+    @Test
+    public void testConditionalGlobalDoesNotSurvive() throws ScriptException {
+        ConditionalGlobalScript script = new ConditionalGlobalScript(true);
+        CompiledJavaScript compiled = new CompiledJavaScript(script, new ScriptMetrics(), 2);
+
+        assertEquals("set", compiled.eval("set"));
+        assertEquals("undefined", compiled.eval("other"));
+        assertEquals("undefined", compiled.eval("other"));
+
+        // the bindings were reused, nevertheless
+        assertEquals(1, script.usedBindings.size());
+    }
+
+    @Test
+    public void testBindingsThatCannotBeResetAreNotReused() throws ScriptException {
+        ConditionalGlobalScript script = new ConditionalGlobalScript(false);
+        CompiledJavaScript compiled = new CompiledJavaScript(script, new ScriptMetrics(), 2);
+
+        assertEquals("set", compiled.eval("set"));
+        assertEquals("undefined", compiled.eval("other"));
+
+        assertEquals(2, script.usedBindings.size());
+    }
+}
@@ -14,11 +14,14 @@ package org.openhab.transform.jinja.internal;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -31,11 +34,19 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.interpret.Context;
+import com.hubspot.jinjava.interpret.InterpretException;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
 
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by Jinja2 Expressions.
  *
+ * Templates are parsed once and the resulting node trees are cached, as the same templates are usually rendered for
+ * every incoming message. The value is only parsed as JSON if the template refers to <code>value_json</code>.
+ *
  * @author Jochen Klein - Initial contribution
  *
  */
@@ -43,9 +54,35 @@ import com.hubspot.jinjava.Jinjava;
 @Component(property = { "openhab.transform=JINJA" })
 public class JinjaTransformationService implements TransformationService {
 
+    private static final int TEMPLATE_CACHE_SIZE = 256;
+    private static final String VALUE_JSON = "value_json";
+
     private final Logger logger = LoggerFactory.getLogger(JinjaTransformationService.class);
 
-    private Jinjava jinjava = new Jinjava();
+    private final Jinjava jinjava = new Jinjava();
+    // ObjectMapper is thread-safe once configured
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // access-ordered, so the least recently used template is removed when the cache is full
+    private final Map<String, ParsedTemplate> templates = Collections
+            .synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.@Nullable Entry<String, ParsedTemplate> eldest) {
+                    return size() > TEMPLATE_CACHE_SIZE;
+                }
+            });
+    private final AtomicLong jsonParseCount = new AtomicLong();
+
+    private static class ParsedTemplate {
+        private final @Nullable Node root;
+        private final boolean usesValueJson;
+
+        private ParsedTemplate(@Nullable Node root, boolean usesValueJson) {
+            this.root = root;
+            this.usesValueJson = usesValueJson;
+        }
+    }
 
     /**
      * Transforms the input <code>value</code> by Jinja template.
@@ -58,23 +95,90 @@ public class JinjaTransformationService implements TransformationService {
     public @Nullable String transform(String template, String value) throws TransformationException {
         logger.debug("about to transform '{}' by the function '{}'", value, template);
 
+        ParsedTemplate parsedTemplate = getParsedTemplate(template);
+
         Map<String, @Nullable Object> bindings = new HashMap<>();
         bindings.put("value", value);
 
-        try {
-            JsonNode tree = new ObjectMapper().readTree(value);
-            bindings.put("value_json", toObject(tree));
-        } catch (IOException e) {
-            // ok, then value_json is null...
+        if (parsedTemplate.usesValueJson) {
+            jsonParseCount.incrementAndGet();
+            try {
+                JsonNode tree = objectMapper.readTree(value);
+                bindings.put(VALUE_JSON, toObject(tree));
+            } catch (IOException e) {
+                // ok, then value_json is null...
+            }
         }
 
-        String transformationResult = jinjava.render(template, bindings);
+        Node root = parsedTemplate.root;
+        String transformationResult = null;
+        if (root != null) {
+            transformationResult = render(template, root, bindings);
+        }
+        if (transformationResult == null) {
+            // let Jinjava parse the template again, so errors are reported as usual
+            transformationResult = jinjava.render(template, bindings);
+        }
 
         logger.debug("transformation resulted in '{}'", transformationResult);
 
         return transformationResult;
     }
 
+    private ParsedTemplate getParsedTemplate(String template) {
+        ParsedTemplate parsedTemplate = templates.get(template);
+        if (parsedTemplate == null) {
+            JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava, jinjava.getGlobalContext(),
+                    jinjava.getGlobalConfig());
+            Node root = null;
+            try {
+                root = interpreter.parse(template);
+            } catch (InterpretException e) {
+                logger.debug("parsing template '{}' failed: {}", template, e.getMessage());
+            }
+            // templates with syntax errors are not cached, they are rendered by Jinjava directly to report the errors
+            if (!interpreter.getErrors().isEmpty()) {
+                root = null;
+            }
+            // A plain text search: names containing it, like 'value_json_key', cause an unneeded parse, while templates
+            // included by name are not searched, so 'value_json' is undefined in them unless this one refers to it.
+            parsedTemplate = new ParsedTemplate(root, template.contains(VALUE_JSON));
+            templates.put(template, parsedTemplate);
+        }
+        return parsedTemplate;
+    }
+
+    /**
+     * Renders the parsed template as {@link Jinjava#render(String, Map)} does.
+     *
+     * @return the rendered template, or null if rendering failed and is repeated by Jinjava to report the errors
+     */
+    private @Nullable String render(String template, Node root, Map<String, @Nullable Object> bindings) {
+        Context context = new Context(jinjava.getGlobalContext(), bindings, jinjava.getGlobalConfig().getDisabled());
+        JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava, context, jinjava.getGlobalConfig());
+        JinjavaInterpreter.pushCurrent(interpreter);
+        try {
+            String result = interpreter.render(root);
+            if (interpreter.getErrors().stream().anyMatch(error -> error.getSeverity() == ErrorType.FATAL)) {
+                return null;
+            }
+            return result;
+        } catch (InterpretException e) {
+            logger.debug("rendering parsed template '{}' failed: {}", template, e.getMessage());
+            return null;
+        } finally {
+            JinjavaInterpreter.popCurrent();
+        }
+    }
+
+    int getCachedTemplateCount() {
+        return templates.size();
+    }
+
+    long getJsonParseCount() {
+        return jsonParseCount.get();
+    }
+
     private static @Nullable Object toObject(JsonNode node) {
         switch (node.getNodeType()) {
             case ARRAY: {
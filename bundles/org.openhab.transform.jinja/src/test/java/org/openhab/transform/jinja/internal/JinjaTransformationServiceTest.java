@@ -59,4 +59,32 @@ public class JinjaTransformationServiceTest {
         // Asserts
         assertEquals("Hello world!", transformedResponse);
     }
+
+    @Test
+    public void testParsedTemplateIsReused() throws TransformationException {
+        String template = "{{ value_json.state }} at {{ value_json.level }}%";
+
+        // method under test
+        for (int i = 0; i < 10; i++) {
+            String transformedResponse = processor.transform(template,
+                    "{\"state\":\"ON\",\"level\":" + i + "}");
+
+            // Asserts
+            assertEquals("ON at " + i + "%", transformedResponse);
+        }
+        assertEquals(1, processor.getCachedTemplateCount());
+    }
+
+    @Test
+    public void testValueIsNotParsedIfNotUsed() throws TransformationException {
+        // method under test
+        String transformedResponse = processor.transform("{{ value | upper }}", "{\"state\":\"on\"}");
+
+        // Asserts
+        assertEquals("{\"STATE\":\"ON\"}", transformedResponse);
+        assertEquals(0, processor.getJsonParseCount());
+
+        processor.transform("{{ value_json.state }}", "{\"state\":\"on\"}");
+        assertEquals(1, processor.getJsonParseCount());
+    }
 }
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jsonpath.internal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Caches compiled {@link JsonPath}s and, for a short time, parsed JSON documents.
+ *
+ * Bindings often apply several expressions to the same payload in quick succession, one per channel. With this cache,
+ * the payload is only parsed once for all of them. Parsed documents are only read, never modified, so they can be
+ * shared between threads. Hits and misses of both caches are counted.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class JSonPathCache {
+
+    private static class CachedDocument {
+        private final String source;
+        private final DocumentContext document;
+        private final long expiresAt;
+
+        private CachedDocument(String source, DocumentContext document, long expiresAt) {
+            this.source = source;
+            this.document = document;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int pathCapacity;
+    private final int documentCapacity;
+    private final long documentTimeToLiveNanos;
+
+    // access-ordered, so the least recently used path is removed when the cache is full
+    private final Map<String, JsonPath> paths = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<String, JsonPath> eldest) {
+            return size() > pathCapacity;
+        }
+    });
+    private final Map<String, CachedDocument> documents = new ConcurrentHashMap<>();
+    // the payload which was parsed last, usually the same String instance is passed for all channels
+    private volatile @Nullable CachedDocument lastDocument;
+
+    private final AtomicLong pathHits = new AtomicLong();
+    private final AtomicLong pathMisses = new AtomicLong();
+    private final AtomicLong documentHits = new AtomicLong();
+    private final AtomicLong documentMisses = new AtomicLong();
+
+    /**
+     * @param pathCapacity maximum number of compiled paths
+     * @param documentCapacity maximum number of parsed documents
+     * @param documentTimeToLiveMillis time in milliseconds after which a parsed document is parsed again
+     */
+    public JSonPathCache(int pathCapacity, int documentCapacity, long documentTimeToLiveMillis) {
+        this.pathCapacity = Math.max(1, pathCapacity);
+        this.documentCapacity = Math.max(1, documentCapacity);
+        this.documentTimeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, documentTimeToLiveMillis));
+    }
+
+    /**
+     * Returns the compiled path, compiling it if it is not cached yet.
+     *
+     * @throws InvalidPathException if the expression is invalid, invalid expressions are not cached
+     */
+    public JsonPath getPath(String expression) {
+        JsonPath path = paths.get(expression);
+        if (path != null) {
+            pathHits.incrementAndGet();
+            return path;
+        }
+        pathMisses.incrementAndGet();
+        path = JsonPath.compile(expression);
+        paths.put(expression, path);
+        return path;
+    }
+
+    /**
+     * Returns the parsed document, parsing it if it was not parsed recently.
+     *
+     * @throws InvalidJsonException if the source is no valid JSON, invalid sources are not cached
+     */
+    public DocumentContext getDocument(String source) {
+        long now = System.nanoTime();
+        CachedDocument cached = lastDocument;
+        if (cached == null || cached.source != source) {
+            cached = documents.get(source);
+        }
+        if (cached != null && now - cached.expiresAt < 0) {
+            documentHits.incrementAndGet();
+            lastDocument = cached;
+            return cached.document;
+        }
+        documentMisses.incrementAndGet();
+        DocumentContext document = JsonPath.parse(source);
+        if (documentTimeToLiveNanos > 0) {
+            if (documents.size() >= documentCapacity) {
+                evict(now);
+            }
+            cached = new CachedDocument(source, document, now + documentTimeToLiveNanos);
+            documents.put(source, cached);
+            lastDocument = cached;
+        }
+        return document;
+    }
+
+    public long getPathHits() {
+        return pathHits.get();
+    }
+
+    public long getPathMisses() {
+        return pathMisses.get();
+    }
+
+    public long getDocumentHits() {
+        return documentHits.get();
+    }
+
+    public long getDocumentMisses() {
+        return documentMisses.get();
+    }
+
+    public void clear() {
+        paths.clear();
+        documents.clear();
+        lastDocument = null;
+    }
+
+    private synchronized void evict(long now) {
+        documents.values().removeIf(cached -> now - cached.expiresAt >= 0);
+        // if all documents are still valid, the one which expires first is the oldest
+        while (documents.size() >= documentCapacity) {
+            CachedDocument oldest = null;
+            for (CachedDocument cached : documents.values()) {
+                if (oldest == null || cached.expiresAt - oldest.expiresAt < 0) {
+                    oldest = cached;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            documents.remove(oldest.source, oldest);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jsonpath.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.openhab.core.transform.TransformationException;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * @author Jochen Klein - Initial contribution
+ */
+public class JSonPathCacheTest {
+
+    private static final String JSON = "{ \"temperature\": 21.5, \"humidity\": 40, \"battery\": { \"level\": 97 } }";
+
+    @Test
+    public void testPayloadIsParsedOnceForAllChannels() throws TransformationException {
+        JSonPathTransformationService processor = new JSonPathTransformationService();
+
+        assertEquals("21.5", processor.transform("$.temperature", JSON));
+        assertEquals("40", processor.transform("$.humidity", JSON));
+        assertEquals("97", processor.transform("$.battery.level", JSON));
+        // an equal payload in a new String instance
+        assertEquals("21.5", processor.transform("$.temperature", new String(JSON)));
+
+        JSonPathCache cache = processor.getCache();
+        assertEquals(1, cache.getDocumentMisses());
+        assertEquals(3, cache.getDocumentHits());
+        assertEquals(3, cache.getPathMisses());
+        assertEquals(1, cache.getPathHits());
+    }
+
+    @Test
+    public void testPathIsCompiledOnce() {
+        JSonPathCache cache = new JSonPathCache(10, 10, 1000);
+
+        JsonPath first = cache.getPath("$.temperature");
+        JsonPath second = cache.getPath("$.temperature");
+
+        assertSame(first, second);
+        assertEquals(1, cache.getPathMisses());
+        assertEquals(1, cache.getPathHits());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPathIsEvicted() {
+        JSonPathCache cache = new JSonPathCache(2, 10, 1000);
+
+        cache.getPath("$.a");
+        cache.getPath("$.b");
+        cache.getPath("$.a");
+        cache.getPath("$.c");
+        cache.getPath("$.a");
+        cache.getPath("$.b");
+
+        assertEquals(4, cache.getPathMisses());
+        assertEquals(2, cache.getPathHits());
+    }
+
+    @Test
+    public void testInvalidInputIsNotCached() {
+        JSonPathCache cache = new JSonPathCache(10, 10, 1000);
+
+        assertThrows(InvalidPathException.class, () -> cache.getPath("$$"));
+        assertThrows(InvalidPathException.class, () -> cache.getPath("$$"));
+        assertThrows(InvalidJsonException.class, () -> cache.getDocument("{id:"));
+        assertThrows(InvalidJsonException.class, () -> cache.getDocument("{id:"));
+
+        assertEquals(2, cache.getPathMisses());
+        assertEquals(2, cache.getDocumentMisses());
+    }
+
+    @Test
+    public void testDocumentsAreNotCachedWithoutTimeToLive() {
+        JSonPathCache cache = new JSonPathCache(10, 10, 0);
+
+        DocumentContext first = cache.getDocument(JSON);
+        DocumentContext second = cache.getDocument(JSON);
+
+        assertNotSame(first, second);
+        assertEquals(2, cache.getDocumentMisses());
+        assertEquals(0, cache.getDocumentHits());
+    }
+
+    @Test
+    public void testOldestDocumentIsEvicted() {
+        JSonPathCache cache = new JSonPathCache(10, 2, 60000);
+
+        cache.getDocument("[1]");
+        cache.getDocument("[2]");
+        cache.getDocument("[3]");
+        cache.getDocument("[2]");
+        cache.getDocument("[1]");
+
+        assertEquals(4, cache.getDocumentMisses());
+        assertEquals(1, cache.getDocumentHits());
+    }
+}
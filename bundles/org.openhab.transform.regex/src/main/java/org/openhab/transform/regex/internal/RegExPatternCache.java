@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.regex.internal;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Bounded cache of compiled {@link Pattern}s, keyed by expression and flags.
+ *
+ * Lookups do not lock, so the cache can be used by many threads at once. When a new pattern is added to a full cache,
+ * the least recently used pattern is evicted. Hits, misses and evictions are counted.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class RegExPatternCache {
+
+    private static class Key {
+        private final String expression;
+        private final int flags;
+
+        private Key(String expression, int flags) {
+            this.expression = expression;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return flags == other.flags && expression.equals(other.expression);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(expression, flags);
+        }
+    }
+
+    private static class Entry {
+        private final Pattern pattern;
+        private volatile long lastAccess;
+
+        private Entry(Pattern pattern, long lastAccess) {
+            this.pattern = pattern;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final int capacity;
+    private final Map<Key, Entry> patterns = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RegExPatternCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Returns the compiled pattern, compiling it if it is not cached yet.
+     *
+     * @param expression the regular expression
+     * @param flags the match flags as for {@link Pattern#compile(String, int)}
+     * @return the compiled pattern
+     * @throws PatternSyntaxException if the expression is invalid, invalid expressions are not cached
+     */
+    public Pattern get(String expression, int flags) {
+        Key key = new Key(expression, flags);
+        Entry entry = patterns.get(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            entry.lastAccess = clock.incrementAndGet();
+            return entry.pattern;
+        }
+        misses.incrementAndGet();
+        Pattern pattern = Pattern.compile(expression, flags);
+        if (patterns.size() >= capacity) {
+            evictLeastRecentlyUsed();
+        }
+        // if another thread compiled the same pattern meanwhile, both are equivalent, so no need to check
+        patterns.put(key, new Entry(pattern, clock.incrementAndGet()));
+        return pattern;
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public void clear() {
+        patterns.clear();
+    }
+
+    private synchronized void evictLeastRecentlyUsed() {
+        // the scan is only done when a new pattern is added to a full cache, which is rare for a suitable capacity
+        while (patterns.size() >= capacity) {
+            Map.Entry<Key, Entry> eldest = null;
+            for (Map.Entry<Key, Entry> candidate : patterns.entrySet()) {
+                if (eldest == null || candidate.getValue().lastAccess < eldest.getValue().lastAccess) {
+                    eldest = candidate;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (patterns.remove(eldest.getKey(), eldest.getValue())) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.regex.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.jupiter.api.Test;
+import org.openhab.core.transform.TransformationException;
+
+/**
+ * @author Jochen Klein - Initial contribution
+ */
+public class RegExPatternCacheTest {
+
+    @Test
+    public void testPatternIsCompiledOnce() {
+        RegExPatternCache cache = new RegExPatternCache(10);
+
+        Pattern first = cache.get("a(.*)", 0);
+        Pattern second = cache.get("a(.*)", 0);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testFlagsArePartOfTheKey() {
+        RegExPatternCache cache = new RegExPatternCache(10);
+
+        Pattern plain = cache.get("a(.*)", 0);
+        Pattern dotAll = cache.get("a(.*)", Pattern.DOTALL);
+
+        assertNotSame(plain, dotAll);
+        assertEquals(Pattern.DOTALL, dotAll.flags());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPatternIsEvicted() {
+        RegExPatternCache cache = new RegExPatternCache(2);
+
+        Pattern a = cache.get("a", 0);
+        cache.get("b", 0);
+        cache.get("a", 0);
+        cache.get("c", 0);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        // "b" was used least recently, so "a" is still cached
+        assertSame(a, cache.get("a", 0));
+    }
+
+    @Test
+    public void testInvalidPatternIsNotCached() {
+        RegExPatternCache cache = new RegExPatternCache(10);
+
+        assertThrows(PatternSyntaxException.class, () -> cache.get("(", 0));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testTransformationReusesPatterns() throws TransformationException {
+        RegExTransformationService service = new RegExTransformationService();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(String.valueOf(i), service.transform("value=(\\d+)", "value=" + i));
+            assertEquals("v" + i, service.transform("s/value=/v/", "value=" + i));
+        }
+
+        assertEquals(2, service.getPatternCache().getMisses());
+        assertEquals(198, service.getPatternCache().getHits());
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Evaluates simple XPath selectors on a stream of XML events, without building a DOM of the whole document.
+ *
+ * Supported are location paths of element names without namespace prefix, which are connected by '/' or '//', and
+ * optionally end with an attribute, like <code>/a/b</code>, <code>//b/c</code> or <code>//b/c/@d</code>. As with
+ * XPath, the result is the string value of the first selected node in document order, or an empty string if no node
+ * is selected. Reading stops as soon as the result is known, so errors in the remaining document are not detected.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@NonNullByDefault
+public class XPathStreamingEvaluator {
+
+    private static final String NAME = "[A-Za-z_][A-Za-z0-9_.\\-]*";
+    private static final Pattern SIMPLE_SELECTOR = Pattern
+            .compile("^((?://?" + NAME + ")+)(?:/@(" + NAME + "))?$");
+    private static final Pattern STEP = Pattern.compile("(//?)(" + NAME + ")");
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private static class Step {
+        private final boolean descendant;
+        private final String name;
+
+        private Step(boolean descendant, String name) {
+            this.descendant = descendant;
+            this.name = name;
+        }
+    }
+
+    private final List<Step> steps;
+    private final @Nullable String attribute;
+
+    private XPathStreamingEvaluator(List<Step> steps, @Nullable String attribute) {
+        this.steps = steps;
+        this.attribute = attribute;
+    }
+
+    /**
+     * @param xpathExpression the XPath expression
+     * @return the evaluator, or null if the expression is not a simple selector
+     */
+    public static @Nullable XPathStreamingEvaluator forExpression(String xpathExpression) {
+        Matcher matcher = SIMPLE_SELECTOR.matcher(xpathExpression.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        List<Step> steps = new ArrayList<>();
+        Matcher stepMatcher = STEP.matcher(matcher.group(1));
+        while (stepMatcher.find()) {
+            steps.add(new Step(stepMatcher.group(1).length() == 2, stepMatcher.group(2)));
+        }
+        return new XPathStreamingEvaluator(steps, matcher.group(2));
+    }
+
+    /**
+     * @param source the XML document
+     * @return the string value of the first selected node, or an empty string if no node is selected
+     * @throws XMLStreamException if the document cannot be read up to the selected node
+     */
+    public String evaluate(String source) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(source));
+        try {
+            List<String> path = new ArrayList<>();
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String namespace = reader.getNamespaceURI();
+                    // unprefixed names in XPath only select elements without namespace
+                    path.add(namespace == null || namespace.isEmpty() ? reader.getLocalName() : "");
+                    if (matches(path, steps.size() - 1, path.size() - 1)) {
+                        String attributeName = attribute;
+                        if (attributeName == null) {
+                            return readText(reader);
+                        }
+                        String value = getAttributeValue(reader, attributeName);
+                        if (value != null) {
+                            return value;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    path.remove(path.size() - 1);
+                }
+            }
+            return "";
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Checks if the step with the given index selects the element at the given depth of the current path.
+     */
+    private boolean matches(List<String> path, int stepIndex, int depth) {
+        Step step = steps.get(stepIndex);
+        if (!step.name.equals(path.get(depth))) {
+            return false;
+        }
+        if (stepIndex == 0) {
+            return step.descendant || depth == 0;
+        }
+        if (!step.descendant) {
+            return depth > 0 && matches(path, stepIndex - 1, depth - 1);
+        }
+        for (int ancestor = depth - 1; ancestor >= 0; ancestor--) {
+            if (matches(path, stepIndex - 1, ancestor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private @Nullable String getAttributeValue(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if ((namespace == null || namespace.isEmpty()) && name.equals(reader.getAttributeLocalName(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the string value of the current element, which is the text of all its descendants.
+     */
+    private String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(reader.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return text.toString();
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        // entities declared in a DTD are not resolved, such documents fail and are evaluated with the DOM instead
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -13,19 +13,30 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
@@ -35,14 +46,89 @@ import org.xml.sax.InputSource;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
+ * Neither {@link DocumentBuilder}s nor compiled {@link XPathExpression}s are thread-safe, so they are kept in a pool
+ * of parser contexts, each of which is used by one thread at a time and caches the expressions it has compiled.
+ * Optionally, simple selectors on large documents are evaluated by the {@link XPathStreamingEvaluator} instead.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
-@Component(property = { "openhab.transform=XPATH" })
+@Component(configurationPid = "org.openhab.xpath", property = { "openhab.transform=XPATH" })
 public class XPathTransformationService implements TransformationService {
 
+    static final String CONFIG_STREAMING_THRESHOLD = "streamingThreshold";
+
+    private static final int MAX_POOLED_CONTEXTS = 8;
+    private static final int EXPRESSION_CACHE_SIZE = 64;
+    private static final int EVALUATOR_CACHE_SIZE = 256;
+
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private final DocumentBuilderFactory domFactory = createDocumentBuilderFactory();
+    private final XPathFactory xpathFactory = XPathFactory.newInstance();
+    private final Deque<XPathContext> contexts = new ConcurrentLinkedDeque<>();
+    // access-ordered, so the least recently used evaluator is removed when the cache is full
+    private final Map<String, Optional<XPathStreamingEvaluator>> evaluators = Collections
+            .synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.@Nullable Entry<String, Optional<XPathStreamingEvaluator>> eldest) {
+                    return size() > EVALUATOR_CACHE_SIZE;
+                }
+            });
+
+    private volatile int streamingThreshold = 0;
+
+    /**
+     * A parser with its own XPath instance and the expressions compiled by it. Only used by one thread at a time.
+     */
+    private static class XPathContext {
+        private final DocumentBuilder builder;
+        private final XPath xpath;
+        private final Map<String, XPathExpression> expressions = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.@Nullable Entry<String, XPathExpression> eldest) {
+                return size() > EXPRESSION_CACHE_SIZE;
+            }
+        };
+
+        private XPathContext(DocumentBuilder builder, XPath xpath) {
+            this.builder = builder;
+            this.xpath = xpath;
+        }
+
+        private XPathExpression getExpression(String xpathExpression) throws XPathExpressionException {
+            XPathExpression expr = expressions.get(xpathExpression);
+            if (expr == null) {
+                expr = xpath.compile(xpathExpression);
+                expressions.put(xpathExpression, expr);
+            }
+            return expr;
+        }
+    }
+
+    @Activate
+    @Modified
+    protected void activate(@Nullable Map<String, Object> config) {
+        streamingThreshold = 0;
+        if (config != null) {
+            Object value = config.get(CONFIG_STREAMING_THRESHOLD);
+            if (value != null) {
+                try {
+                    streamingThreshold = Math.max(0, Integer.parseInt(value.toString().trim()));
+                } catch (NumberFormatException e) {
+                    logger.warn("Invalid value '{}' for '{}', streaming evaluation is disabled", value,
+                            CONFIG_STREAMING_THRESHOLD);
+                }
+            }
+        }
+        logger.debug("XPath streaming threshold set to {} characters", streamingThreshold);
+    }
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -51,22 +137,31 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-        StringReader stringReader = null;
+        int threshold = streamingThreshold;
+        if (threshold > 0 && source.length() > threshold) {
+            XPathStreamingEvaluator evaluator = getStreamingEvaluator(xpathExpression);
+            if (evaluator != null) {
+                try {
+                    String transformationResult = evaluator.evaluate(source);
+                    logger.debug("streaming transformation resulted in '{}'", transformationResult);
+                    return transformationResult;
+                } catch (XMLStreamException e) {
+                    logger.debug("streaming evaluation of '{}' failed, falling back to DOM: {}", xpathExpression,
+                            e.getMessage());
+                }
+            }
+        }
 
+        XPathContext context = null;
         try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+            context = borrowContext();
 
-            stringReader = new StringReader(source);
-            InputSource inputSource = new InputSource(stringReader);
+            InputSource inputSource = new InputSource(new StringReader(source));
             inputSource.setEncoding("UTF-8");
 
-            Document doc = builder.parse(inputSource);
+            Document doc = context.builder.parse(inputSource);
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+            XPathExpression expr = context.getExpression(xpathExpression);
 
             String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
 
@@ -76,9 +171,53 @@ public class XPathTransformationService implements TransformationService {
         } catch (Exception e) {
             throw new TransformationException("transformation throws exceptions", e);
         } finally {
-            if (stringReader != null) {
-                stringReader.close();
+            if (context != null) {
+                releaseContext(context);
+            }
+        }
+    }
+
+    int getStreamingThreshold() {
+        return streamingThreshold;
+    }
+
+    private @Nullable XPathStreamingEvaluator getStreamingEvaluator(String xpathExpression) {
+        Optional<XPathStreamingEvaluator> evaluator = evaluators.get(xpathExpression);
+        if (evaluator == null) {
+            evaluator = Optional.ofNullable(XPathStreamingEvaluator.forExpression(xpathExpression));
+            evaluators.put(xpathExpression, evaluator);
+        }
+        return evaluator.orElse(null);
+    }
+
+    private XPathContext borrowContext() throws ParserConfigurationException {
+        XPathContext context = contexts.pollFirst();
+        if (context == null) {
+            DocumentBuilder builder;
+            synchronized (domFactory) {
+                builder = domFactory.newDocumentBuilder();
             }
+            XPath xpath;
+            synchronized (xpathFactory) {
+                xpath = xpathFactory.newXPath();
+            }
+            context = new XPathContext(builder, xpath);
         }
+        return context;
+    }
+
+    private void releaseContext(XPathContext context) {
+        // the parser keeps references to the last document until it is reset
+        context.builder.reset();
+        if (contexts.size() < MAX_POOLED_CONTEXTS) {
+            contexts.offerFirst(context);
+        }
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+        domFactory.setNamespaceAware(true);
+        domFactory.setValidating(false);
+        return domFactory;
     }
 }
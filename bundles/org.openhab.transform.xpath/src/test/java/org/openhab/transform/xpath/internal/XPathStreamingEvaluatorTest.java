@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.transform.TransformationException;
+
+/**
+ * @author Jochen Klein - Initial contribution
+ */
+public class XPathStreamingEvaluatorTest extends AbstractTransformationServiceTest {
+
+    private static final String[] SELECTORS = { "//current_conditions/temp_c/@data", "/xml_api_reply/weather",
+            "//forecast_conditions/high/@data", "//forecast_information/city/@data", "/weather", "//temp_c/@missing",
+            "//unknown" };
+
+    private XPathTransformationService domProcessor;
+    private XPathTransformationService streamingProcessor;
+
+    @BeforeEach
+    public void init() {
+        domProcessor = new XPathTransformationService();
+        streamingProcessor = new XPathTransformationService();
+        streamingProcessor.activate(Map.of(XPathTransformationService.CONFIG_STREAMING_THRESHOLD, "1"));
+    }
+
+    @Test
+    public void testSimpleSelectorsAreSupported() {
+        for (String selector : SELECTORS) {
+            assertNotNull(XPathStreamingEvaluator.forExpression(selector), selector);
+        }
+    }
+
+    @Test
+    public void testOtherExpressionsAreNotSupported() {
+        assertNull(XPathStreamingEvaluator.forExpression("/a/b/text()"));
+        assertNull(XPathStreamingEvaluator.forExpression("//a[1]/b"));
+        assertNull(XPathStreamingEvaluator.forExpression("/*[name()='a']"));
+        assertNull(XPathStreamingEvaluator.forExpression("count(//a)"));
+        assertNull(XPathStreamingEvaluator.forExpression("/h:a/h:b"));
+    }
+
+    @Test
+    public void testStreamingResultsEqualDomResults() throws TransformationException, XMLStreamException {
+        for (String selector : SELECTORS) {
+            String expected = domProcessor.transform(selector, source);
+            XPathStreamingEvaluator evaluator = XPathStreamingEvaluator.forExpression(selector);
+
+            assertNotNull(evaluator);
+            assertEquals(expected, evaluator.evaluate(source), selector);
+            assertEquals(expected, streamingProcessor.transform(selector, source), selector);
+        }
+    }
+
+    @Test
+    public void testNestedTextAndNamespaces() throws TransformationException, XMLStreamException {
+        String xml = "<?xml version=\"1.0\"?><r><a>x<b>y<![CDATA[<z>]]></b>w</a><n:a xmlns:n=\"urn:n\">n</n:a>"
+                + "<c xmlns=\"urn:d\">d</c></r>";
+
+        for (String selector : new String[] { "/r/a", "//b", "//a", "/r/c", "//r" }) {
+            XPathStreamingEvaluator evaluator = XPathStreamingEvaluator.forExpression(selector);
+
+            assertNotNull(evaluator);
+            assertEquals(domProcessor.transform(selector, xml), evaluator.evaluate(xml), selector);
+        }
+    }
+
+    @Test
+    public void testUnsupportedExpressionFallsBackToDom() throws TransformationException {
+        assertEquals("8", streamingProcessor.transform("//current_conditions/temp_c/@data", source));
+        assertEquals("4", streamingProcessor.transform("count(//forecast_conditions)", source));
+        assertEquals("6", streamingProcessor.transform("//forecast_conditions[1]/high/@data", source));
+    }
+
+    @Test
+    public void testInvalidDocumentFallsBackToDom() {
+        assertThrows(TransformationException.class, () -> streamingProcessor.transform("//b", "<a><c></a>"));
+    }
+
+    @Test
+    public void testStreamingIsDisabledByDefault() {
+        assertEquals(0, domProcessor.getStreamingThreshold());
+        assertEquals(1, streamingProcessor.getStreamingThreshold());
+    }
+}
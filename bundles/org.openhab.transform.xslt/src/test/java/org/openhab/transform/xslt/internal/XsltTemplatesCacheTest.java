@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xslt.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Jochen Klein - Initial contribution
+ */
+public class XsltTemplatesCacheTest {
+
+    private static final String STYLESHEET = "<xsl:stylesheet version=\"1.0\" "
+            + "xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\"><xsl:output method=\"text\"/>"
+            + "<xsl:template match=\"/\"><xsl:value-of select=\"%s\"/></xsl:template></xsl:stylesheet>";
+    private static final String SOURCE = "<root><a>first</a><b>second</b></root>";
+
+    private @TempDir Path tempDir;
+    private XsltTransformationService processor;
+
+    @BeforeEach
+    public void init() {
+        processor = new XsltTransformationService();
+    }
+
+    @Test
+    public void testTemplatesAreCompiledOnce() throws IOException, TransformerException {
+        File xsl = writeStylesheet("/root/a");
+
+        Templates first = processor.getTemplates(xsl);
+        Templates second = processor.getTemplates(xsl);
+
+        assertSame(first, second);
+        assertEquals("first", transform(first));
+    }
+
+    @Test
+    public void testTemplatesAreCompiledAgainWhenFileChanges() throws IOException, TransformerException {
+        File xsl = writeStylesheet("/root/a");
+        Templates first = processor.getTemplates(xsl);
+
+        writeStylesheet("/root/b");
+        // the file system might not be able to tell both versions apart by modification time alone
+        assertTrue(xsl.setLastModified(xsl.lastModified() + 2000));
+        Templates second = processor.getTemplates(xsl);
+
+        assertNotSame(first, second);
+        assertEquals("second", transform(second));
+    }
+
+    private File writeStylesheet(String select) throws IOException {
+        Path path = tempDir.resolve("test.xsl");
+        Files.write(path, String.format(STYLESHEET, select).getBytes(StandardCharsets.UTF_8));
+        return path.toFile();
+    }
+
+    private String transform(Templates templates) throws TransformerException {
+        StringWriter out = new StringWriter();
+        templates.newTransformer().transform(new StreamSource(new StringReader(SOURCE)), new StreamResult(out));
+        return out.toString();
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.mqtt.generic.AvailabilityTracker;
+import org.openhab.binding.mqtt.generic.ChannelStateUpdateListener;
+import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
+import org.openhab.binding.mqtt.homeassistant.internal.AbstractComponent;
+import org.openhab.binding.mqtt.homeassistant.internal.ChannelConfigurationTypeAdapterFactory;
+import org.openhab.binding.mqtt.homeassistant.internal.DiscoverComponents;
+import org.openhab.binding.mqtt.homeassistant.internal.DiscoverComponents.ComponentDiscovered;
+import org.openhab.binding.mqtt.homeassistant.internal.HaID;
+import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.core.io.transport.mqtt.MqttService;
+import org.openhab.core.test.java.JavaOSGiTest;
+import org.openhab.core.thing.ThingUID;
+import org.osgi.service.cm.ConfigurationAdmin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Publishes the retained configurations of a large synthetic fleet of HomeAssistant devices to the embedded broker and
+ * measures how long the components discovery of all things takes on startup and after a reconnect.
+ *
+ * @author Jochen Klein - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.WARN)
+@NonNullByDefault
+public class DiscoveryStartupBenchmarkTest extends JavaOSGiTest {
+    private static final int DEVICE_COUNT = 200;
+    private static final String[] COMPONENTS = { "switch", "sensor", "binary_sensor", "light" };
+    private static final int COMPONENT_COUNT = DEVICE_COUNT * COMPONENTS.length;
+
+    private final Logger logger = LoggerFactory.getLogger(DiscoveryStartupBenchmarkTest.class);
+
+    private @NonNullByDefault({}) MqttBrokerConnection embeddedConnection;
+    private @NonNullByDefault({}) MqttBrokerConnection connection;
+    private @NonNullByDefault({}) ScheduledExecutorService scheduler;
+    private @NonNullByDefault({}) ExecutorService parseExecutor;
+
+    private @Mock @NonNullByDefault({}) ChannelStateUpdateListener channelStateUpdateListener;
+    private @Mock @NonNullByDefault({}) AvailabilityTracker availabilityTracker;
+    private @Mock @NonNullByDefault({}) TransformationServiceProvider transformationServiceProvider;
+
+    /**
+     * Collects the discovered components of one device and knows their configurations, like the thing handler.
+     */
+    private static class DeviceListener implements ComponentDiscovered {
+        private final Map<HaID, Integer> knownConfigHashes = new ConcurrentHashMap<>();
+        private final AtomicInteger created;
+        private final CountDownLatch latch;
+
+        DeviceListener(AtomicInteger created, CountDownLatch latch) {
+            this.created = created;
+            this.latch = latch;
+        }
+
+        @Override
+        public void componentDiscovered(HaID haID, AbstractComponent<?> component) {
+            created.incrementAndGet();
+            if (knownConfigHashes.put(haID, component.getConfigHash()) == null) {
+                latch.countDown();
+            }
+        }
+
+        @Override
+        public boolean isComponentKnown(HaID haID, int configHash) {
+            return Integer.valueOf(configHash).equals(knownConfigHashes.get(haID));
+        }
+    }
+
+    @BeforeEach
+    public void beforeEach() throws Exception {
+        registerVolatileStorageService();
+        ConfigurationAdmin configurationAdmin = getService(ConfigurationAdmin.class);
+        MqttService mqttService = getService(MqttService.class);
+        embeddedConnection = new EmbeddedBrokerTools(configurationAdmin, mqttService).waitForConnection();
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int device = 0; device < DEVICE_COUNT; device++) {
+            for (String component : COMPONENTS) {
+                String topic = deviceTopic(device, component);
+                String config = "{'name':'" + component + " " + device + "','unique_id':'" + component + device
+                        + "','state_topic':'" + topic + "/state','command_topic':'" + topic + "/set',"
+                        + "'device':{'identifiers':['bench" + device + "'],'name':'Device " + device + "'}}";
+                futures.add(embeddedConnection.publish(topic + "/config", config.getBytes(), 0, true));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        doReturn(null).when(transformationServiceProvider).getTransformationService(any());
+
+        scheduler = new ScheduledThreadPoolExecutor(4);
+        parseExecutor = Executors.newFixedThreadPool(4);
+        connection = newConnection();
+    }
+
+    @AfterEach
+    public void afterEach() throws Exception {
+        connection.stop().get(2, TimeUnit.SECONDS);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int device = 0; device < DEVICE_COUNT; device++) {
+            for (String component : COMPONENTS) {
+                // an empty retained message removes the retained configuration from the broker
+                futures.add(embeddedConnection.publish(deviceTopic(device, component) + "/config", new byte[0], 0,
+                        true));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        parseExecutor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void discoverFleetOnStartupAndReconnect() throws Exception {
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new ChannelConfigurationTypeAdapterFactory()).create();
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(COMPONENT_COUNT);
+
+        List<DiscoverComponents> discoveries = new ArrayList<>();
+        List<DeviceListener> listeners = new ArrayList<>();
+        for (int device = 0; device < DEVICE_COUNT; device++) {
+            discoveries.add(new DiscoverComponents(new ThingUID("mqtt:homeassistant_bench" + device + ":broker:dev"),
+                    scheduler, channelStateUpdateListener, availabilityTracker, gson, transformationServiceProvider,
+                    parseExecutor));
+            listeners.add(new DeviceListener(created, latch));
+        }
+
+        long start = System.nanoTime();
+        startAll(discoveries, listeners);
+        assertTrue(latch.await(60, TimeUnit.SECONDS), "Not all components discovered: " + latch.getCount() + " left");
+        long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(created.get(), is(COMPONENT_COUNT));
+        logger.info("Discovered {} components of {} devices in {} ms", COMPONENT_COUNT, DEVICE_COUNT, startupMillis);
+
+        // Reconnect: the broker delivers all retained configurations again, but none of them changed
+        discoveries.forEach(DiscoverComponents::stopDiscovery);
+        connection.stop().get(2, TimeUnit.SECONDS);
+        connection = newConnection();
+        created.set(0);
+
+        start = System.nanoTime();
+        startAll(discoveries, listeners);
+        // There is no callback for skipped configurations, so wait for a retained message on a topic subscribed last
+        CountDownLatch lastTopic = new CountDownLatch(1);
+        connection.subscribe(deviceTopic(DEVICE_COUNT - 1, COMPONENTS[COMPONENTS.length - 1]) + "/config",
+                (topic, payload) -> lastTopic.countDown()).get(10, TimeUnit.SECONDS);
+        assertTrue(lastTopic.await(10, TimeUnit.SECONDS));
+        long reconnectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Rediscovered {} unchanged components after reconnect in {} ms, {} created again",
+                COMPONENT_COUNT, reconnectMillis, created.get());
+        assertThat(created.get(), is(0));
+
+        discoveries.forEach(DiscoverComponents::stopDiscovery);
+    }
+
+    private void startAll(List<DiscoverComponents> discoveries, List<DeviceListener> listeners) throws Exception {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int device = 0; device < DEVICE_COUNT; device++) {
+            Set<HaID> ids = new HashSet<>();
+            for (String component : COMPONENTS) {
+                ids.add(new HaID(deviceTopic(device, component) + "/config"));
+            }
+            futures.add(discoveries.get(device).startDiscovery(connection, 0, ids, listeners.get(device)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+    }
+
+    private MqttBrokerConnection newConnection() throws Exception {
+        MqttBrokerConnection connection = new MqttBrokerConnection(embeddedConnection.getHost(),
+                embeddedConnection.getPort(), embeddedConnection.isSecure(), "ha_bench");
+        connection.start().get(2, TimeUnit.SECONDS);
+        return connection;
+    }
+
+    private static String deviceTopic(int device, String component) {
+        return "homeassistant/" + component + "/bench/device" + device + "_" + component;
+    }
+}